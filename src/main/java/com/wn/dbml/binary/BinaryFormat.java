@@ -0,0 +1,21 @@
+package com.wn.dbml.binary;
+
+/**
+ * The binary format of a database.
+ * <p>
+ * A header of the magic number and the version is followed by the project, the schemas with their enums and tables,
+ * the table partials, the injected table partials of each table, the relationships, the table groups and the named notes.
+ * Sizes are variable-length ints. A string is written once and referenced by its number afterwards.
+ * Settings are written by their ordinal, so the version is incremented whenever an element or a setting changes.
+ */
+final class BinaryFormat {
+	static final int MAGIC = 0x44424D4C; // "DBML"
+	static final int VERSION = 2;
+	// the string codes, a larger code references the string with the number code - FIRST_REFERENCE
+	static final int NULL = 0;
+	static final int NEW_STRING = 1;
+	static final int FIRST_REFERENCE = 2;
+	
+	private BinaryFormat() {
+	}
+}
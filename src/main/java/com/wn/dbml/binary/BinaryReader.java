@@ -0,0 +1,274 @@
+package com.wn.dbml.binary;
+
+import com.wn.dbml.model.Alias;
+import com.wn.dbml.model.Column;
+import com.wn.dbml.model.ColumnSetting;
+import com.wn.dbml.model.Database;
+import com.wn.dbml.model.IndexSetting;
+import com.wn.dbml.model.Note;
+import com.wn.dbml.model.Project;
+import com.wn.dbml.model.Relation;
+import com.wn.dbml.model.RelationshipSetting;
+import com.wn.dbml.model.Schema;
+import com.wn.dbml.model.Table;
+import com.wn.dbml.model.TableGroupSetting;
+import com.wn.dbml.model.TableSetting;
+import com.wn.dbml.util.Name;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static com.wn.dbml.binary.BinaryFormat.*;
+
+/**
+ * Reads a database written by {@link BinaryWriter}, creating its elements directly without lexing or parsing.
+ * A reader reads one database.
+ */
+public class BinaryReader {
+	private final DataInputStream in;
+	private final List<String> strings = new ArrayList<>();
+	// the tables of all schemas in the order they were written
+	private final List<Table> tables = new ArrayList<>();
+	private Database database;
+	
+	/**
+	 * @param in the stream, which is buffered and not closed after reading
+	 */
+	public BinaryReader(InputStream in) {
+		this.in = new DataInputStream(new BufferedInputStream(in));
+	}
+	
+	/**
+	 * @throws IOException if the stream is not a database in the current version of the format
+	 */
+	public Database read() throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a binary DBML database");
+		}
+		var version = in.readUnsignedShort();
+		if (version != VERSION) {
+			throw new IOException("Unsupported version %d, expected %d".formatted(version, VERSION));
+		}
+		database = new Database();
+		if (in.readBoolean()) {
+			readProject();
+		}
+		var schemas = readSize();
+		for (int i = 0; i < schemas; i++) {
+			var schema = database.getOrCreateSchema(readString());
+			var enums = readSize();
+			for (int j = 0; j < enums; j++) {
+				readEnum(schema);
+			}
+			var schemaTables = readSize();
+			for (int j = 0; j < schemaTables; j++) {
+				var name = readString();
+				var table = schema.createTable(name);
+				if (table == null) {
+					throw new IOException("Table '%s' is already defined".formatted(Name.of(schema, name)));
+				}
+				var alias = readString();
+				if (alias != null) {
+					table.setAlias(new Alias(alias));
+				}
+				readTable(table);
+				tables.add(table);
+			}
+		}
+		var partials = readSize();
+		var injecting = new ArrayList<Table>(partials + tables.size());
+		for (int i = 0; i < partials; i++) {
+			var name = readString();
+			var partial = database.createTablePartial(name);
+			if (partial == null) {
+				throw new IOException("TablePartial '%s' is already defined".formatted(name));
+			}
+			readString(); // alias
+			readTable(partial);
+			injecting.add(partial);
+		}
+		injecting.addAll(tables);
+		for (var table : injecting) {
+			var injected = readSize();
+			for (int i = 0; i < injected; i++) {
+				var name = readString();
+				var partial = database.getTablePartial(name);
+				if (partial == null) {
+					throw new IOException("TablePartial '%s' is not defined".formatted(name));
+				}
+				table.addTablePartial(partial);
+			}
+		}
+		var relationships = readSize();
+		for (int i = 0; i < relationships; i++) {
+			var name = readString();
+			var relation = readEnum(Relation.values());
+			var from = readColumns();
+			var to = readColumns();
+			var settings = new EnumMap<RelationshipSetting, String>(RelationshipSetting.class);
+			readSettings(RelationshipSetting.values(), settings::put);
+			database.createRelationship(name, relation, from, to, settings);
+		}
+		var tableGroups = readSize();
+		for (int i = 0; i < tableGroups; i++) {
+			var name = readString();
+			var tableGroup = database.createTableGroup(name);
+			if (tableGroup == null) {
+				throw new IOException("TableGroup '%s' is already defined".formatted(name));
+			}
+			readSettings(TableGroupSetting.values(), tableGroup::addSetting);
+			tableGroup.setNote(readNote());
+			var groupTables = readSize();
+			for (int j = 0; j < groupTables; j++) {
+				tableGroup.addTable(readTableName());
+			}
+		}
+		var namedNotes = readSize();
+		for (int i = 0; i < namedNotes; i++) {
+			var name = readString();
+			var namedNote = database.addNamedNote(name);
+			if (namedNote == null) {
+				throw new IOException("NamedNote '%s' is already defined".formatted(name));
+			}
+			namedNote.setValue(readString());
+		}
+		return database;
+	}
+	
+	private void readProject() throws IOException {
+		var project = new Project(readString());
+		var properties = readSize();
+		for (int i = 0; i < properties; i++) {
+			project.getProperties().put(readString(), readString());
+		}
+		project.setNote(readNote());
+		database.setProject(project);
+	}
+	
+	private void readEnum(Schema schema) throws IOException {
+		var name = readString();
+		var anEnum = schema.createEnum(name);
+		if (anEnum == null) {
+			throw new IOException("Enum '%s' is already defined".formatted(Name.of(schema, name)));
+		}
+		var values = readSize();
+		for (int i = 0; i < values; i++) {
+			var valueName = readString();
+			var value = anEnum.addValue(valueName);
+			if (value == null) {
+				throw new IOException("Enum value '%s' is already defined".formatted(Name.of(anEnum, valueName)));
+			}
+			value.setNote(readNote());
+		}
+	}
+	
+	private void readTable(Table table) throws IOException {
+		readSettings(TableSetting.values(), table::addSetting);
+		table.setNote(readNote());
+		var columns = readSize();
+		for (int i = 0; i < columns; i++) {
+			var name = readString();
+			var column = table.addColumn(name, readString());
+			if (column == null) {
+				throw new IOException("Column '%s' is already defined".formatted(Name.of(table, name)));
+			}
+			readSettings(ColumnSetting.values(), column::addSetting);
+			if (in.readBoolean()) column.setDefaultExpression(column.getSettings().get(ColumnSetting.DEFAULT));
+			column.setNote(readNote());
+		}
+		var indexes = readSize();
+		for (int i = 0; i < indexes; i++) {
+			var size = readSize();
+			var indexColumns = new ArrayList<String>(size);
+			for (int j = 0; j < size; j++) {
+				indexColumns.add(readString());
+			}
+			var index = table.addIndex(indexColumns);
+			readSettings(IndexSetting.values(), index::addSetting);
+			index.setNote(readNote());
+		}
+	}
+	
+	private List<Column> readColumns() throws IOException {
+		var table = readTableName();
+		var size = readSize();
+		var columns = new ArrayList<Column>(size);
+		for (int i = 0; i < size; i++) {
+			var name = readString();
+			var column = table.getColumn(name);
+			if (column == null) {
+				throw new IOException("Column '%s' of table '%s' is not defined".formatted(name, table));
+			}
+			columns.add(column);
+		}
+		return columns;
+	}
+	
+	private Table readTableName() throws IOException {
+		var schemaName = readString();
+		var name = readString();
+		var schema = database.getSchema(schemaName);
+		var table = schemaName.isEmpty() ? database.getTablePartial(name) : schema == null ? null : schema.getTable(name);
+		if (table == null) {
+			throw new IOException("Table '%s' is not defined".formatted(Name.ofTable(schemaName, name)));
+		}
+		return table;
+	}
+	
+	private <S> void readSettings(S[] values, BiConsumer<S, String> settings) throws IOException {
+		var size = readSize();
+		for (int i = 0; i < size; i++) {
+			settings.accept(readEnum(values), readString());
+		}
+	}
+	
+	private <E> E readEnum(E[] values) throws IOException {
+		var ordinal = in.readUnsignedByte();
+		if (ordinal >= values.length) {
+			throw new IOException("Unknown %s %d".formatted(values.getClass().getComponentType().getSimpleName(), ordinal));
+		}
+		return values[ordinal];
+	}
+	
+	private Note readNote() throws IOException {
+		var value = readString();
+		return value == null ? null : new Note(value);
+	}
+	
+	private String readString() throws IOException {
+		var code = readSize();
+		if (code == NULL) {
+			return null;
+		} else if (code == NEW_STRING) {
+			var bytes = new byte[readSize()];
+			in.readFully(bytes);
+			var s = new String(bytes, StandardCharsets.UTF_8);
+			strings.add(s);
+			return s;
+		}
+		var number = code - FIRST_REFERENCE;
+		if (number >= strings.size()) {
+			throw new IOException("Unknown string " + number);
+		}
+		return strings.get(number);
+	}
+	
+	private int readSize() throws IOException {
+		var size = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			var b = in.readUnsignedByte();
+			size |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return size;
+			}
+		}
+		throw new IOException("Malformed size");
+	}
+}
@@ -0,0 +1,210 @@
+package com.wn.dbml.binary;
+
+import com.wn.dbml.model.Column;
+import com.wn.dbml.model.Database;
+import com.wn.dbml.model.Enum;
+import com.wn.dbml.model.Index;
+import com.wn.dbml.model.Note;
+import com.wn.dbml.model.Project;
+import com.wn.dbml.model.Relationship;
+import com.wn.dbml.model.Table;
+import com.wn.dbml.model.TableGroup;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.wn.dbml.binary.BinaryFormat.*;
+
+/**
+ * Writes a database in a compact binary format, which {@link BinaryReader} reads much faster than the DBML text is parsed.
+ * A writer writes one database.
+ */
+public class BinaryWriter {
+	private final DataOutputStream out;
+	private final Map<String, Integer> strings = new HashMap<>();
+	
+	/**
+	 * @param out the stream, which is flushed but not closed after writing
+	 */
+	public BinaryWriter(OutputStream out) {
+		this.out = new DataOutputStream(new BufferedOutputStream(out));
+	}
+	
+	public void write(Database database) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+		writeProject(database.getProject());
+		writeSize(database.getSchemas().size());
+		for (var schema : database.getSchemas()) {
+			writeString(schema.getName());
+			writeSize(schema.getEnums().size());
+			for (var anEnum : schema.getEnums()) {
+				writeEnum(anEnum);
+			}
+			writeSize(schema.getTables().size());
+			for (var table : schema.getTables()) {
+				writeTable(table);
+			}
+		}
+		writeSize(database.getTablePartials().size());
+		for (var partial : database.getTablePartials()) {
+			writeTable(partial);
+		}
+		// after all tables, as a table partial may be injected before its definition
+		for (var partial : database.getTablePartials()) {
+			writeTablePartials(partial);
+		}
+		for (var schema : database.getSchemas()) {
+			for (var table : schema.getTables()) {
+				writeTablePartials(table);
+			}
+		}
+		writeSize(database.getRelationships().size());
+		for (var relationship : database.getRelationships()) {
+			writeRelationship(relationship);
+		}
+		writeSize(database.getTableGroups().size());
+		for (var tableGroup : database.getTableGroups()) {
+			writeTableGroup(tableGroup);
+		}
+		writeSize(database.getNamedNotes().size());
+		for (var namedNote : database.getNamedNotes()) {
+			writeString(namedNote.getName());
+			writeString(namedNote.getValue());
+		}
+		out.flush();
+	}
+	
+	private void writeProject(Project project) throws IOException {
+		out.writeBoolean(project != null);
+		if (project != null) {
+			writeString(project.getName());
+			writeSize(project.getProperties().size());
+			for (var entry : project.getProperties().entrySet()) {
+				writeString(entry.getKey());
+				writeString(entry.getValue());
+			}
+			writeNote(project.getNote());
+		}
+	}
+	
+	private void writeEnum(Enum anEnum) throws IOException {
+		writeString(anEnum.getName());
+		writeSize(anEnum.getValues().size());
+		for (var value : anEnum.getValues()) {
+			writeString(value.getName());
+			writeNote(value.getNote());
+		}
+	}
+	
+	private void writeTable(Table table) throws IOException {
+		writeString(table.getName());
+		writeString(table.getAlias() == null ? null : table.getAlias().getName());
+		writeSettings(table.getLocalSettings());
+		writeNote(table.getLocalNote());
+		writeSize(table.getLocalColumns().size());
+		for (var column : table.getLocalColumns()) {
+			writeString(column.getName());
+			writeString(column.getType());
+			writeSettings(column.getSettings());
+			out.writeBoolean(column.isDefaultExpression());
+			writeNote(column.getNote());
+		}
+		writeSize(table.getLocalIndexes().size());
+		for (var index : table.getLocalIndexes()) {
+			writeIndex(index);
+		}
+	}
+	
+	private void writeIndex(Index index) throws IOException {
+		writeSize(index.getColumns().size());
+		for (var column : index.getColumns()) {
+			writeString(column);
+		}
+		writeSettings(index.getSettings());
+		writeNote(index.getNote());
+	}
+	
+	private void writeTablePartials(Table table) throws IOException {
+		writeSize(table.getLocalTablePartials().size());
+		for (var partial : table.getLocalTablePartials()) {
+			writeString(partial.getName());
+		}
+	}
+	
+	private void writeRelationship(Relationship relationship) throws IOException {
+		writeString(relationship.getName());
+		out.writeByte(relationship.getRelation().ordinal());
+		writeColumns(relationship.getFrom());
+		writeColumns(relationship.getTo());
+		writeSettings(relationship.getSettings());
+	}
+	
+	private void writeColumns(List<Column> columns) throws IOException {
+		writeTableName(columns.getFirst().getTable());
+		writeSize(columns.size());
+		for (var column : columns) {
+			writeString(column.getName());
+		}
+	}
+	
+	private void writeTableGroup(TableGroup tableGroup) throws IOException {
+		writeString(tableGroup.getName());
+		writeSettings(tableGroup.getSettings());
+		writeNote(tableGroup.getNote());
+		writeSize(tableGroup.getTables().size());
+		for (var table : tableGroup.getTables()) {
+			writeTableName(table);
+		}
+	}
+	
+	private void writeTableName(Table table) throws IOException {
+		writeString(table.getSchema().getName());
+		writeString(table.getName());
+	}
+	
+	private void writeSettings(Map<? extends java.lang.Enum<?>, String> settings) throws IOException {
+		writeSize(settings.size());
+		for (var entry : settings.entrySet()) {
+			out.writeByte(entry.getKey().ordinal());
+			writeString(entry.getValue());
+		}
+	}
+	
+	private void writeNote(Note note) throws IOException {
+		writeString(note == null ? null : note.getValue());
+	}
+	
+	private void writeString(String s) throws IOException {
+		if (s == null) {
+			writeSize(NULL);
+			return;
+		}
+		var number = strings.putIfAbsent(s, strings.size());
+		if (number != null) {
+			writeSize(FIRST_REFERENCE + number);
+		} else {
+			var bytes = s.getBytes(StandardCharsets.UTF_8);
+			writeSize(NEW_STRING);
+			writeSize(bytes.length);
+			out.write(bytes);
+		}
+	}
+	
+	/**
+	 * Writes a non-negative int in 7-bit groups, the lowest first.
+	 */
+	private void writeSize(int size) throws IOException {
+		while ((size & ~0x7F) != 0) {
+			out.writeByte(size & 0x7F | 0x80);
+			size >>>= 7;
+		}
+		out.writeByte(size);
+	}
+}
@@ -0,0 +1,280 @@
+package com.wn.dbml.compiler;
+
+import com.wn.dbml.binary.BinaryReader;
+import com.wn.dbml.binary.BinaryWriter;
+import com.wn.dbml.model.Database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Parses DBML strings, returning the same database for the same string.
+ * <p>
+ * The databases are kept by the hash of their string and the library version in a least recently used cache of a bounded size.
+ * Optionally, they are also written to a directory in the binary format, so that later processes can read them instead of parsing.
+ * The directory holds a bounded number of files, the least recently written or read ones are deleted first.
+ * The databases are frozen, as they are shared by all callers.
+ * A parser can be used by multiple threads.
+ */
+public final class CachingDbmlParser {
+	static final String LIBRARY_VERSION = loadLibraryVersion();
+	private static final String FILE_SUFFIX = ".dbmlb";
+	private final int maxEntries;
+	private final Path directory;
+	private final int maxFiles;
+	private final Map<String, Database> cache;
+	private long hits, diskHits, misses, evictions, fileEvictions;
+	
+	private CachingDbmlParser(int maxEntries, Path directory, int maxFiles) {
+		this.maxEntries = maxEntries;
+		this.directory = directory;
+		this.maxFiles = maxFiles;
+		this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Database> eldest) {
+				var remove = size() > maxEntries;
+				if (remove) evictions++;
+				return remove;
+			}
+		};
+	}
+	
+	private static String loadLibraryVersion() {
+		var properties = new Properties();
+		try (InputStream in = CachingDbmlParser.class.getResourceAsStream("version.properties")) {
+			if (in != null) {
+				properties.load(in);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return properties.getProperty("version", "unknown") + ' ' + properties.getProperty("build", "unknown");
+	}
+	
+	/**
+	 * Returns the database of a DBML string, parsing it only if it is neither in memory nor in the directory.
+	 *
+	 * @param dbml a DBML string
+	 * @return the frozen database
+	 */
+	public Database parse(String dbml) {
+		var key = key(LIBRARY_VERSION, dbml);
+		synchronized (this) {
+			var database = cache.get(key);
+			if (database != null) {
+				hits++;
+				return database;
+			}
+		}
+		var database = directory == null ? null : readFile(key);
+		var fromDirectory = database != null;
+		if (!fromDirectory) {
+			database = DbmlParser.parse(dbml).freeze();
+			if (directory != null) {
+				writeFile(key, database);
+				evictFiles();
+			}
+		}
+		synchronized (this) {
+			if (fromDirectory) {
+				diskHits++;
+			} else {
+				misses++;
+			}
+			// another thread may have parsed the same string meanwhile
+			var existing = cache.putIfAbsent(key, database);
+			return existing == null ? database : existing;
+		}
+	}
+	
+	/**
+	 * Returns the database of a DBML file.
+	 *
+	 * @param file a DBML file
+	 * @see #parse(String)
+	 */
+	public Database parse(Path file) throws IOException {
+		return parse(Files.readString(file));
+	}
+	
+	static String key(String libraryVersion, String dbml) {
+		try {
+			var digest = MessageDigest.getInstance("SHA-256");
+			digest.update(libraryVersion.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			digest.update(dbml.getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private Path file(String key) {
+		return directory.resolve(key + FILE_SUFFIX);
+	}
+	
+	/**
+	 * @return null, if the file does not exist or can not be read, e.g. since it is damaged
+	 */
+	private Database readFile(String key) {
+		var file = file(key);
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		Database database;
+		try (var in = Files.newInputStream(file)) {
+			database = new BinaryReader(in).read().freeze();
+		} catch (IOException | RuntimeException e) {
+			// the file is replaced by the parsed database
+			return null;
+		}
+		try {
+			// the file is used recently, thus evicted last
+			Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+		} catch (IOException e) {
+			// another process may have evicted it meanwhile
+		}
+		return database;
+	}
+	
+	/**
+	 * Writes the file to a temporary file first, so that other processes never read a partial file.
+	 */
+	private void writeFile(String key, Database database) {
+		try {
+			Files.createDirectories(directory);
+			var temp = Files.createTempFile(directory, key, ".tmp");
+			try {
+				try (var out = Files.newOutputStream(temp)) {
+					new BinaryWriter(out).write(database);
+				}
+				Files.move(temp, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+		} catch (IOException e) {
+			// the directory is only a cache, the parsed database is still valid
+		}
+	}
+	
+	/**
+	 * Deletes the least recently written or read files, while the directory holds more than the maximum number of files.
+	 * Other processes sharing the directory evict in the same order.
+	 */
+	private void evictFiles() {
+		List<Path> files;
+		try (var stream = Files.list(directory)) {
+			files = stream.filter(f -> f.getFileName().toString().endsWith(FILE_SUFFIX)).toList();
+		} catch (IOException e) {
+			return;
+		}
+		var excess = files.size() - maxFiles;
+		if (excess <= 0) {
+			return;
+		}
+		var evicted = 0;
+		var byAge = files.stream().map(f -> Map.entry(f, lastModifiedTime(f))).sorted(Map.Entry.comparingByValue()).toList();
+		for (var entry : byAge.subList(0, excess)) {
+			try {
+				if (Files.deleteIfExists(entry.getKey())) evicted++;
+			} catch (IOException e) {
+				// the file is evicted by a later call
+			}
+		}
+		synchronized (this) {
+			fileEvictions += evicted;
+		}
+	}
+	
+	/**
+	 * @return the time of a file, or the earliest time, if it has been deleted meanwhile
+	 */
+	private static FileTime lastModifiedTime(Path file) {
+		try {
+			return Files.getLastModifiedTime(file);
+		} catch (IOException e) {
+			return FileTime.fromMillis(0);
+		}
+	}
+	
+	/**
+	 * Removes all databases from memory, but not from the directory.
+	 */
+	public synchronized void clear() {
+		cache.clear();
+	}
+	
+	public synchronized Stats getStats() {
+		return new Stats(cache.size(), hits, diskHits, misses, evictions, fileEvictions);
+	}
+	
+	/**
+	 * The statistics of a parser since its creation.
+	 *
+	 * @param size          the number of databases in memory
+	 * @param hits          the number of databases found in memory
+	 * @param diskHits      the number of databases read from the directory
+	 * @param misses        the number of parsed databases
+	 * @param evictions     the number of databases removed from memory to keep its size bound
+	 * @param fileEvictions the number of files deleted from the directory to keep its size bound
+	 */
+	public record Stats(int size, long hits, long diskHits, long misses, long evictions, long fileEvictions) {
+	}
+	
+	/**
+	 * For configuring the cache.
+	 */
+	public static class Builder {
+		private int maxEntries = 64;
+		private Path directory;
+		private int maxFiles = 1024;
+		
+		public CachingDbmlParser build() {
+			return new CachingDbmlParser(maxEntries, directory, maxFiles);
+		}
+		
+		/**
+		 * @param maxEntries the maximum number of databases kept in memory
+		 */
+		public Builder setMaxEntries(int maxEntries) {
+			if (maxEntries < 1) {
+				throw new IllegalArgumentException("Max entries must be positive: " + maxEntries);
+			}
+			this.maxEntries = maxEntries;
+			return this;
+		}
+		
+		/**
+		 * @param directory the directory to keep the databases in, which is created if necessary, or null to only keep them in memory
+		 */
+		public Builder setDirectory(Path directory) {
+			this.directory = directory;
+			return this;
+		}
+		
+		/**
+		 * @param maxFiles the maximum number of databases kept in the directory
+		 */
+		public Builder setMaxFiles(int maxFiles) {
+			if (maxFiles < 1) {
+				throw new IllegalArgumentException("Max files must be positive: " + maxFiles);
+			}
+			this.maxFiles = maxFiles;
+			return this;
+		}
+	}
+}
@@ -0,0 +1,186 @@
+package com.wn.dbml.compiler;
+
+import com.wn.dbml.model.ColumnSetting;
+import com.wn.dbml.model.IndexSetting;
+import com.wn.dbml.model.Relation;
+import com.wn.dbml.model.RelationshipSetting;
+import com.wn.dbml.model.TableGroupSetting;
+import com.wn.dbml.model.TableSetting;
+import com.wn.dbml.util.Name;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Receives the elements of a DBML text while it is parsed, without a {@link com.wn.dbml.model.Database} being created.
+ * <p>
+ * The events are sent in the order of the text. Settings and notes belong to the element of the preceding event,
+ * e.g. a column setting to the last column. Names of references and table groups are not resolved.
+ * <p>
+ * A handler can reject an event by throwing an {@link IllegalArgumentException},
+ * which is reported as a {@link ParsingException} at the current position.
+ * All methods do nothing by default.
+ */
+public interface DbmlHandler {
+	default void startDocument() {
+	}
+	
+	default void endDocument() {
+	}
+	
+	/**
+	 * @param name the name of the project or null
+	 */
+	default void startProject(String name) {
+	}
+	
+	default void projectProperty(String property, String value) {
+	}
+	
+	default void projectNote(String note) {
+	}
+	
+	default void endProject() {
+	}
+	
+	default void startTable(String schema, String name) {
+	}
+	
+	default void tableAlias(String alias) {
+	}
+	
+	/**
+	 * @param value the value of the setting or null
+	 */
+	default void tableSetting(TableSetting setting, String value) {
+	}
+	
+	default void tableNote(String note) {
+	}
+	
+	/**
+	 * A table partial injected into the current table or table partial.
+	 */
+	default void tablePartialRef(String name) {
+	}
+	
+	default void column(String name, String type) {
+	}
+	
+	/**
+	 * @param value the value of the setting or null
+	 */
+	default void columnSetting(ColumnSetting setting, String value) {
+	}
+	
+	/**
+	 * The default value of the current column, which is passed as {@link ColumnSetting#DEFAULT} setting by default.
+	 *
+	 * @param value      the value, an expression without its backticks
+	 * @param expression true, if the value is an expression, e.g. {@code `now()`}
+	 */
+	default void columnDefault(String value, boolean expression) {
+		columnSetting(ColumnSetting.DEFAULT, value);
+	}
+	
+	default void columnNote(String note) {
+	}
+	
+	/**
+	 * @param columns the names of the columns or expressions
+	 */
+	default void index(List<String> columns) {
+	}
+	
+	/**
+	 * @param value the value of the setting or null
+	 */
+	default void indexSetting(IndexSetting setting, String value) {
+	}
+	
+	default void indexNote(String note) {
+	}
+	
+	default void endTable() {
+	}
+	
+	/**
+	 * Starts a table partial, its elements are sent like those of a table.
+	 */
+	default void startTablePartial(String name) {
+	}
+	
+	default void endTablePartial() {
+	}
+	
+	/**
+	 * A reference, either standalone or inline of the last column.
+	 */
+	default void ref(Ref ref) {
+	}
+	
+	default void startEnum(String schema, String name) {
+	}
+	
+	default void enumValue(String name) {
+	}
+	
+	default void enumValueNote(String note) {
+	}
+	
+	default void endEnum() {
+	}
+	
+	default void startTableGroup(String name) {
+	}
+	
+	/**
+	 * @param value the value of the setting or null
+	 */
+	default void tableGroupSetting(TableGroupSetting setting, String value) {
+	}
+	
+	default void tableGroupNote(String note) {
+	}
+	
+	/**
+	 * @param table the name of the table or of its alias
+	 */
+	default void tableGroupTable(String schema, String table) {
+	}
+	
+	default void endTableGroup() {
+	}
+	
+	default void startNamedNote(String name) {
+	}
+	
+	default void endNamedNote(String value) {
+	}
+	
+	/**
+	 * A reference between the columns of two tables.
+	 *
+	 * @param position the position of its end, where errors of the reference are reported
+	 * @param name     the name or null
+	 */
+	record Ref(
+			Position position,
+			String name, Relation relation,
+			Endpoint from, Endpoint to,
+			Map<RelationshipSetting, String> settings
+	) {
+	}
+	
+	/**
+	 * The columns of a reference.
+	 */
+	record Endpoint(
+			String schema, String table, List<String> columns
+	) {
+		@Override
+		public String toString() {
+			return Name.ofColumns(schema, table, columns);
+		}
+	}
+}
@@ -1,8 +1,10 @@
 package com.wn.dbml.compiler;
 
 import com.wn.dbml.compiler.lexer.LexerImpl;
+import com.wn.dbml.compiler.parser.ParallelParser;
 import com.wn.dbml.compiler.parser.ParserImpl;
 import com.wn.dbml.model.Database;
+import com.wn.dbml.util.StringInterner;
 
 import java.io.Reader;
 
@@ -27,4 +29,75 @@ public final class DbmlParser {
     public static Database parse(Reader dbml) {
         return new ParserImpl().parse(new LexerImpl(dbml));
     }
+
+    /**
+     * Creates a database representation using a DBML string,
+     * sharing the strings of repeated identifiers, datatypes and setting values.
+     *
+     * @param dbml     a DBML string
+     * @param interner a {@code new StringInterner()} for this parse, or {@link StringInterner#shared()}
+     */
+    public static Database parse(String dbml, StringInterner interner) {
+        return new ParserImpl(true, interner).parse(new LexerImpl(dbml));
+    }
+
+    /**
+     * Creates a database representation using a DBML reader,
+     * sharing the strings of repeated identifiers, datatypes and setting values.
+     *
+     * @param dbml     a DBML reader
+     * @param interner a {@code new StringInterner()} for this parse, or {@link StringInterner#shared()}
+     */
+    public static Database parse(Reader dbml, StringInterner interner) {
+        return new ParserImpl(true, interner).parse(new LexerImpl(dbml));
+    }
+
+    /**
+     * Parses a DBML string, sending its elements to the handler instead of creating a database representation.
+     *
+     * @param dbml    a DBML string
+     * @param handler receives the elements
+     */
+    public static void parse(String dbml, DbmlHandler handler) {
+        new ParserImpl().parse(new LexerImpl(dbml), handler);
+    }
+
+    /**
+     * Parses a DBML reader, sending its elements to the handler instead of creating a database representation.
+     * Only the current table is kept in memory, thus readers of any size can be parsed.
+     *
+     * @param dbml    a DBML reader
+     * @param handler receives the elements
+     */
+    public static void parse(Reader dbml, DbmlHandler handler) {
+        new ParserImpl().parse(new LexerImpl(dbml), handler);
+    }
+
+    /**
+     * Creates a database representation using a DBML string, parsing its top-level elements in parallel.
+     * The result is the same as with {@link #parse(String)}.
+     *
+     * @param dbml a DBML string
+     */
+    public static Database parseParallel(String dbml) {
+        return new ParallelParser().parse(dbml);
+    }
+
+    /**
+     * Creates a database representation using a DBML string, collecting all errors instead of stopping at the first.
+     *
+     * @param dbml a DBML string
+     */
+    public static ParsingResult parseWithRecovery(String dbml) {
+        return new ParserImpl(false).parseWithRecovery(new LexerImpl(dbml));
+    }
+
+    /**
+     * Creates a database representation using a DBML reader, collecting all errors instead of stopping at the first.
+     *
+     * @param dbml a DBML reader
+     */
+    public static ParsingResult parseWithRecovery(Reader dbml) {
+        return new ParserImpl(false).parseWithRecovery(new LexerImpl(dbml));
+    }
 }
@@ -1,13 +1,37 @@
 package com.wn.dbml.compiler;
 
+import java.io.Serial;
+
 /**
  * Thrown to indicate that a {@link Parser} found unexpected input.
  */
 public class ParsingException extends RuntimeException {
+	@Serial
+	private static final long serialVersionUID = 1L;
 	private final Position position;
 	
 	public ParsingException(Position position, String msg) {
-		super(position + " " + msg);
+		this(position, msg, true);
+	}
+	
+	/**
+	 * @param position           the position of the unexpected input
+	 * @param msg                the message
+	 * @param writableStackTrace whether the stack trace should be filled in
+	 */
+	public ParsingException(Position position, String msg, boolean writableStackTrace) {
+		super(position + " " + msg, null, true, writableStackTrace);
+		this.position = position;
+	}
+	
+	/**
+	 * For subclasses that create their message on demand by overriding {@link #getMessage()}.
+	 *
+	 * @param position           the position of the unexpected input
+	 * @param writableStackTrace whether the stack trace should be filled in
+	 */
+	protected ParsingException(Position position, boolean writableStackTrace) {
+		super(null, null, true, writableStackTrace);
 		this.position = position;
 	}
 	
@@ -0,0 +1,26 @@
+package com.wn.dbml.compiler;
+
+import com.wn.dbml.model.Database;
+
+import java.util.List;
+
+/**
+ * The result of parsing with error recovery.
+ *
+ * @param database the database, as far as it could be parsed
+ * @param errors   the errors, in the order they were found
+ */
+public record ParsingResult(
+		Database database, List<ParsingException> errors
+) {
+	public ParsingResult {
+		errors = List.copyOf(errors);
+	}
+	
+	/**
+	 * Returns true, if the text was parsed without errors.
+	 */
+	public boolean isValid() {
+		return errors.isEmpty();
+	}
+}
@@ -1,11 +1,13 @@
 package com.wn.dbml.compiler;
 
+import java.io.Serializable;
+
 /**
  * A text position identified by its line and column.
  */
 public record Position(
 		int line, int column
-) {
+) implements Serializable {
 	@Override
 	public String toString() {
 		return String.format("[%d:%d]", line, column);
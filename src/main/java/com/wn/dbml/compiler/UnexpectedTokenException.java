@@ -0,0 +1,76 @@
+package com.wn.dbml.compiler;
+
+import com.wn.dbml.compiler.token.TokenImpl;
+import com.wn.dbml.compiler.token.TokenType;
+import com.wn.dbml.compiler.token.TokenTypeSet;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Thrown to indicate that a {@link Parser} found a token of an unexpected type.
+ * <p>
+ * The message is only created once it is requested. A serialized exception only keeps its message, position and
+ * actual type.
+ */
+public class UnexpectedTokenException extends ParsingException {
+	@Serial
+	private static final long serialVersionUID = 1L;
+	private final TokenType actual;
+	private final transient TokenTypeSet expected;
+	private final transient List<Token> lastTokens;
+	private String message;
+	
+	/**
+	 * @param position           the position of the unexpected token
+	 * @param actual             the type of the unexpected token
+	 * @param expected           the expected types
+	 * @param lastTokens         the tokens up to and including the unexpected token
+	 * @param writableStackTrace whether the stack trace should be filled in
+	 */
+	public UnexpectedTokenException(Position position, TokenType actual, TokenTypeSet expected, List<Token> lastTokens, boolean writableStackTrace) {
+		super(position, writableStackTrace);
+		this.actual = Objects.requireNonNull(actual);
+		this.expected = Objects.requireNonNull(expected);
+		// copies of the values, so that the source text is not kept alive by the exception
+		this.lastTokens = lastTokens.stream().<Token>map(token -> new TokenImpl(token.getType(), token.getValue())).toList();
+	}
+	
+	/**
+	 * The type of the unexpected token.
+	 */
+	public TokenType getActual() {
+		return actual;
+	}
+	
+	/**
+	 * The types that would have been valid instead, or null if this exception was deserialized.
+	 */
+	public TokenTypeSet getExpected() {
+		return expected;
+	}
+	
+	/**
+	 * The tokens up to and including the unexpected token, or null if this exception was deserialized.
+	 */
+	public List<Token> getLastTokens() {
+		return lastTokens;
+	}
+	
+	@Override
+	public String getMessage() {
+		if (message == null) {
+			message = String.format("%s unexpected token '%s', expected %s. Last tokens: %s", getPosition(), actual, expected, lastTokens);
+		}
+		return message;
+	}
+	
+	@Serial
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		getMessage();
+		out.defaultWriteObject();
+	}
+}
@@ -6,18 +6,21 @@ import com.wn.dbml.compiler.Token;
 import com.wn.dbml.compiler.token.TokenType;
 
 import java.io.Reader;
-import java.io.StringReader;
 
 abstract class AbstractLexer implements Lexer {
 	protected final LookaheadReader reader;
 	private boolean ended;
 	
-	public AbstractLexer(String string) {
-		this(new StringReader(string));
+	public AbstractLexer(CharSequence chars) {
+		this.reader = LookaheadReader.of(chars);
+	}
+	
+	public AbstractLexer(CharSequence chars, int start, int end, int line) {
+		this.reader = LookaheadReader.of(chars, start, end, line);
 	}
 	
 	public AbstractLexer(Reader reader) {
-		this.reader = new LookaheadReader(reader);
+		this.reader = LookaheadReader.of(reader);
 	}
 	
 	@Override
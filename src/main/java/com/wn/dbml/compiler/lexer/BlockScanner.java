@@ -0,0 +1,149 @@
+package com.wn.dbml.compiler.lexer;
+
+import com.wn.dbml.compiler.token.TokenType;
+import com.wn.dbml.util.Char;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Finds the top-level blocks of a DBML text without creating tokens.
+ * <p>
+ * A block starts with a keyword, which is the first word of a line outside of brackets, strings and comments.
+ * The scanner follows the lexer's rules for strings and comments, but doesn't validate the text.
+ */
+public final class BlockScanner {
+	private static final Set<TokenType> KEYWORDS = EnumSet.of(TokenType.PROJECT, TokenType.TABLE, TokenType.REF,
+			TokenType.ENUM, TokenType.TABLEGROUP, TokenType.TABLEPARTIAL, TokenType.NOTE);
+	
+	private BlockScanner() {
+	}
+	
+	/**
+	 * Returns the blocks of the text in order.
+	 * Chars before the first block, e.g. comments, belong to no block.
+	 *
+	 * @param chars a DBML text
+	 */
+	public static List<Block> scan(CharSequence chars) {
+		return scan(chars, 0, 1, block -> false);
+	}
+	
+	/**
+	 * Returns the blocks of the text in order, starting at a line and stopping before the first block matching the condition.
+	 * This allows rescanning the part of a text, which has been edited, until the blocks are the same as before.
+	 *
+	 * @param chars a DBML text
+	 * @param start the index of the first char, which starts a line outside of brackets, strings and comments
+	 * @param line  the line number of the first char
+	 * @param until the condition of the block to stop at, which is tested with its start, line and type, and is not returned
+	 */
+	public static List<Block> scan(CharSequence chars, int start, int line, Predicate<Block> until) {
+		var reader = (CharSequenceLookaheadReader) LookaheadReader.of(chars, start, chars.length(), line);
+		var blocks = new ArrayList<Block>();
+		int depth = 0, lineStart = start;
+		boolean firstWord = true;
+		// the block being scanned
+		int blockStart = -1, blockLine = 0;
+		TokenType type = null;
+		boolean independent = true;
+		int next;
+		while ((next = reader.nextChar()) != -1) {
+			switch (next) {
+				case '\n', '\r' -> {
+					lineStart = reader.index();
+					firstWord = true;
+				}
+				case ' ', '\t' -> {
+				}
+				case '{', '[', '(' -> {
+					depth++;
+					firstWord = false;
+				}
+				case '}', ']', ')' -> {
+					depth--;
+					firstWord = false;
+				}
+				case '\'' -> {
+					if (reader.lookaheadIs("''")) {
+						reader.skip(2);
+						LexerImpl.readMultiLineString(reader, LexerImpl.MULTI_LINE_STRING_QUOTE, null);
+					} else {
+						skipSingleLineString(reader, next);
+					}
+					firstWord = false;
+				}
+				case '"', '`' -> {
+					skipSingleLineString(reader, next);
+					firstWord = false;
+				}
+				case '/' -> {
+					if (reader.lookahead() == '/') {
+						while (reader.lookahead() != -1 && !Char.isLinebreak(reader.lookahead())) {
+							reader.nextChar();
+						}
+					} else if (reader.lookahead() == '*') {
+						reader.skip(1);
+						LexerImpl.readMultiLineString(reader, LexerImpl.MULTI_LINE_COMMENT_QUOTE, null);
+					}
+					firstWord = false;
+				}
+				default -> {
+					if (Char.isWordChar(next) && depth <= 0) {
+						var wordStart = reader.index() - 1;
+						var wordLine = reader.getPosition().line();
+						while (Char.isWordChar(reader.lookahead())) {
+							reader.nextChar();
+						}
+						var wordType = TokenType.of(chars.subSequence(wordStart, reader.index()));
+						if (firstWord && KEYWORDS.contains(wordType)) {
+							if (type != null) {
+								blocks.add(new Block(blockStart, blockLine, type, independent));
+							}
+							blockStart = lineStart;
+							blockLine = wordLine;
+							type = wordType;
+							if (until.test(new Block(blockStart, blockLine, type, true))) {
+								return blocks;
+							}
+							independent = true;
+						}
+						if (wordType == TokenType.TABLEGROUP) {
+							independent = false;
+						}
+					}
+					firstWord = false;
+				}
+			}
+		}
+		if (type != null) {
+			blocks.add(new Block(blockStart, blockLine, type, independent));
+		}
+		return blocks;
+	}
+	
+	private static void skipSingleLineString(CharSequenceLookaheadReader reader, int quote) {
+		int c;
+		while ((c = reader.nextChar()) != -1 && c != quote) {
+			if (c == '\\' && reader.lookahead() == quote) {
+				reader.skip(1);
+			}
+		}
+	}
+	
+	/**
+	 * A top-level block of a text.
+	 *
+	 * @param start       the index of the first char of the block's line
+	 * @param line        the line number of the block
+	 * @param type        the keyword starting the block
+	 * @param independent false, if parsing the block requires the blocks before it, like a TableGroup does
+	 */
+	public record Block(
+			int start, int line, TokenType type, boolean independent
+	) {
+	}
+}
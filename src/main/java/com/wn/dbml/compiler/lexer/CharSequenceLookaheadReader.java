@@ -0,0 +1,85 @@
+package com.wn.dbml.compiler.lexer;
+
+import com.wn.dbml.compiler.Token;
+import com.wn.dbml.compiler.token.SliceToken;
+import com.wn.dbml.compiler.token.TokenType;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A reader accessing the chars of an in-memory text by index.
+ * Its tokens are slices of the text.
+ */
+class CharSequenceLookaheadReader extends LookaheadReader {
+	private final CharSequence chars;
+	private final int end;
+	private final Marked marked = new Marked();
+	private int index, mark;
+	
+	public CharSequenceLookaheadReader(CharSequence chars) {
+		this(chars, 0, chars.length());
+	}
+	
+	public CharSequenceLookaheadReader(CharSequence chars, int start, int end) {
+		this.chars = Objects.requireNonNull(chars);
+		Objects.checkFromToIndex(start, end, chars.length());
+		this.index = start;
+		this.end = end;
+	}
+	
+	@Override
+	protected int read() {
+		return index < end ? chars.charAt(index++) : -1;
+	}
+	
+	@Override
+	public int peek(int offset) {
+		var i = index + offset;
+		return i < end ? chars.charAt(i) : -1;
+	}
+	
+	/**
+	 * The index of the next char.
+	 */
+	int index() {
+		return index;
+	}
+	
+	@Override
+	public void mark() {
+		mark = index;
+	}
+	
+	@Override
+	public CharSequence marked() {
+		return marked;
+	}
+	
+	@Override
+	public Token token(TokenType type, Function<CharSequence, String> decoder) {
+		return new SliceToken(type, chars, mark, index - mark, decoder);
+	}
+	
+	private class Marked implements CharSequence {
+		@Override
+		public int length() {
+			return index - mark;
+		}
+		
+		@Override
+		public char charAt(int i) {
+			return chars.charAt(mark + i);
+		}
+		
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return chars.subSequence(mark + start, mark + end);
+		}
+		
+		@Override
+		public String toString() {
+			return chars.subSequence(mark, index).toString();
+		}
+	}
+}
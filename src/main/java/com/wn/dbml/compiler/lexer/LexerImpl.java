@@ -6,6 +6,7 @@ import com.wn.dbml.compiler.token.TokenType;
 import com.wn.dbml.util.Char;
 
 import java.io.Reader;
+import java.util.function.Function;
 
 /**
  * The default lexer implementation.
@@ -13,159 +14,214 @@ import java.io.Reader;
 public class LexerImpl extends AbstractLexer {
 	private static final String OUTPUT_LINEBREAK = "\n";
 	private static final String OUTPUT_SPACE = " ";
+	static final String MULTI_LINE_STRING_QUOTE = "'''";
+	static final String MULTI_LINE_COMMENT_QUOTE = "*/";
+	private static final Function<CharSequence, String> MULTI_LINE_STRING = chars -> decodeMultiLineString(chars, MULTI_LINE_STRING_QUOTE);
+	private static final Function<CharSequence, String> MULTI_LINE_COMMENT = chars -> decodeMultiLineString(chars, MULTI_LINE_COMMENT_QUOTE);
 	
 	public LexerImpl(String string) {
 		super(string);
 	}
 	
+	public LexerImpl(CharSequence chars) {
+		super(chars);
+	}
+	
 	public LexerImpl(Reader reader) {
 		super(reader);
 	}
 	
+	/**
+	 * Creates a lexer for a part of a text, which starts at the beginning of a line.
+	 *
+	 * @param chars the text
+	 * @param start the index of the first char of the part
+	 * @param end   the index after the last char of the part
+	 * @param line  the line number of the first char of the part
+	 */
+	public LexerImpl(CharSequence chars, int start, int end, int line) {
+		super(chars, start, end, line);
+	}
+	
 	@Override
 	protected Token nextTokenImpl() {
+		reader.mark();
 		int next = reader.nextChar();
 		if (Char.isWordChar(next)) {
 			return nextWord(next);
 		}
 		return switch (next) {
 			case -1 -> new TokenImpl(TokenType.EOF, next);
-			case '-' -> new TokenImpl(TokenType.MINUS, next);
-			case '<' -> nextLTSymbol(next);
-			case '>' -> new TokenImpl(TokenType.GT, next);
-			case '(' -> new TokenImpl(TokenType.LPAREN, next);
-			case '[' -> new TokenImpl(TokenType.LBRACK, next);
-			case '{' -> new TokenImpl(TokenType.LBRACE, next);
-			case ')' -> new TokenImpl(TokenType.RPAREN, next);
-			case ']' -> new TokenImpl(TokenType.RBRACK, next);
-			case '}' -> new TokenImpl(TokenType.RBRACE, next);
-			case ':' -> new TokenImpl(TokenType.COLON, next);
-			case ',' -> new TokenImpl(TokenType.COMMA, next);
-			case '.' -> new TokenImpl(TokenType.DOT, next);
-			case '~' -> new TokenImpl(TokenType.TILDE, next);
+			case '-' -> reader.token(TokenType.MINUS);
+			case '<' -> nextLTSymbol();
+			case '>' -> reader.token(TokenType.GT);
+			case '(' -> reader.token(TokenType.LPAREN);
+			case '[' -> reader.token(TokenType.LBRACK);
+			case '{' -> reader.token(TokenType.LBRACE);
+			case ')' -> reader.token(TokenType.RPAREN);
+			case ']' -> reader.token(TokenType.RBRACK);
+			case '}' -> reader.token(TokenType.RBRACE);
+			case ':' -> reader.token(TokenType.COLON);
+			case ',' -> reader.token(TokenType.COMMA);
+			case '.' -> reader.token(TokenType.DOT);
+			case '~' -> reader.token(TokenType.TILDE);
 			case '\n', '\r' -> new TokenImpl(TokenType.LINEBREAK, OUTPUT_LINEBREAK);
 			case ' ', '\t' -> new TokenImpl(TokenType.SPACE, OUTPUT_SPACE);
 			case '\'' -> nextString(next);
 			case '"' -> nextSingleLineString(next);
 			case '`' -> nextExpression(next);
-			case '/' -> nextComment(next);
-			case '#' -> nextColorCode(next);
-			default -> new TokenImpl(TokenType.ILLEGAL, next);
+			case '/' -> nextComment();
+			case '#' -> nextColorCode();
+			default -> reader.token(TokenType.ILLEGAL);
 		};
 	}
 	
 	private Token nextWord(int next) {
-		var word = nextWholeWord(next);
-		if (word.codePoints().allMatch(Char::isDigit)) {
-			return nextNumber(word);
-		}
-		return new TokenImpl(word);
-	}
-	
-	private String nextWholeWord(int next) {
-		var sb = new StringBuilder();
-		var c = next;
-		while (true) {
-			sb.append((char) c);
-			if (Char.isWordChar(reader.lookahead())) {
-				c = reader.nextChar();
-			} else break;
+		var number = Char.isDigit(next);
+		while (Char.isWordChar(reader.lookahead())) {
+			number &= Char.isDigit(reader.nextChar());
 		}
-		return sb.toString();
+		return number ? nextNumber() : reader.token(TokenType.of(reader.marked()));
 	}
 	
-	private TokenImpl nextNumber(String word) {
+	private Token nextNumber() {
 		if (reader.lookahead() == '.') {
-			var dot = (char) reader.nextChar();
-			var nextWord = lookaheadWholeWord();
-			if (!nextWord.isEmpty() && nextWord.codePoints().allMatch(Char::isDigit)) {
-				skipChars(nextWord.length());
-				return new TokenImpl(TokenType.NUMBER, word + dot + nextWord);
+			var digits = lookaheadDigits(1);
+			if (digits > 0 && !Char.isWordChar(reader.peek(1 + digits))) {
+				skipChars(1 + digits);
+				return reader.token(TokenType.NUMBER);
 			}
+			var token = reader.token(TokenType.NUMBER);
+			// drop the dot
+			skipChars(1);
+			return token;
 		}
-		return new TokenImpl(TokenType.NUMBER, word);
+		return reader.token(TokenType.NUMBER);
 	}
 	
-	private String lookaheadWholeWord() {
-		int i = 1;
-		while (true) {
-			var lookahead = reader.lookahead(i);
-			if (lookahead.length() < i) {
-				return lookahead;
-			}
-			if (!lookahead.codePoints().allMatch(Char::isWordChar)) {
-				return lookahead.substring(0, i - 1);
-			}
+	private int lookaheadDigits(int offset) {
+		int i = 0;
+		while (Char.isDigit(reader.peek(offset + i))) {
 			i++;
 		}
+		return i;
 	}
 	
-	private Token nextLTSymbol(int lt) {
+	private Token nextLTSymbol() {
 		if (reader.lookahead() == '>') {
 			skipChars(1);
-			return new TokenImpl(TokenType.NE, "<>");
+			return reader.token(TokenType.NE);
 		}
-		return new TokenImpl(TokenType.LT, lt);
+		return reader.token(TokenType.LT);
 	}
 	
 	private Token nextString(int quote) {
-		var lookahead = reader.lookahead(2);
-		if (quote == '\'' && lookahead.startsWith("''")) {
+		if (quote == '\'' && reader.lookaheadIs("''")) {
 			skipChars(2);
-			return nextMultiLineString("'''", TokenType.TSTRING);
+			return nextMultiLineString(TokenType.TSTRING, MULTI_LINE_STRING_QUOTE, MULTI_LINE_STRING);
 		} else {
 			return nextSingleLineString(quote);
 		}
 	}
 	
-	private Token nextMultiLineString(String quote, TokenType tokenType) {
+	/**
+	 * Skips a multi-line string, so that its value is only computed when requested.
+	 */
+	private Token nextMultiLineString(TokenType tokenType, String quote, Function<CharSequence, String> decoder) {
+		reader.mark();
+		if (!readMultiLineString(reader, quote, null)) {
+			return new TokenImpl(TokenType.ILLEGAL, -1);
+		}
+		return reader.token(tokenType, decoder);
+	}
+	
+	private static String decodeMultiLineString(CharSequence chars, String quote) {
 		var multiLineSb = new MultiLineStringBuilder(OUTPUT_LINEBREAK);
-		var sb = new StringBuilder();
+		readMultiLineString(LookaheadReader.of(chars), quote, multiLineSb);
+		return multiLineSb.toString();
+	}
+	
+	/**
+	 * Reads a multi-line string up to and including its closing quote.
+	 *
+	 * @param multiLineSb receives the lines of the string, or null to skip them
+	 * @return false, if the end has been reached before the closing quote
+	 */
+	static boolean readMultiLineString(LookaheadReader reader, String quote, MultiLineStringBuilder multiLineSb) {
+		var sb = multiLineSb == null ? null : new StringBuilder();
 		while (true) {
 			var c = reader.nextChar();
-			var lookahead = reader.lookahead(quote.length());
+			var closing = reader.lookaheadIs(quote);
 			if (c == -1) {
-				return new TokenImpl(TokenType.ILLEGAL, c);
+				return false;
 			} else if (c == quote.charAt(0)) {
-				var next = Character.toString(c) + lookahead;
-				if (next.startsWith(quote)) {
-					skipChars(quote.length() - 1);
+				if (reader.lookaheadIs(quote, 1)) {
+					reader.skip(quote.length() - 1);
 					break;
 				}
 			} else if (c == '\\') {
-				if (lookahead.startsWith("\\")) {
-					lookahead = appendEscaped(lookahead.substring(0, 1), sb);
-				} else if (lookahead.equals(quote)) {
-					lookahead = appendEscaped(lookahead, sb);
-				} else if (!lookahead.isEmpty() && Char.isLinebreak(lookahead.charAt(0))) {
+				if (reader.lookahead() == '\\') {
+					appendEscaped(reader, "\\", sb);
+					closing = false;
+				} else if (closing) {
+					appendEscaped(reader, quote, sb);
+					closing = reader.lookaheadIs(quote);
+				} else if (Char.isLinebreak(reader.lookahead())) {
 					// line continuation
-					skipChars(1);
-				} else {
+					reader.skip(1);
+				} else if (sb != null) {
 					sb.append((char) c);
 				}
 			} else if (Char.isLinebreak(c)) {
-				multiLineSb.appendLine(sb.toString());
-				sb.setLength(0);
-			} else {
+				if (sb != null) {
+					multiLineSb.appendLine(sb.toString());
+					sb.setLength(0);
+				}
+			} else if (sb != null) {
 				sb.append((char) c);
 			}
-			if (lookahead.equals(quote)) {
-				multiLineSb.appendLine(sb.toString());
-				skipChars(quote.length());
+			if (closing) {
+				if (sb != null) {
+					multiLineSb.appendLine(sb.toString());
+				}
+				reader.skip(quote.length());
 				break;
 			}
 		}
-		return new TokenImpl(tokenType, multiLineSb.toString());
+		return true;
 	}
 	
-	private String appendEscaped(String escaped, StringBuilder sb) {
-		sb.append(escaped);
-		skipChars(escaped.length());
-		return reader.lookahead(escaped.length());
+	private static void appendEscaped(LookaheadReader reader, String escaped, StringBuilder sb) {
+		if (sb != null) {
+			sb.append(escaped);
+		}
+		reader.skip(escaped.length());
 	}
 	
 	private Token nextSingleLineString(int quote) {
-		var sb = new StringBuilder();
+		var type = switch (quote) {
+			case '\'' -> TokenType.SSTRING;
+			case '"' -> TokenType.DSTRING;
+			case '`' -> TokenType.EXPR;
+			default -> throw new IllegalStateException("Unexpected value: " + quote);
+		};
+		reader.mark();
+		while (true) {
+			var c = reader.lookahead();
+			if (c == quote) {
+				var token = reader.token(type);
+				skipChars(1);
+				return token;
+			} else if (c == -1 || c == '\r' || c == '\\' && reader.peek(1) == quote) {
+				// the value differs from the source chars
+				return nextEscapedSingleLineString(quote, type);
+			}
+			reader.nextChar();
+		}
+	}
+	
+	private Token nextEscapedSingleLineString(int quote, TokenType type) {
+		var sb = new StringBuilder(reader.marked());
 		while (true) {
 			var c = reader.nextChar();
 			var lookahead = reader.lookahead();
@@ -184,12 +240,6 @@ public class LexerImpl extends AbstractLexer {
 				sb.append((char) c);
 			}
 		}
-		var type = switch (quote) {
-			case '\'' -> TokenType.SSTRING;
-			case '"' -> TokenType.DSTRING;
-			case '`' -> TokenType.EXPR;
-			default -> throw new IllegalStateException("Unexpected value: " + quote);
-		};
 		return new TokenImpl(type, sb.toString());
 	}
 	
@@ -197,45 +247,40 @@ public class LexerImpl extends AbstractLexer {
 		return nextSingleLineString(quote);
 	}
 	
-	private Token nextComment(int forwardSlash) {
+	private Token nextComment() {
 		var next = reader.lookahead();
 		if (next == '/') {
 			skipChars(1);
 			return nextSingleLineComment();
 		} else if (next == '*') {
 			skipChars(1);
-			return nextMultiLineString("*/", TokenType.COMMENT);
+			return nextMultiLineString(TokenType.COMMENT, MULTI_LINE_COMMENT_QUOTE, MULTI_LINE_COMMENT);
 		}
-		return new TokenImpl(TokenType.ILLEGAL, forwardSlash);
+		return reader.token(TokenType.ILLEGAL);
 	}
 	
 	private Token nextSingleLineComment() {
-		var sb = new StringBuilder();
+		reader.mark();
 		while (!Char.isLinebreak(reader.lookahead())) {
 			var c = reader.nextChar();
 			if (c == -1) break;
-			sb.append((char) c);
 		}
-		return new TokenImpl(TokenType.COMMENT, sb.toString());
+		return reader.token(TokenType.COMMENT);
 	}
 	
-	private Token nextColorCode(int hash) {
-		var lookahead = reader.lookahead(6);
-		var color = lookahead.codePoints()
-				.takeWhile(Char::isHexDigit)
-				.collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
-				.toString();
-		var length = color.length();
+	private Token nextColorCode() {
+		var length = 0;
+		while (length < 6 && Char.isHexDigit(reader.peek(length))) {
+			length++;
+		}
 		if (length == 6 || length == 3) {
 			skipChars(length);
-			return new TokenImpl(TokenType.COLOR_CODE, Character.toString(hash) + color);
+			return reader.token(TokenType.COLOR_CODE);
 		}
-		return new TokenImpl(TokenType.ILLEGAL, Character.toString(hash) + color);
+		return new TokenImpl(TokenType.ILLEGAL, '#' + reader.lookahead(length));
 	}
 	
 	private void skipChars(int length) {
-		for (int i = 0; i < length; i++) {
-			reader.nextChar();
-		}
+		reader.skip(length);
 	}
 }
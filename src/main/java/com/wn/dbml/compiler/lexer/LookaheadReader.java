@@ -1,29 +1,45 @@
 package com.wn.dbml.compiler.lexer;
 
 import com.wn.dbml.compiler.Position;
+import com.wn.dbml.compiler.Token;
+import com.wn.dbml.compiler.token.TokenType;
 import com.wn.dbml.util.Char;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.PushbackReader;
 import java.io.Reader;
-import java.io.UncheckedIOException;
-import java.util.Objects;
+import java.util.function.Function;
 
-class LookaheadReader {
-	private static final int DEFAULT_LOOKAHEAD_BUFFER_SIZE = 64;
-	private final PushbackReader reader;
+/**
+ * Reads chars one at a time, allowing to look ahead without consuming them, and tracks the current position.
+ */
+abstract class LookaheadReader {
 	private int line = 1, column = 0;
 	private boolean wasLinebreak;
 	
-	public LookaheadReader(Reader reader) {
-		this(reader, DEFAULT_LOOKAHEAD_BUFFER_SIZE);
+	/**
+	 * Creates a reader reading from a char stream.
+	 */
+	public static LookaheadReader of(Reader reader) {
+		return new StreamLookaheadReader(reader);
 	}
 	
-	public LookaheadReader(Reader reader, int size) {
-		if (size < DEFAULT_LOOKAHEAD_BUFFER_SIZE) throw new IllegalArgumentException("Cannot decrease the buffer size");
-		var buffered = Objects.requireNonNull(reader) instanceof BufferedReader ? reader : new BufferedReader(reader);
-		this.reader = new PushbackReader(buffered, size);
+	/**
+	 * Creates a reader reading the chars by index, without copying them.
+	 */
+	public static LookaheadReader of(CharSequence chars) {
+		return new CharSequenceLookaheadReader(chars);
+	}
+	
+	/**
+	 * Creates a reader reading a part of the chars by index, without copying them.
+	 *
+	 * @param start the index of the first char, which starts a line
+	 * @param end   the index after the last char
+	 * @param line  the line number of the first char
+	 */
+	public static LookaheadReader of(CharSequence chars, int start, int end, int line) {
+		LookaheadReader reader = new CharSequenceLookaheadReader(chars, start, end);
+		reader.line = line;
+		return reader;
 	}
 	
 	public int nextChar() {
@@ -47,50 +63,91 @@ class LookaheadReader {
 		return next;
 	}
 	
-	private int read() {
-		try {
-			return this.reader.read();
-		} catch (IOException e) {
-			throw new UncheckedIOException(e);
+	/**
+	 * Consumes the next chars.
+	 *
+	 * @param length the number of chars
+	 */
+	public void skip(int length) {
+		for (int i = 0; i < length; i++) {
+			nextChar();
 		}
 	}
 	
+	/**
+	 * Consumes the next char.
+	 *
+	 * @return the next char or -1, if the end has been reached
+	 */
+	protected abstract int read();
+	
+	/**
+	 * Returns a char ahead without consuming it.
+	 *
+	 * @param offset the distance to the next char, 0 being the next char itself
+	 * @return the char or -1, if the end is reached before it
+	 */
+	public abstract int peek(int offset);
+	
 	public int lookahead() {
-		var c = read();
-		if (c != -1) {
-			pushback(c);
-		}
-		return c;
+		return peek(0);
 	}
 	
 	public String lookahead(int length) {
-		var sb = new StringBuilder();
+		var sb = new StringBuilder(length);
 		for (int i = 0; i < length; i++) {
-			var c = read();
+			var c = peek(i);
 			if (c == -1) break;
 			sb.append((char) c);
 		}
-		var chars = sb.toString();
-		pushback(chars);
-		return chars;
+		return sb.toString();
 	}
 	
-	public void pushback(int c) {
-		try {
-			reader.unread(c);
-		} catch (IOException e) {
-			throw new UncheckedIOException(e);
-		}
+	/**
+	 * Returns true, if the next chars equal the given chars.
+	 */
+	public boolean lookaheadIs(String chars) {
+		return lookaheadIs(chars, 0);
 	}
 	
-	public void pushback(String chars) {
-		try {
-			reader.unread(chars.toCharArray());
-		} catch (IOException e) {
-			throw new UncheckedIOException(e);
+	/**
+	 * Returns true, if the next chars equal the given chars, starting at the index {@code begin}.
+	 */
+	public boolean lookaheadIs(String chars, int begin) {
+		for (int i = begin; i < chars.length(); i++) {
+			if (peek(i - begin) != chars.charAt(i)) {
+				return false;
+			}
 		}
+		return true;
+	}
+	
+	/**
+	 * Marks the current index as the start of a token.
+	 */
+	public abstract void mark();
+	
+	/**
+	 * Returns a view of the chars read since the last mark.
+	 * The view is reused and only valid until the next mark.
+	 */
+	public abstract CharSequence marked();
+	
+	/**
+	 * Creates a token of the chars read since the last mark.
+	 */
+	public Token token(TokenType type) {
+		return token(type, null);
 	}
 	
+	/**
+	 * Creates a token of the chars read since the last mark.
+	 *
+	 * @param type    the token type
+	 * @param decoder computes the token value from the chars, or null to use the chars as they are
+	 */
+	public abstract Token token(TokenType type, Function<CharSequence, String> decoder);
+	
 	public Position getPosition() {
 		return new Position(line, column);
 	}
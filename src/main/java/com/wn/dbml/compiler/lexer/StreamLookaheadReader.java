@@ -0,0 +1,128 @@
+package com.wn.dbml.compiler.lexer;
+
+import com.wn.dbml.compiler.Token;
+import com.wn.dbml.compiler.token.TokenImpl;
+import com.wn.dbml.compiler.token.TokenType;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A reader buffering the chars of a stream.
+ * The buffer keeps all chars since the last mark, so its tokens can be copied from it.
+ */
+class StreamLookaheadReader extends LookaheadReader {
+	private static final int DEFAULT_BUFFER_SIZE = 8192;
+	private final Reader reader;
+	private final Marked marked = new Marked();
+	private char[] buffer;
+	private int start, end, mark = -1;
+	private boolean eof;
+	
+	public StreamLookaheadReader(Reader reader) {
+		this(reader, DEFAULT_BUFFER_SIZE);
+	}
+	
+	public StreamLookaheadReader(Reader reader, int size) {
+		if (size < 1) throw new IllegalArgumentException("Illegal Size: " + size);
+		this.reader = Objects.requireNonNull(reader);
+		this.buffer = new char[size];
+	}
+	
+	@Override
+	protected int read() {
+		return fill(0) ? buffer[start++] : -1;
+	}
+	
+	@Override
+	public int peek(int offset) {
+		return fill(offset) ? buffer[start + offset] : -1;
+	}
+	
+	/**
+	 * Fills the buffer until it contains the char at the offset.
+	 *
+	 * @return false, if the end of the stream is reached before the offset
+	 */
+	private boolean fill(int offset) {
+		while (start + offset >= end) {
+			if (eof) return false;
+			if (end == buffer.length) {
+				compact(offset);
+			}
+			var read = read(end);
+			if (read == -1) {
+				eof = true;
+			} else {
+				end += read;
+			}
+		}
+		return true;
+	}
+	
+	private void compact(int offset) {
+		var keep = mark < 0 ? start : mark;
+		var remaining = end - keep;
+		var required = start - keep + offset + 1;
+		if (required > buffer.length) {
+			var grown = new char[Math.max(2 * buffer.length, required)];
+			System.arraycopy(buffer, keep, grown, 0, remaining);
+			buffer = grown;
+		} else {
+			System.arraycopy(buffer, keep, buffer, 0, remaining);
+		}
+		start -= keep;
+		end = remaining;
+		if (mark >= 0) {
+			mark = 0;
+		}
+	}
+	
+	private int read(int from) {
+		try {
+			return reader.read(buffer, from, buffer.length - from);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	@Override
+	public void mark() {
+		mark = start;
+	}
+	
+	@Override
+	public CharSequence marked() {
+		return marked;
+	}
+	
+	@Override
+	public Token token(TokenType type, Function<CharSequence, String> decoder) {
+		return new TokenImpl(type, decoder == null ? marked.toString() : decoder.apply(marked));
+	}
+	
+	private class Marked implements CharSequence {
+		@Override
+		public int length() {
+			return start - mark;
+		}
+		
+		@Override
+		public char charAt(int i) {
+			return buffer[mark + i];
+		}
+		
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return new String(buffer, mark + start, end - start);
+		}
+		
+		@Override
+		public String toString() {
+			return new String(buffer, mark, length());
+		}
+	}
+}
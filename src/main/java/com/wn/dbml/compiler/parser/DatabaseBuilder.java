@@ -0,0 +1,395 @@
+package com.wn.dbml.compiler.parser;
+
+import com.wn.dbml.compiler.DbmlHandler;
+import com.wn.dbml.compiler.ParsingException;
+import com.wn.dbml.model.Alias;
+import com.wn.dbml.model.Column;
+import com.wn.dbml.model.ColumnSetting;
+import com.wn.dbml.model.Database;
+import com.wn.dbml.model.Enum;
+import com.wn.dbml.model.EnumValue;
+import com.wn.dbml.model.Index;
+import com.wn.dbml.model.IndexSetting;
+import com.wn.dbml.model.NamedNote;
+import com.wn.dbml.model.Note;
+import com.wn.dbml.model.Project;
+import com.wn.dbml.model.Relationship;
+import com.wn.dbml.model.Table;
+import com.wn.dbml.model.TableGroup;
+import com.wn.dbml.model.TableGroupSetting;
+import com.wn.dbml.model.TablePartial;
+import com.wn.dbml.model.TableSetting;
+import com.wn.dbml.util.Name;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SequencedSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Creates a {@link Database} from the events of the parser.
+ * <p>
+ * Table partials and relationships refer to elements, which may follow them,
+ * so they are resolved after the whole text has been parsed.
+ */
+final class DatabaseBuilder implements DbmlHandler {
+	private final boolean writableStackTrace;
+	private final Database database;
+	private final List<Object> elements = new ArrayList<>();
+	private final Map<Table, SequencedSet<String>> tablePartialRefs = new LinkedHashMap<>();
+	private final List<Ref> refs = new ArrayList<>();
+	private final List<Relationship> relationships = new ArrayList<>();
+	private Project project;
+	private Table table;
+	private Column column;
+	private Index index;
+	private Enum anEnum;
+	private EnumValue enumValue;
+	private TableGroup tableGroup;
+	private NamedNote namedNote;
+	
+	DatabaseBuilder(boolean writableStackTrace) {
+		this(new Database(), writableStackTrace);
+	}
+	
+	/**
+	 * Creates a builder adding to an existing database, e.g. the elements of one block of a text.
+	 */
+	DatabaseBuilder(Database database, boolean writableStackTrace) {
+		this.database = database;
+		this.writableStackTrace = writableStackTrace;
+	}
+	
+	Database getDatabase() {
+		return database;
+	}
+	
+	/**
+	 * The top-level elements in the order they were built.
+	 */
+	List<Object> getElements() {
+		return elements;
+	}
+	
+	/**
+	 * The names of the table partials injected into each table.
+	 */
+	Map<Table, SequencedSet<String>> getTablePartialRefs() {
+		return tablePartialRefs;
+	}
+	
+	boolean hasRefs() {
+		return !refs.isEmpty();
+	}
+	
+	/**
+	 * The relationships created by {@link #createRelationships(Consumer)}.
+	 */
+	List<Relationship> getRelationships() {
+		return relationships;
+	}
+	
+	@Override
+	public void startProject(String name) {
+		project = new Project(name);
+	}
+	
+	@Override
+	public void projectProperty(String property, String value) {
+		project.getProperties().put(property, value);
+	}
+	
+	@Override
+	public void projectNote(String note) {
+		project.setNote(new Note(note));
+	}
+	
+	@Override
+	public void endProject() {
+		database.setProject(project);
+		elements.add(project);
+	}
+	
+	@Override
+	public void startTable(String schema, String name) {
+		table = database.getOrCreateSchema(schema).createTable(name);
+		if (table == null) {
+			throw new IllegalArgumentException("Table '%s' is already defined".formatted(Name.ofTable(schema, name)));
+		}
+		elements.add(table);
+	}
+	
+	@Override
+	public void tableAlias(String alias) {
+		table.setAlias(new Alias(alias));
+	}
+	
+	@Override
+	public void tableSetting(TableSetting setting, String value) {
+		table.addSetting(setting, value);
+	}
+	
+	@Override
+	public void tableNote(String note) {
+		table.setNote(new Note(note));
+	}
+	
+	@Override
+	public void tablePartialRef(String name) {
+		tablePartialRefs.computeIfAbsent(table, x -> new LinkedHashSet<>()).add(name);
+	}
+	
+	@Override
+	public void column(String name, String type) {
+		column = table.addColumn(name, type);
+	}
+	
+	@Override
+	public void columnSetting(ColumnSetting setting, String value) {
+		column.addSetting(setting, value);
+	}
+	
+	@Override
+	public void columnDefault(String value, boolean expression) {
+		if (expression) {
+			column.setDefaultExpression(value);
+		} else {
+			column.addSetting(ColumnSetting.DEFAULT, value);
+		}
+	}
+	
+	@Override
+	public void columnNote(String note) {
+		column.setNote(new Note(note));
+	}
+	
+	@Override
+	public void index(List<String> columns) {
+		index = table.addIndex(columns);
+	}
+	
+	@Override
+	public void indexSetting(IndexSetting setting, String value) {
+		index.addSetting(setting, value);
+	}
+	
+	@Override
+	public void indexNote(String note) {
+		index.setNote(new Note(note));
+	}
+	
+	@Override
+	public void startTablePartial(String name) {
+		table = database.createTablePartial(name);
+		if (table == null) {
+			throw new IllegalArgumentException("TablePartial '%s' is already defined".formatted(name));
+		}
+		elements.add(table);
+	}
+	
+	@Override
+	public void ref(Ref ref) {
+		refs.add(ref);
+	}
+	
+	@Override
+	public void startEnum(String schema, String name) {
+		anEnum = database.getOrCreateSchema(schema).createEnum(name);
+		if (anEnum == null) {
+			throw new IllegalArgumentException("Enum '%s' is already defined".formatted(Name.ofTable(schema, name)));
+		}
+		elements.add(anEnum);
+	}
+	
+	@Override
+	public void enumValue(String name) {
+		enumValue = anEnum.addValue(name);
+		if (enumValue == null) {
+			throw new IllegalArgumentException("Enum value '%s' is already defined".formatted(Name.of(anEnum, name)));
+		}
+	}
+	
+	@Override
+	public void enumValueNote(String note) {
+		enumValue.setNote(new Note(note));
+	}
+	
+	@Override
+	public void startTableGroup(String name) {
+		tableGroup = database.createTableGroup(name);
+		if (tableGroup == null) {
+			throw new IllegalArgumentException("TableGroup '%s' is already defined".formatted(name));
+		}
+		elements.add(tableGroup);
+	}
+	
+	@Override
+	public void tableGroupSetting(TableGroupSetting setting, String value) {
+		tableGroup.addSetting(setting, value);
+	}
+	
+	@Override
+	public void tableGroupNote(String note) {
+		tableGroup.setNote(new Note(note));
+	}
+	
+	@Override
+	public void tableGroupTable(String schema, String table) {
+		var found = findTable(schema, table);
+		if (!tableGroup.addTable(found)) {
+			throw new IllegalArgumentException("Table '%s' is already defined".formatted(found));
+		}
+	}
+	
+	private Table findTable(String schema, String name) {
+		var table = database.getAlias(name);
+		if (table == null) {
+			var tableSchema = database.getSchema(schema);
+			if (tableSchema != null) {
+				table = tableSchema.getTable(name);
+			}
+		}
+		if (table == null) {
+			throw new IllegalArgumentException("Table '%s' is not defined".formatted(Name.ofTable(schema, name)));
+		}
+		return table;
+	}
+	
+	@Override
+	public void startNamedNote(String name) {
+		namedNote = database.addNamedNote(name);
+		if (namedNote == null) {
+			throw new IllegalArgumentException("NamedNote '%s' is already defined".formatted(name));
+		}
+		elements.add(namedNote);
+	}
+	
+	@Override
+	public void endNamedNote(String value) {
+		namedNote.setValue(value);
+	}
+	
+	/**
+	 * Injects the table partials into the tables referring to them.
+	 *
+	 * @param notFound receives the names of undefined table partials
+	 * @return false, if a table partial was skipped, since it would create a loop
+	 */
+	boolean injectTablePartials(Consumer<String> notFound) {
+		var result = true;
+		for (var entry : tablePartialRefs.entrySet()) {
+			result &= injectTablePartials(entry.getKey(), entry.getValue(), notFound);
+		}
+		return result;
+	}
+	
+	/**
+	 * Injects the table partials again into the tables referring to one of them, e.g. after it has been replaced.
+	 *
+	 * @param names    the names of the table partials
+	 * @param notFound receives the names of undefined table partials
+	 * @return the tables, into which the table partials were injected again, or null if a loop was skipped
+	 */
+	List<Table> reinjectTablePartials(Set<String> names, Consumer<String> notFound) {
+		var tables = new ArrayList<Table>();
+		for (var entry : tablePartialRefs.entrySet()) {
+			var table = entry.getKey();
+			if (entry.getValue().stream().anyMatch(names::contains)) {
+				table.getLocalTablePartials().forEach(table::removeTablePartial);
+				if (!injectTablePartials(table, entry.getValue(), notFound)) {
+					return null;
+				}
+				tables.add(table);
+			}
+		}
+		return tables;
+	}
+	
+	private boolean injectTablePartials(Table table, SequencedSet<String> refs, Consumer<String> notFound) {
+		var result = true;
+		for (var ref : refs) {
+			var partial = database.getTablePartial(ref);
+			if (partial == null) {
+				notFound.accept(ref);
+			} else if (!partial.equals(table)) {
+				if (checkLoop(table, partial)) {
+					table.addTablePartial(partial);
+				} else {
+					result = false;
+				}
+			}
+		}
+		return result;
+	}
+	
+	private boolean checkLoop(Table table, TablePartial partial) {
+		return !(table instanceof TablePartial tp && partial.getTablePartials().contains(tp));
+	}
+	
+	/**
+	 * Creates the relationships of all references.
+	 *
+	 * @param errors receives an error per invalid reference
+	 */
+	void createRelationships(Consumer<ParsingException> errors) {
+		for (var ref : refs) {
+			try {
+				relationships.add(createRelationship(ref));
+			} catch (ParsingException e) {
+				errors.accept(e);
+			}
+		}
+	}
+	
+	/**
+	 * Creates the relationship of a reference again, after the previous one has been removed from the database,
+	 * e.g. since a table of its endpoints has been replaced.
+	 *
+	 * @param index the index of the relationship in {@link #getRelationships()}
+	 * @throws ParsingException if the reference is invalid
+	 */
+	Relationship createRelationship(int index) {
+		var relationship = createRelationship(refs.get(index));
+		relationships.set(index, relationship);
+		return relationship;
+	}
+	
+	private Relationship createRelationship(Ref ref) {
+		var relationship = database.createRelationship(ref.name(), ref.relation(),
+				validateColumnNames(ref, ref.from()), validateColumnNames(ref, ref.to()), ref.settings());
+		if (relationship == null) {
+			error(ref, "Reference with the same endpoints already exists");
+		}
+		return relationship;
+	}
+	
+	/**
+	 * Removes the relationships created by {@link #createRelationships(Consumer)} from the database.
+	 */
+	void removeRelationships() {
+		relationships.forEach(database::removeRelationship);
+		relationships.clear();
+	}
+	
+	private List<Column> validateColumnNames(Ref ref, Endpoint endpoint) {
+		var schema = database.getSchema(endpoint.schema());
+		if (schema == null || !schema.containsTable(endpoint.table())) {
+			error(ref, "Table '%s' is not defined", Name.ofTable(endpoint.schema(), endpoint.table()));
+		}
+		var table = schema.getTable(endpoint.table());
+		for (var column : endpoint.columns()) {
+			if (!table.containsColumn(column)) {
+				error(ref, "Column '%s' is not defined", Name.of(table, column));
+			}
+		}
+		return endpoint.columns().stream().map(table::getColumn).toList();
+	}
+	
+	private void error(Ref ref, String msg, Object... args) {
+		throw new ParsingException(ref.position(), String.format(msg, args), writableStackTrace);
+	}
+}
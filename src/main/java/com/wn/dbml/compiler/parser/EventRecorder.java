@@ -0,0 +1,184 @@
+package com.wn.dbml.compiler.parser;
+
+import com.wn.dbml.compiler.DbmlHandler;
+import com.wn.dbml.model.ColumnSetting;
+import com.wn.dbml.model.IndexSetting;
+import com.wn.dbml.model.TableGroupSetting;
+import com.wn.dbml.model.TableSetting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Records the events of a parser, so that they can be sent to another handler later,
+ * e.g. the events of a part of a text parsed in parallel to the builder of the whole database.
+ * The start and end of the document are not recorded.
+ */
+final class EventRecorder implements DbmlHandler {
+	private final List<Consumer<DbmlHandler>> events = new ArrayList<>();
+	
+	/**
+	 * Sends the recorded events to a handler in the order they were recorded.
+	 */
+	void replay(DbmlHandler handler) {
+		for (var event : events) {
+			event.accept(handler);
+		}
+	}
+	
+	@Override
+	public void startProject(String name) {
+		events.add(h -> h.startProject(name));
+	}
+	
+	@Override
+	public void projectProperty(String property, String value) {
+		events.add(h -> h.projectProperty(property, value));
+	}
+	
+	@Override
+	public void projectNote(String note) {
+		events.add(h -> h.projectNote(note));
+	}
+	
+	@Override
+	public void endProject() {
+		events.add(DbmlHandler::endProject);
+	}
+	
+	@Override
+	public void startTable(String schema, String name) {
+		events.add(h -> h.startTable(schema, name));
+	}
+	
+	@Override
+	public void tableAlias(String alias) {
+		events.add(h -> h.tableAlias(alias));
+	}
+	
+	@Override
+	public void tableSetting(TableSetting setting, String value) {
+		events.add(h -> h.tableSetting(setting, value));
+	}
+	
+	@Override
+	public void tableNote(String note) {
+		events.add(h -> h.tableNote(note));
+	}
+	
+	@Override
+	public void tablePartialRef(String name) {
+		events.add(h -> h.tablePartialRef(name));
+	}
+	
+	@Override
+	public void column(String name, String type) {
+		events.add(h -> h.column(name, type));
+	}
+	
+	@Override
+	public void columnSetting(ColumnSetting setting, String value) {
+		events.add(h -> h.columnSetting(setting, value));
+	}
+	
+	@Override
+	public void columnDefault(String value, boolean expression) {
+		events.add(h -> h.columnDefault(value, expression));
+	}
+	
+	@Override
+	public void columnNote(String note) {
+		events.add(h -> h.columnNote(note));
+	}
+	
+	@Override
+	public void index(List<String> columns) {
+		events.add(h -> h.index(columns));
+	}
+	
+	@Override
+	public void indexSetting(IndexSetting setting, String value) {
+		events.add(h -> h.indexSetting(setting, value));
+	}
+	
+	@Override
+	public void indexNote(String note) {
+		events.add(h -> h.indexNote(note));
+	}
+	
+	@Override
+	public void endTable() {
+		events.add(DbmlHandler::endTable);
+	}
+	
+	@Override
+	public void startTablePartial(String name) {
+		events.add(h -> h.startTablePartial(name));
+	}
+	
+	@Override
+	public void endTablePartial() {
+		events.add(DbmlHandler::endTablePartial);
+	}
+	
+	@Override
+	public void ref(Ref ref) {
+		events.add(h -> h.ref(ref));
+	}
+	
+	@Override
+	public void startEnum(String schema, String name) {
+		events.add(h -> h.startEnum(schema, name));
+	}
+	
+	@Override
+	public void enumValue(String name) {
+		events.add(h -> h.enumValue(name));
+	}
+	
+	@Override
+	public void enumValueNote(String note) {
+		events.add(h -> h.enumValueNote(note));
+	}
+	
+	@Override
+	public void endEnum() {
+		events.add(DbmlHandler::endEnum);
+	}
+	
+	@Override
+	public void startTableGroup(String name) {
+		events.add(h -> h.startTableGroup(name));
+	}
+	
+	@Override
+	public void tableGroupSetting(TableGroupSetting setting, String value) {
+		events.add(h -> h.tableGroupSetting(setting, value));
+	}
+	
+	@Override
+	public void tableGroupNote(String note) {
+		events.add(h -> h.tableGroupNote(note));
+	}
+	
+	@Override
+	public void tableGroupTable(String schema, String table) {
+		events.add(h -> h.tableGroupTable(schema, table));
+	}
+	
+	@Override
+	public void endTableGroup() {
+		events.add(DbmlHandler::endTableGroup);
+	}
+	
+	@Override
+	public void startNamedNote(String name) {
+		events.add(h -> h.startNamedNote(name));
+	}
+	
+	@Override
+	public void endNamedNote(String value) {
+		events.add(h -> h.endNamedNote(value));
+	}
+}
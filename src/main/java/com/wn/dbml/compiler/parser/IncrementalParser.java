@@ -0,0 +1,758 @@
+package com.wn.dbml.compiler.parser;
+
+import com.wn.dbml.compiler.lexer.BlockScanner;
+import com.wn.dbml.compiler.lexer.LexerImpl;
+import com.wn.dbml.model.Database;
+import com.wn.dbml.model.Enum;
+import com.wn.dbml.model.NamedNote;
+import com.wn.dbml.model.Project;
+import com.wn.dbml.model.Relationship;
+import com.wn.dbml.model.Schema;
+import com.wn.dbml.model.Table;
+import com.wn.dbml.model.TableGroup;
+import com.wn.dbml.model.TablePartial;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Parses a DBML text again after an edit, reusing the elements of the unchanged parts of the text.
+ * <p>
+ * The text is split into parts at the beginning of top-level elements, see {@link BlockScanner}.
+ * After an edit, the parts around it are scanned again until their boundaries match the previous ones,
+ * and only the parts, whose text has changed, are parsed again. Their elements replace the previous ones
+ * in the same database at the same position, the {@link Table}s and {@link Enum}s of all other parts are kept.
+ * Table partials, table groups and relationships are resolved again only if they refer to a replaced element,
+ * which is looked up in indexes, so an edit takes time in the size of the edited parts and of the elements
+ * referring to them, not of the whole text.
+ * <p>
+ * The database is always the same as that of a {@link ParserImpl}. If an edit causes an error or changes
+ * the schemas, the whole text is parsed, which reports errors the same way as a {@link ParserImpl} does.
+ * There is no database while the text has errors.
+ * Instances are not thread-safe.
+ */
+public final class IncrementalParser {
+	// the parts in the order of the text, their offsets change uniformly after an edit
+	private static final Comparator<Part> ORDER = Comparator.comparingInt(part -> part.start);
+	private final List<Part> parts = new ArrayList<>();
+	private final Map<Table, Part> owners = new IdentityHashMap<>();
+	private final Map<Relationship, Part> relationshipOwners = new IdentityHashMap<>();
+	// the parts with elements of each collection of the database
+	private final Map<Container, NavigableSet<Part>> containers = new HashMap<>();
+	// the parts with table groups containing a table of the name or alias
+	private final Map<String, Set<Part>> tableGroupParts = new HashMap<>();
+	// the parts with tables injecting the table partial of the name
+	private final Map<String, Set<Part>> tablePartialParts = new HashMap<>();
+	private Text text = new Text("");
+	private Database database;
+	
+	/**
+	 * Creates a database using the whole text.
+	 *
+	 * @param dbml a DBML text
+	 * @throws com.wn.dbml.compiler.ParsingException if the text has errors, {@link #getDatabase()} is null then
+	 */
+	public Database parse(String dbml) {
+		text = new Text(dbml);
+		clear();
+		database = new Database();
+		try {
+			var blocks = BlockScanner.scan(dbml);
+			for (int i = 0; i < Math.max(blocks.size(), 1); i++) {
+				// the first part includes the chars before the first block
+				parts.add(i == 0 ? new Part(0, 1) : new Part(blocks.get(i).start(), blocks.get(i).line()));
+			}
+			for (int i = 0; i < parts.size(); i++) {
+				build(parts.get(i), end(i));
+			}
+			for (var part : parts) {
+				part.builder.injectTablePartials(IncrementalParser::notFound);
+			}
+			for (var part : parts) {
+				createRelationships(part);
+			}
+			return database;
+		} catch (RuntimeException e) {
+			// the next edit parses the whole text again, the partly built database is dropped
+			clear();
+			database = null;
+			database = new ParserImpl().parse(new LexerImpl(dbml));
+			return database;
+		}
+	}
+	
+	/**
+	 * Updates the database after the text has been edited.
+	 *
+	 * @param offset        the index of the first changed char
+	 * @param removedLength the number of removed chars
+	 * @param insertedText  the chars inserted instead
+	 * @return the updated database, which is the same instance as before, unless the whole text had to be parsed
+	 * @throws com.wn.dbml.compiler.ParsingException if the text has errors, {@link #getDatabase()} is null then
+	 */
+	public Database edit(int offset, int removedLength, String insertedText) {
+		Objects.checkFromIndexSize(offset, removedLength, text.length());
+		var edit = new Edit(offset, text.subSequence(offset, offset + removedLength), insertedText.length());
+		text.replace(offset, removedLength, insertedText);
+		if (parts.isEmpty()) {
+			return parse(text.toString());
+		}
+		try {
+			update(edit);
+			return database;
+		} catch (RuntimeException e) {
+			return parse(text.toString());
+		}
+	}
+	
+	/**
+	 * The database of the current text, or null if the text has errors.
+	 * A failed edit may have changed the previous database, so it is not kept.
+	 */
+	public Database getDatabase() {
+		return database;
+	}
+	
+	/**
+	 * The current text.
+	 */
+	public String getText() {
+		return text.toString();
+	}
+	
+	private void clear() {
+		parts.clear();
+		owners.clear();
+		relationshipOwners.clear();
+		containers.clear();
+		tableGroupParts.clear();
+		tablePartialParts.clear();
+	}
+	
+	private void update(Edit edit) {
+		var offset = edit.offset();
+		var delta = edit.delta();
+		// an edit at the beginning of a part may merge it into the previous part
+		var first = Math.max(indexOf(offset) - 1, 0);
+		var start = parts.get(first).start;
+		// scan until a block starts after the edit where a part has started before
+		int[] next = {parts.size(), 0};
+		var blocks = BlockScanner.scan(text, start, parts.get(first).line, block -> {
+			if (block.start() < offset + edit.insertedLength()) return false;
+			var index = indexOfStart(block.start() - delta);
+			if (index < 0) return false;
+			next[0] = index;
+			next[1] = block.line() - parts.get(index).line;
+			return true;
+		});
+		var end = next[0] == parts.size() ? text.length() : parts.get(next[0]).start + delta;
+		var edited = new ArrayList<Part>();
+		for (int i = 0; i < blocks.size(); i++) {
+			edited.add(i == 0 ? new Part(start, parts.get(first).line) : new Part(blocks.get(i).start(), blocks.get(i).line()));
+		}
+		if (edited.isEmpty() && (start < end || parts.size() - next[0] + first == 0)) {
+			edited.add(new Part(start, parts.get(first).line));
+		}
+		var previous = new ArrayList<>(parts.subList(first, next[0]));
+		// keep the parts with the same text at both ends
+		int front = 0, back = 0;
+		while (front < previous.size() && front < edited.size()
+				&& sameText(edit, edited, front, end, first + front)) {
+			edited.set(front, previous.get(front));
+			front++;
+		}
+		while (back < previous.size() - front && back < edited.size() - front
+				&& sameText(edit, edited, edited.size() - 1 - back, end, next[0] - 1 - back)) {
+			back++;
+		}
+		var changes = new Changes(database.getSchemas().size());
+		for (var part : previous.subList(front, previous.size() - back)) {
+			changes.remove(part);
+		}
+		// moved like the following parts, after the others have been removed from the indexes
+		for (int i = 1; i <= back; i++) {
+			var kept = previous.get(previous.size() - i);
+			var part = edited.get(edited.size() - i);
+			kept.start = part.start;
+			kept.line = part.line;
+			edited.set(edited.size() - i, kept);
+		}
+		for (int i = next[0]; i < parts.size(); i++) {
+			parts.get(i).start += delta;
+			parts.get(i).line += next[1];
+		}
+		var added = new ArrayList<>(edited.subList(front, edited.size() - back));
+		var replaced = parts.subList(first, next[0]);
+		replaced.clear();
+		replaced.addAll(edited);
+		changes.update(added);
+	}
+	
+	private boolean sameText(Edit edit, List<Part> edited, int index, int end, int previousIndex) {
+		var start = edited.get(index).start;
+		var editedEnd = index + 1 < edited.size() ? edited.get(index + 1).start : end;
+		var previousStart = parts.get(previousIndex).start;
+		var previousEnd = previousIndex + 1 < parts.size() ? parts.get(previousIndex + 1).start : text.length() - edit.delta();
+		if (editedEnd - start != previousEnd - previousStart) {
+			return false;
+		}
+		for (int i = 0; i < editedEnd - start; i++) {
+			if (text.charAt(start + i) != edit.previousCharAt(text, previousStart + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private void build(Part part, int end) {
+		var builder = new DatabaseBuilder(database, false);
+		var parser = new ParserImpl(false);
+		parser.begin(builder);
+		parser.parsePart(new LexerImpl(text, part.start, end, part.line));
+		part.builder = builder;
+		index(part, true);
+	}
+	
+	/**
+	 * Adds the elements of a part to the indexes or removes them.
+	 */
+	private void index(Part part, boolean add) {
+		for (var element : part.builder.getElements()) {
+			var container = Container.of(element);
+			if (container != null) {
+				index(containers, container, part, add, () -> new TreeSet<>(ORDER));
+			}
+			if (element instanceof Table table) {
+				if (add) {
+					owners.put(table, part);
+				} else {
+					owners.remove(table);
+				}
+			} else if (element instanceof TableGroup tableGroup) {
+				for (var table : tableGroup.getTables()) {
+					index(tableGroupParts, table.getName(), part, add, HashSet::new);
+					if (table.getAlias() != null) {
+						index(tableGroupParts, table.getAlias().getName(), part, add, HashSet::new);
+					}
+				}
+			}
+		}
+		for (var names : part.builder.getTablePartialRefs().values()) {
+			for (var name : names) {
+				index(tablePartialParts, name, part, add, HashSet::new);
+			}
+		}
+	}
+	
+	private static <K, S extends Set<Part>> void index(Map<K, S> index, K key, Part part, boolean add, Supplier<S> factory) {
+		if (add) {
+			index.computeIfAbsent(key, k -> factory.get()).add(part);
+		} else {
+			var set = index.get(key);
+			if (set != null && set.remove(part) && set.isEmpty()) {
+				index.remove(key);
+			}
+		}
+	}
+	
+	private void createRelationships(Part part) {
+		part.builder.createRelationships(e -> {
+			throw e;
+		});
+		indexRelationships(part, true);
+	}
+	
+	private void removeRelationships(Part part) {
+		indexRelationships(part, false);
+		part.builder.removeRelationships();
+	}
+	
+	private void indexRelationships(Part part, boolean add) {
+		var relationships = part.builder.getRelationships();
+		if (!relationships.isEmpty()) {
+			index(containers, Container.RELATIONSHIPS, part, add, () -> new TreeSet<>(ORDER));
+		}
+		for (var relationship : relationships) {
+			if (add) {
+				relationshipOwners.put(relationship, part);
+			} else {
+				relationshipOwners.remove(relationship);
+			}
+		}
+	}
+	
+	/**
+	 * The part following another one, which has elements of the collection.
+	 */
+	private Part higher(Container container, Part part) {
+		var set = containers.get(container);
+		return set == null ? null : set.higher(part);
+	}
+	
+	private int end(int index) {
+		return index + 1 < parts.size() ? parts.get(index + 1).start : text.length();
+	}
+	
+	/**
+	 * Returns the index of the part containing the char.
+	 */
+	private int indexOf(int offset) {
+		int low = 0, high = parts.size() - 1;
+		while (low < high) {
+			var mid = (low + high + 1) >>> 1;
+			if (parts.get(mid).start <= offset) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+	
+	private int indexOfStart(int start) {
+		var index = indexOf(start);
+		return parts.get(index).start == start ? index : -1;
+	}
+	
+	private static void notFound(String tablePartial) {
+		throw new IllegalArgumentException("Can not find TablePartial '%s'".formatted(tablePartial));
+	}
+	
+	/**
+	 * The elements replaced by an edit.
+	 */
+	private final class Changes {
+		private final int schemaCount;
+		private final Set<Table> removedTables = Collections.newSetFromMap(new IdentityHashMap<>());
+		// the schemas of the removed and added tables and enums
+		private final Set<Schema> changedSchemas = new HashSet<>();
+		// the names and aliases of the removed and added tables
+		private final Set<String> tableNames = new HashSet<>();
+		private final Set<String> tablePartialNames = new HashSet<>();
+		private final Set<Table> changedColumns = Collections.newSetFromMap(new IdentityHashMap<>());
+		
+		Changes(int schemaCount) {
+			this.schemaCount = schemaCount;
+		}
+		
+		void remove(Part part) {
+			index(part, false);
+			for (var element : part.builder.getElements()) {
+				switch (element) {
+					case Project project -> {
+						if (database.getProject() == project) {
+							database.setProject(null);
+						}
+					}
+					case TablePartial partial -> {
+						database.removeTablePartial(partial);
+						partial.getLocalTablePartials().forEach(partial::removeTablePartial);
+						tablePartialNames.add(partial.getName());
+						removedTables.add(partial);
+					}
+					case Table table -> {
+						table.getSchema().removeTable(table);
+						// detached, so the injected table partials do not keep the table
+						table.getLocalTablePartials().forEach(table::removeTablePartial);
+						addNames(table);
+						removedTables.add(table);
+						changedSchemas.add(table.getSchema());
+					}
+					case Enum anEnum -> {
+						anEnum.getSchema().removeEnum(anEnum);
+						changedSchemas.add(anEnum.getSchema());
+					}
+					case TableGroup tableGroup -> database.removeTableGroup(tableGroup);
+					case NamedNote namedNote -> database.removeNamedNote(namedNote);
+					default -> throw new IllegalStateException("Unexpected value: " + element);
+				}
+			}
+			removeRelationships(part);
+		}
+		
+		private void add(Part part) {
+			build(part, end(indexOfStart(part.start)));
+			for (var element : part.builder.getElements()) {
+				if (element instanceof TablePartial partial) {
+					tablePartialNames.add(partial.getName());
+				} else if (element instanceof Table table) {
+					addNames(table);
+					changedSchemas.add(table.getSchema());
+				} else if (element instanceof Enum anEnum) {
+					changedSchemas.add(anEnum.getSchema());
+				}
+				if (element instanceof Table table) {
+					changedColumns.add(table);
+				}
+			}
+		}
+		
+		private void addNames(Table table) {
+			tableNames.add(table.getName());
+			if (table.getAlias() != null) {
+				tableNames.add(table.getAlias().getName());
+			}
+		}
+		
+		/**
+		 * Adds the elements of the edited parts and of the parts referring to them at their position.
+		 *
+		 * @param added the parts to be parsed in the order of the text
+		 */
+		void update(List<Part> added) {
+			var rebuilt = new TreeSet<>(ORDER);
+			for (var part : added) {
+				add(part);
+				rebuilt.add(part);
+			}
+			var tableGroups = new TreeSet<>(ORDER);
+			for (var name : tableNames) {
+				tableGroups.addAll(tableGroupParts.getOrDefault(name, Set.of()));
+			}
+			tableGroups.removeAll(rebuilt);
+			for (var part : tableGroups) {
+				remove(part);
+			}
+			for (var part : tableGroups) {
+				add(part);
+				rebuilt.add(part);
+			}
+			checkSchemas();
+			var injecting = new TreeSet<>(rebuilt);
+			for (var name : tablePartialNames) {
+				injecting.addAll(tablePartialParts.getOrDefault(name, Set.of()));
+			}
+			for (var part : injecting) {
+				if (rebuilt.contains(part)) {
+					if (!part.builder.injectTablePartials(IncrementalParser::notFound)) {
+						throw new IllegalStateException("Loop of table partials");
+					}
+					checkTableGroups(part);
+				} else {
+					var tables = part.builder.reinjectTablePartials(tablePartialNames, IncrementalParser::notFound);
+					if (tables == null) {
+						throw new IllegalStateException("Loop of table partials");
+					}
+					changedColumns.addAll(tables);
+				}
+			}
+			addInjectingTables();
+			// the following parts are in place already
+			for (var part : rebuilt.descendingSet()) {
+				moveElements(part);
+			}
+			updateRelationships(rebuilt);
+		}
+		
+		/**
+		 * Moves the elements of a part, which have been added after the others, before those of the following parts.
+		 */
+		private void moveElements(Part part) {
+			for (var element : part.builder.getElements()) {
+				var container = Container.of(element);
+				if (container != null) {
+					var following = higher(container, part);
+					var next = following == null ? null : first(following, container);
+					switch (element) {
+						case TablePartial partial -> {
+							database.removeTablePartial(partial);
+							database.addTablePartial(partial, (TablePartial) next);
+						}
+						case Table table -> {
+							table.getSchema().removeTable(table);
+							table.getSchema().addTable(table, (Table) next);
+						}
+						case Enum anEnum -> {
+							anEnum.getSchema().removeEnum(anEnum);
+							anEnum.getSchema().addEnum(anEnum, (Enum) next);
+						}
+						case TableGroup tableGroup -> {
+							database.removeTableGroup(tableGroup);
+							database.addTableGroup(tableGroup, (TableGroup) next);
+						}
+						case NamedNote namedNote -> {
+							database.removeNamedNote(namedNote);
+							database.addNamedNote(namedNote, (NamedNote) next);
+						}
+						default -> throw new IllegalStateException("Unexpected value: " + element);
+					}
+				}
+			}
+		}
+		
+		private static Object first(Part part, Container container) {
+			for (var element : part.builder.getElements()) {
+				if (container.equals(Container.of(element))) {
+					return element;
+				}
+			}
+			throw new IllegalStateException("No element in " + container);
+		}
+		
+		/**
+		 * The schemas are in the order of their first table or enum in the text, which must not change.
+		 */
+		private void checkSchemas() {
+			if (database.getSchemas().size() != schemaCount) {
+				throw new IllegalStateException("Schema added");
+			}
+			if (changedSchemas.isEmpty()) {
+				return;
+			}
+			var previous = -1;
+			for (var schema : database.getSchemas()) {
+				var first = firstPart(schema);
+				if (first == null) {
+					throw new IllegalStateException("Schema removed");
+				}
+				if (first.start <= previous) {
+					throw new IllegalStateException("Schemas reordered");
+				}
+				previous = first.start;
+			}
+		}
+		
+		/**
+		 * The first part with a table or an enum of the schema or null.
+		 */
+		private Part firstPart(Schema schema) {
+			Part first = null;
+			for (var type : List.of(Table.class, Enum.class)) {
+				var set = containers.get(new Container(schema, type));
+				if (set != null && (first == null || ORDER.compare(set.first(), first) < 0)) {
+					first = set.first();
+				}
+			}
+			return first;
+		}
+		
+		/**
+		 * A table group may only contain the tables before it.
+		 */
+		private void checkTableGroups(Part part) {
+			for (var element : part.builder.getElements()) {
+				if (element instanceof TableGroup tableGroup) {
+					for (var table : tableGroup.getTables()) {
+						if (owners.get(table).start > part.start) {
+							throw new IllegalStateException("Table '%s' is not defined".formatted(table));
+						}
+					}
+				}
+			}
+		}
+		
+		/**
+		 * Adds the tables, whose columns change with an injected table partial.
+		 */
+		private void addInjectingTables() {
+			var names = new ArrayDeque<String>();
+			for (var table : changedColumns) {
+				if (table instanceof TablePartial partial) {
+					names.add(partial.getName());
+				}
+			}
+			while (!names.isEmpty()) {
+				var name = names.poll();
+				for (var part : tablePartialParts.getOrDefault(name, Set.of())) {
+					for (var entry : part.builder.getTablePartialRefs().entrySet()) {
+						if (entry.getValue().contains(name) && changedColumns.add(entry.getKey())
+								&& entry.getKey() instanceof TablePartial partial) {
+							names.add(partial.getName());
+						}
+					}
+				}
+			}
+		}
+		
+		/**
+		 * Creates the relationships of the rebuilt parts and the other relationships referring to a changed table,
+		 * and moves them before the following relationships.
+		 */
+		private void updateRelationships(NavigableSet<Part> rebuilt) {
+			var created = new TreeMap<Part, BitSet>(ORDER);
+			for (var tables : List.of(removedTables, changedColumns)) {
+				for (var table : tables) {
+					addRelationships(database.getRelationshipsFrom(table), created);
+					addRelationships(database.getRelationshipsTo(table), created);
+				}
+			}
+			// removed first, so that they are not duplicates of the created ones
+			created.forEach((part, indexes) -> indexes.stream().forEach(i -> {
+				var relationship = part.builder.getRelationships().get(i);
+				database.removeRelationship(relationship);
+				relationshipOwners.remove(relationship);
+			}));
+			created.forEach((part, indexes) -> indexes.stream().forEach(i ->
+					relationshipOwners.put(part.builder.createRelationship(i), part)));
+			for (var part : rebuilt) {
+				if (part.builder.hasRefs()) {
+					createRelationships(part);
+					var indexes = new BitSet();
+					indexes.set(0, part.builder.getRelationships().size());
+					created.put(part, indexes);
+				}
+			}
+			// the following relationships are in place already
+			for (var entry : created.descendingMap().entrySet()) {
+				var following = higher(Container.RELATIONSHIPS, entry.getKey());
+				var next = following == null ? null : following.builder.getRelationships().getFirst();
+				var relationships = entry.getKey().builder.getRelationships();
+				for (int i = relationships.size() - 1; i >= 0; i--) {
+					var relationship = relationships.get(i);
+					if (entry.getValue().get(i)) {
+						database.removeRelationship(relationship);
+						database.addRelationship(relationship, next);
+					}
+					next = relationship;
+				}
+			}
+		}
+		
+		private void addRelationships(Set<Relationship> relationships, Map<Part, BitSet> created) {
+			for (var relationship : relationships) {
+				var part = relationshipOwners.get(relationship);
+				created.computeIfAbsent(part, p -> new BitSet()).set(part.builder.getRelationships().indexOf(relationship));
+			}
+		}
+	}
+	
+	/**
+	 * A collection of the database, which keeps its elements in order.
+	 */
+	private record Container(
+			Object owner, Class<?> type
+	) {
+		static final Container RELATIONSHIPS = new Container(null, Relationship.class);
+		
+		static Container of(Object element) {
+			return switch (element) {
+				case TablePartial ignored -> new Container(null, TablePartial.class);
+				case Table table -> new Container(table.getSchema(), Table.class);
+				case Enum anEnum -> new Container(anEnum.getSchema(), Enum.class);
+				case TableGroup ignored -> new Container(null, TableGroup.class);
+				case NamedNote ignored -> new Container(null, NamedNote.class);
+				default -> null;
+			};
+		}
+	}
+	
+	private static final class Part {
+		private int start, line;
+		private DatabaseBuilder builder;
+		
+		Part(int start, int line) {
+			this.start = start;
+			this.line = line;
+		}
+	}
+	
+	/**
+	 * An edit of the text, which still provides the previous chars.
+	 */
+	private record Edit(
+			int offset, String removed, int insertedLength
+	) {
+		int delta() {
+			return insertedLength - removed.length();
+		}
+		
+		char previousCharAt(CharSequence text, int index) {
+			if (index < offset) return text.charAt(index);
+			if (index < offset + removed.length()) return removed.charAt(index - offset);
+			return text.charAt(index + delta());
+		}
+	}
+	
+	/**
+	 * The chars of the text with a gap at the last edit, so that an edit only moves the chars since the last one.
+	 */
+	private static final class Text implements CharSequence {
+		private char[] chars;
+		private int gapStart, gapEnd;
+		private String string;
+		
+		Text(String string) {
+			chars = string.toCharArray();
+			gapStart = gapEnd = chars.length;
+			this.string = string;
+		}
+		
+		void replace(int offset, int removedLength, String inserted) {
+			moveGap(offset);
+			gapEnd += removedLength;
+			if (gapEnd - gapStart < inserted.length()) {
+				grow(inserted.length());
+			}
+			inserted.getChars(0, inserted.length(), chars, gapStart);
+			gapStart += inserted.length();
+			string = null;
+		}
+		
+		private void moveGap(int offset) {
+			if (offset < gapStart) {
+				System.arraycopy(chars, offset, chars, gapEnd - (gapStart - offset), gapStart - offset);
+			} else {
+				System.arraycopy(chars, gapEnd, chars, gapStart, offset - gapStart);
+			}
+			gapEnd += offset - gapStart;
+			gapStart = offset;
+		}
+		
+		private void grow(int length) {
+			var grown = new char[chars.length + Math.max(length, chars.length >> 3)];
+			var tail = chars.length - gapEnd;
+			System.arraycopy(chars, 0, grown, 0, gapStart);
+			System.arraycopy(chars, gapEnd, grown, grown.length - tail, tail);
+			gapEnd = grown.length - tail;
+			chars = grown;
+		}
+		
+		@Override
+		public int length() {
+			return chars.length - (gapEnd - gapStart);
+		}
+		
+		@Override
+		public char charAt(int index) {
+			Objects.checkIndex(index, length());
+			return index < gapStart ? chars[index] : chars[index + gapEnd - gapStart];
+		}
+		
+		@Override
+		public String subSequence(int start, int end) {
+			Objects.checkFromToIndex(start, end, length());
+			if (end <= gapStart) {
+				return new String(chars, start, end - start);
+			}
+			if (start >= gapStart) {
+				return new String(chars, start + gapEnd - gapStart, end - start);
+			}
+			return new StringBuilder(end - start)
+					.append(chars, start, gapStart - start)
+					.append(chars, gapEnd, end - gapStart)
+					.toString();
+		}
+		
+		@Override
+		public String toString() {
+			if (string == null) {
+				string = subSequence(0, length());
+			}
+			return string;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.wn.dbml.compiler.parser;
+
+import com.wn.dbml.compiler.Lexer;
+import com.wn.dbml.compiler.ParsingException;
+import com.wn.dbml.compiler.lexer.BlockScanner;
+import com.wn.dbml.compiler.lexer.LexerImpl;
+import com.wn.dbml.model.Database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parses the top-level elements of a DBML text in parallel.
+ * <p>
+ * The text is split into parts at the beginning of top-level elements, see {@link BlockScanner}.
+ * The parts are parsed by the tasks of a {@link ForkJoinPool}, which record their elements.
+ * The elements are built in order into one database, then table partials and relationships are resolved once.
+ * Table groups refer to the tables before them, so their parts are parsed while merging.
+ * <p>
+ * If a part can't be parsed or merged, the whole text is parsed by a single {@link ParserImpl},
+ * thus the database and the errors are always the same as those of a serial parse.
+ */
+public final class ParallelParser {
+	private static final int MIN_PART_LENGTH = 1 << 16;
+	private static final int PARTS_PER_THREAD = 4;
+	private final ForkJoinPool pool;
+	private final int minPartLength;
+	
+	public ParallelParser() {
+		this(ForkJoinPool.commonPool());
+	}
+	
+	public ParallelParser(ForkJoinPool pool) {
+		this(pool, MIN_PART_LENGTH);
+	}
+	
+	/**
+	 * @param pool          the pool parsing the parts
+	 * @param minPartLength the minimum number of chars of a part, texts shorter than this are parsed serially
+	 */
+	public ParallelParser(ForkJoinPool pool, int minPartLength) {
+		if (minPartLength < 1) throw new IllegalArgumentException("Illegal Length: " + minPartLength);
+		this.pool = Objects.requireNonNull(pool);
+		this.minPartLength = minPartLength;
+	}
+	
+	/**
+	 * Creates a database using a DBML text.
+	 *
+	 * @param dbml a DBML text
+	 */
+	public Database parse(CharSequence dbml) {
+		if (dbml.length() < minPartLength) {
+			return parseSerially(dbml);
+		}
+		var parts = split(dbml);
+		if (parts.size() < 2) {
+			return parseSerially(dbml);
+		}
+		var tasks = new ArrayList<ForkJoinTask<ParserImpl>>(parts.size());
+		for (var part : parts) {
+			tasks.add(part.independent() ? pool.submit(() -> parsePart(part.lexer(dbml))) : null);
+		}
+		try {
+			var parser = new ParserImpl();
+			parser.begin();
+			for (int i = 0; i < parts.size(); i++) {
+				var part = parts.get(i);
+				if (!part.independent()) {
+					parser.parsePart(part.lexer(dbml));
+				} else if (!parser.merge(tasks.get(i).join())) {
+					return parseSerially(dbml);
+				}
+			}
+			return parser.end();
+		} catch (ParsingException | IllegalArgumentException e) {
+			// let the serial parser report the first error of the text
+			return parseSerially(dbml);
+		} finally {
+			for (var task : tasks) {
+				if (task != null) {
+					task.cancel(false);
+				}
+			}
+		}
+	}
+	
+	private static ParserImpl parsePart(Lexer lexer) {
+		// errors are reported by the serial parser, so they don't need a stack trace
+		var parser = new ParserImpl(false);
+		parser.record(lexer);
+		return parser;
+	}
+	
+	private static Database parseSerially(CharSequence dbml) {
+		return new ParserImpl().parse(new LexerImpl(dbml));
+	}
+	
+	private List<Part> split(CharSequence dbml) {
+		var partLength = Math.max(minPartLength, dbml.length() / (pool.getParallelism() * PARTS_PER_THREAD));
+		var parts = new ArrayList<Part>();
+		int start = 0, line = 1;
+		var independent = true;
+		for (var block : BlockScanner.scan(dbml)) {
+			if (block.start() > start && (block.independent() != independent || block.start() - start >= partLength)) {
+				parts.add(new Part(start, block.start(), line, independent));
+				start = block.start();
+				line = block.line();
+				independent = block.independent();
+			} else {
+				independent &= block.independent();
+			}
+		}
+		parts.add(new Part(start, dbml.length(), line, independent));
+		return parts;
+	}
+	
+	private record Part(
+			int start, int end, int line, boolean independent
+	) {
+		Lexer lexer(CharSequence dbml) {
+			return new LexerImpl(dbml, start, end, line);
+		}
+	}
+}
@@ -1,61 +1,231 @@
 package com.wn.dbml.compiler.parser;
 
+import com.wn.dbml.compiler.DbmlHandler;
+import com.wn.dbml.compiler.DbmlHandler.Endpoint;
+import com.wn.dbml.compiler.DbmlHandler.Ref;
 import com.wn.dbml.compiler.Lexer;
 import com.wn.dbml.compiler.Parser;
 import com.wn.dbml.compiler.ParsingException;
+import com.wn.dbml.compiler.ParsingResult;
 import com.wn.dbml.compiler.Position;
 import com.wn.dbml.compiler.token.TokenType;
-import com.wn.dbml.model.Alias;
-import com.wn.dbml.model.Column;
+import com.wn.dbml.compiler.token.TokenTypeSet;
 import com.wn.dbml.model.ColumnSetting;
 import com.wn.dbml.model.Database;
-import com.wn.dbml.model.EnumValue;
-import com.wn.dbml.model.Index;
 import com.wn.dbml.model.IndexSetting;
-import com.wn.dbml.model.Note;
-import com.wn.dbml.model.Project;
 import com.wn.dbml.model.Relation;
 import com.wn.dbml.model.RelationshipSetting;
 import com.wn.dbml.model.Schema;
-import com.wn.dbml.model.Setting;
-import com.wn.dbml.model.SettingHolder;
-import com.wn.dbml.model.Table;
-import com.wn.dbml.model.TableGroup;
 import com.wn.dbml.model.TableGroupSetting;
-import com.wn.dbml.model.TablePartial;
 import com.wn.dbml.model.TableSetting;
+import com.wn.dbml.util.Chars;
 import com.wn.dbml.util.Name;
+import com.wn.dbml.util.StringInterner;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.EnumMap;
-import java.util.HashMap;
-import java.util.LinkedHashSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.SequencedSet;
+import java.util.Objects;
+import java.util.Set;
 
 import static com.wn.dbml.compiler.token.TokenType.*;
 
 /**
  * The default parser implementation.
+ * <p>
+ * The parser sends the elements of the text to a {@link DbmlHandler}, by default to one creating a database.
  */
 public class ParserImpl implements Parser {
-	private List<RelationshipDefinition> relationshipDefinitions;
-	private Map<Table, SequencedSet<String>> tablePartialRefs;
+	private static final TokenTypeSet ELEMENT_TYPES = TokenTypeSet.of(PROJECT, TABLE, REF, ENUM, TABLEGROUP, TABLEPARTIAL, NOTE, EOF);
+	private static final TokenTypeSet NAME_TYPES = TokenTypeSet.of(LITERAL, DSTRING);
+	private static final TokenTypeSet STRING_TYPES = TokenTypeSet.of(SSTRING, DSTRING, TSTRING);
+	private static final TokenTypeSet PROJECT_NAME_TYPES = TokenTypeSet.of(LITERAL, DSTRING, LBRACE);
+	private static final TokenTypeSet PROJECT_ELEMENT_TYPES = TokenTypeSet.of(LITERAL, NOTE, RBRACE);
+	private static final TokenTypeSet TABLE_HEAD_TYPES = TokenTypeSet.of(AS, LBRACK, LBRACE);
+	private static final TokenTypeSet SETTINGS_OR_BODY_TYPES = TokenTypeSet.of(LBRACK, LBRACE);
+	private static final TokenTypeSet TABLE_SETTING_TYPES = TokenTypeSet.of(HEADERCOLOR, NOTE);
+	private static final TokenTypeSet SETTING_SEPARATOR_TYPES = TokenTypeSet.of(COMMA, RBRACK);
+	private static final TokenTypeSet FIRST_TABLE_ELEMENT_TYPES = TokenTypeSet.of(LITERAL, DSTRING, TILDE);
+	private static final TokenTypeSet TABLE_ELEMENT_TYPES = TokenTypeSet.of(LITERAL, DSTRING, TILDE, INDEXES, NOTE, RBRACE);
+	private static final TokenTypeSet COLUMN_SETTING_TYPES = TokenTypeSet.of(NOT, NULL, PRIMARY, PK, UNIQUE, INCREMENT, NOTE, REF, DEFAULT);
+	private static final TokenTypeSet DATATYPE_ARGUMENT_TYPES = TokenTypeSet.of(LITERAL, NUMBER, RPAREN, LINEBREAK);
+	private static final TokenTypeSet DATATYPE_CHAR_TYPES = TokenTypeSet.of(LITERAL, NUMBER, RPAREN);
+	private static final TokenTypeSet DATATYPE_END_TYPES = TokenTypeSet.of(RPAREN, LINEBREAK);
+	private static final TokenTypeSet SETTINGS_OR_LINEBREAK_TYPES = TokenTypeSet.of(LBRACK, LINEBREAK);
+	private static final TokenTypeSet INLINE_REF_NAME_TYPES = TokenTypeSet.of(LITERAL, DSTRING, COLON);
+	private static final TokenTypeSet INDEX_TYPES = TokenTypeSet.of(LPAREN, LITERAL, EXPR);
+	private static final TokenTypeSet INDEX_COLUMN_TYPES = TokenTypeSet.of(LITERAL, EXPR);
+	private static final TokenTypeSet LIST_SEPARATOR_TYPES = TokenTypeSet.of(COMMA, RPAREN);
+	private static final TokenTypeSet INDEX_SETTING_TYPES = TokenTypeSet.of(UNIQUE, NAME, TYPE, NOTE);
+	private static final TokenTypeSet INDEX_END_TYPES = TokenTypeSet.of(LINEBREAK, RBRACE);
+	private static final TokenTypeSet INDEX_TYPE_TYPES = TokenTypeSet.of(BTREE, HASH);
+	private static final TokenTypeSet REF_HEAD_TYPES = TokenTypeSet.of(LITERAL, DSTRING, LBRACE, COLON, LINEBREAK);
+	private static final TokenTypeSet REF_NAME_TYPES = TokenTypeSet.of(LITERAL, DSTRING, LBRACE, COLON);
+	private static final TokenTypeSet REF_BODY_TYPES = TokenTypeSet.of(LBRACE, COLON, LINEBREAK);
+	private static final TokenTypeSet REF_SETTING_TYPES = TokenTypeSet.of(DELETE, UPDATE, COLOR);
+	private static final TokenTypeSet REF_ACTION_TYPES = TokenTypeSet.of(CASCADE, RESTRICT, SET, NO);
+	private static final TokenTypeSet SET_ACTION_TYPES = TokenTypeSet.of(NULL, DEFAULT);
+	private static final TokenTypeSet RELATION_TYPES = TokenTypeSet.of(LT, GT, MINUS, NE);
+	private static final TokenTypeSet TABLE_GROUP_SETTING_TYPES = TokenTypeSet.of(COLOR, NOTE);
+	private static final TokenTypeSet REF_COLUMN_TYPES = TokenTypeSet.of(LITERAL, DSTRING, LPAREN);
+	private static final TokenTypeSet NOTE_TYPES = TokenTypeSet.of(COLON, LBRACE);
+	private static final TokenTypeSet DEFAULT_VALUE_TYPES = STRING_TYPES.with(EXPR, BOOLEAN, NUMBER);
+	private final boolean writableStackTrace;
+	private final StringInterner interner;
+	private DbmlHandler handler;
+	private DatabaseBuilder builder;
+	private EventRecorder recorder;
 	private TokenAccess tokenAccess;
-	private Database database;
+	private List<ParsingException> errors;
+	// the state of the grammar, which is bounded by the size of a table
+	private boolean projectDefined;
+	private String tableSchema, tableName;
+	private final Set<String> columnNames = new HashSet<>();
+	private final Set<String> tablePartialNames = new HashSet<>();
+	
+	public ParserImpl() {
+		this(true);
+	}
+	
+	/**
+	 * @param writableStackTrace false to throw {@link ParsingException}s without a stack trace,
+	 *                           which is cheaper when many invalid inputs are expected
+	 */
+	public ParserImpl(boolean writableStackTrace) {
+		this(writableStackTrace, null);
+	}
+	
+	/**
+	 * @param writableStackTrace false to throw {@link ParsingException}s without a stack trace
+	 * @param interner           shares the strings of repeated identifiers, datatypes and setting values,
+	 *                           or null to keep a string per occurrence
+	 */
+	public ParserImpl(boolean writableStackTrace, StringInterner interner) {
+		this.writableStackTrace = writableStackTrace;
+		this.interner = interner;
+	}
 	
 	@Override
 	public Database parse(Lexer lexer) {
-		relationshipDefinitions = new ArrayList<>();
-		tablePartialRefs = new HashMap<>();
-		tokenAccess = new TokenAccess(lexer);
-		database = new Database();
+		begin();
+		parsePart(lexer);
+		return end();
+	}
+	
+	/**
+	 * Parses the text of the lexer, sending its elements to the handler instead of creating a database.
+	 * Only the elements of the current table are kept, thus texts of any size can be parsed.
+	 *
+	 * @param lexer   a lexer
+	 * @param handler receives the elements of the text
+	 */
+	public void parse(Lexer lexer, DbmlHandler handler) {
+		this.handler = Objects.requireNonNull(handler);
+		builder = null;
+		projectDefined = false;
+		handler.startDocument();
+		parsePart(lexer);
+		handler.endDocument();
+	}
+	
+	/**
+	 * Starts parsing a text in parts.
+	 *
+	 * @see #parsePart(Lexer)
+	 * @see #merge(ParserImpl)
+	 * @see #end()
+	 */
+	void begin() {
+		begin(new DatabaseBuilder(writableStackTrace));
+	}
+	
+	/**
+	 * Starts parsing a text in parts, adding the elements to the builder.
+	 */
+	void begin(DatabaseBuilder builder) {
+		handler = this.builder = builder;
+		projectDefined = builder.getDatabase().getProject() != null;
+	}
+	
+	/**
+	 * Parses the top-level elements of the next part of the text.
+	 */
+	void parsePart(Lexer lexer) {
+		tokenAccess = new TokenAccess(lexer, writableStackTrace);
+		parseElements();
+	}
+	
+	/**
+	 * Parses a part of a text independently, recording its elements instead of building them.
+	 *
+	 * @see #merge(ParserImpl)
+	 */
+	void record(Lexer lexer) {
+		handler = recorder = new EventRecorder();
+		builder = null;
+		projectDefined = false;
+		parsePart(lexer);
+	}
+	
+	/**
+	 * Adds the elements of a part, which another parser has recorded, as if they had been parsed by this parser.
+	 * They are built directly into the database of this parser.
+	 *
+	 * @param part a parser, which has recorded the part completely
+	 * @return false, if both define a project
+	 * @throws IllegalArgumentException if an element is already defined
+	 */
+	boolean merge(ParserImpl part) {
+		if (projectDefined && part.projectDefined) {
+			return false;
+		}
+		part.recorder.replay(builder);
+		projectDefined |= part.projectDefined;
+		// continue at the end of the part
+		tokenAccess = part.tokenAccess;
+		return true;
+	}
+	
+	/**
+	 * Resolves the table partials and relationships of all parts.
+	 */
+	Database end() {
 		try {
-			loop:
-			while (true) {
-				next(PROJECT, TABLE, REF, ENUM, TABLEGROUP, TABLEPARTIAL, NOTE, EOF);
+			builder.injectTablePartials(ref -> report(tokenAccess.exception(String.format("Can not find TablePartial '%s'", ref))));
+			builder.createRelationships(this::report);
+		} catch (IllegalArgumentException | UnsupportedOperationException e) {
+			error(e.getMessage());
+		}
+		return builder.getDatabase();
+	}
+	
+	/**
+	 * Creates a database using the lexer, continuing after errors.
+	 * Parsing continues at the next top-level element, thus one call reports all errors of the text.
+	 *
+	 * @param lexer a lexer
+	 * @return the database, as far as it could be parsed, and the errors
+	 */
+	public ParsingResult parseWithRecovery(Lexer lexer) {
+		errors = new ArrayList<>();
+		try {
+			parse(lexer);
+		} catch (ParsingException e) {
+			errors.add(e);
+		}
+		var result = new ParsingResult(builder.getDatabase(), errors);
+		errors = null;
+		return result;
+	}
+	
+	private void parseElements() {
+		while (true) {
+			Position start = null;
+			try {
+				next(ELEMENT_TYPES);
+				start = position();
 				switch (tokenType()) {
 					case PROJECT -> parseProject();
 					case TABLE -> parseTable();
@@ -65,107 +235,127 @@ public class ParserImpl implements Parser {
 					case TABLEPARTIAL -> parseTablePartial();
 					case NOTE -> parseNamedNote();
 					default -> {
-						break loop;
+						return;
 					}
 				}
+			} catch (ParsingException e) {
+				recover(e, start);
+			} catch (IllegalArgumentException | UnsupportedOperationException e) {
+				recover(tokenAccess.exception(e.getMessage()), start);
 			}
-			injectTablePartials();
-			createRelationships();
-		} catch (IllegalArgumentException | UnsupportedOperationException e) {
-			error(e.getMessage());
 		}
-		return database;
+	}
+	
+	/**
+	 * Skips to the next top-level element after an error, unless errors are not recovered.
+	 *
+	 * @param start the position after the keyword of the element with the error
+	 */
+	private void recover(ParsingException e, Position start) {
+		report(e);
+		// continue at the current token only if it is not the keyword of the element with the error
+		tokenAccess.skipTo(ELEMENT_TYPES, !position().equals(start));
+	}
+	
+	/**
+	 * Collects the error, or throws it if errors are not recovered.
+	 */
+	private void report(ParsingException e) {
+		if (errors == null) {
+			throw e;
+		}
+		errors.add(e);
 	}
 	
 	private void parseProject() {
-		if (database.getProject() != null) {
+		if (projectDefined) {
 			error("Project is already defined");
 		}
 		String name = null;
-		next(LITERAL, DSTRING, LBRACE); // projectName
-		if (typeIs(LITERAL, DSTRING)) {
+		next(PROJECT_NAME_TYPES); // projectName
+		if (typeIs(NAME_TYPES)) {
 			name = tokenValue();
 			next(LBRACE);
 		}
-		var project = new Project(name);
+		handler.startProject(name);
 		loop:
 		while (true) {
-			next(LITERAL, NOTE, RBRACE);
+			next(PROJECT_ELEMENT_TYPES);
 			switch (tokenType()) {
-				case LITERAL -> parseProjectProperty(project);
-				case NOTE -> project.setNote(parseNote());
+				case LITERAL -> parseProjectProperty();
+				case NOTE -> handler.projectNote(parseNote());
 				default -> {
 					break loop;
 				}
 			}
 		}
-		database.setProject(project);
+		handler.endProject();
+		projectDefined = true;
 	}
 	
-	private void parseProjectProperty(Project project) {
+	private void parseProjectProperty() {
 		var property = tokenValue();
 		next(COLON);
-		next(stringTypes());
-		project.getProperties().put(property, tokenValue());
+		next(STRING_TYPES);
+		handler.projectProperty(property, tokenValue());
 	}
 	
 	private void parseTable() {
-		var table = parseTableHead();
-		parseTableBody(table);
+		var tableName = parseTableName();
+		startTable(tableName.schema(), tableName.table());
+		handler.startTable(tableName.schema(), tableName.table());
+		parseTableHead();
+		parseTableBody();
+		handler.endTable();
 	}
 	
-	private Table parseTableHead() {
-		var tableName = parseTableName();
-		var schema = database.getOrCreateSchema(tableName.schema());
-		var table = schema.createTable(tableName.table());
-		if (table == null) {
-			error("Table '%s' is already defined", tableName);
-		}
-		parseTableHead(table);
-		return table;
+	private void startTable(String schema, String name) {
+		tableSchema = schema;
+		tableName = name;
+		columnNames.clear();
+		tablePartialNames.clear();
 	}
 	
-	private void parseTableHead(Table table) {
-		next(AS, LBRACK, LBRACE);
+	private void parseTableHead() {
+		next(TABLE_HEAD_TYPES);
 		if (typeIs(AS)) {
-			next(LITERAL, DSTRING); // alias
-			var aliasName = tokenValue();
-			table.setAlias(new Alias(aliasName));
-			next(LBRACK, LBRACE);
+			next(NAME_TYPES); // alias
+			handler.tableAlias(tokenValue());
+			next(SETTINGS_OR_BODY_TYPES);
 		}
 		if (typeIs(LBRACK)) {
 			do {
-				next(HEADERCOLOR, NOTE);
-				parseTableSetting(table);
-				next(COMMA, RBRACK);
+				next(TABLE_SETTING_TYPES);
+				parseTableSetting();
+				next(SETTING_SEPARATOR_TYPES);
 			} while (!typeIs(RBRACK));
 			next(LBRACE);
 		}
 	}
 	
-	private void parseTableSetting(Table table) {
+	private void parseTableSetting() {
 		if (typeIs(HEADERCOLOR)) {
-			addSetting(table, TableSetting.HEADERCOLOR, COLOR_CODE);
+			handler.tableSetting(TableSetting.HEADERCOLOR, settingValue(TokenTypeSet.of(COLOR_CODE)));
 		} else if (typeIs(NOTE)) {
-			table.setNote(parseInlineNote());
+			handler.tableNote(parseInlineNote());
 		}
 	}
 	
-	private void parseTableBody(Table table) {
-		next(LITERAL, DSTRING, TILDE);
+	private void parseTableBody() {
+		next(FIRST_TABLE_ELEMENT_TYPES);
 		if (typeIs(TILDE)) {
-			parseTablePartialRef(table);
+			parseTablePartialRef();
 		} else {
-			parseColumn(table);
+			parseColumn();
 		}
 		loop:
 		while (true) {
-			next(LITERAL, DSTRING, TILDE, INDEXES, NOTE, RBRACE);
+			next(TABLE_ELEMENT_TYPES);
 			switch (tokenType()) {
-				case LITERAL, DSTRING -> parseColumn(table);
-				case TILDE -> parseTablePartialRef(table);
-				case INDEXES -> parseIndexes(table);
-				case NOTE -> table.setNote(parseNote());
+				case LITERAL, DSTRING -> parseColumn();
+				case TILDE -> parseTablePartialRef();
+				case INDEXES -> parseIndexes();
+				case NOTE -> handler.tableNote(parseNote());
 				default -> {
 					break loop;
 				}
@@ -173,144 +363,148 @@ public class ParserImpl implements Parser {
 		}
 	}
 	
-	private void parseTablePartialRef(Table table) {
+	private void parseTablePartialRef() {
 		next(LITERAL);
 		var ref = tokenValue();
-		var added = tablePartialRefs.computeIfAbsent(table, x -> new LinkedHashSet<>()).add(ref);
-		if (!added) {
+		if (!tablePartialNames.add(ref)) {
 			error("Duplicate injection '%s'", ref);
 		}
+		handler.tablePartialRef(ref);
 	}
 	
-	private void parseColumn(Table table) {
+	private void parseColumn() {
 		var name = tokenValue();
-		if (table.containsColumn(name)) {
-			error("Column '%s' is already defined", Name.of(table, name));
+		if (columnNames.contains(name)) {
+			error("Column '%s' is already defined", Name.ofColumn(tableSchema, tableName, name));
 		}
 		try (var ignored = new LinebreakMode()) {
 			var datatype = parseColumnDatatype();
-			var column = table.addColumn(name, datatype);
+			handler.column(name, datatype);
+			columnNames.add(name);
 			if (typeIs(LBRACK)) {
 				do {
-					next(NOT, NULL, PRIMARY, PK, UNIQUE, INCREMENT, NOTE, REF, DEFAULT);
-					parseColumnSetting(column);
-					next(COMMA, RBRACK);
+					next(COLUMN_SETTING_TYPES);
+					parseColumnSetting(name);
+					next(SETTING_SEPARATOR_TYPES);
 				} while (!typeIs(RBRACK));
 			}
 		}
 	}
 	
 	private String parseColumnDatatype() {
-		next(LITERAL, DSTRING); // datatype name
+		next(NAME_TYPES); // datatype name
 		var datatype = tokenValue();
 		if (lookaheadTypeIs(LPAREN)) {
 			next(LPAREN);
 			var sb = new StringBuilder(datatype);
 			sb.append(tokenValue());
 			do {
-				next(LITERAL, NUMBER, RPAREN, LINEBREAK);
-				if (typeIs(LITERAL, NUMBER, RPAREN)) {
+				next(DATATYPE_ARGUMENT_TYPES);
+				if (typeIs(DATATYPE_CHAR_TYPES)) {
 					sb.append(tokenValue());
 				}
-			} while (!typeIs(RPAREN, LINEBREAK));
-			datatype = sb.toString();
+			} while (!typeIs(DATATYPE_END_TYPES));
+			datatype = interner == null ? sb.toString() : interner.intern(sb);
 		}
-		next(LBRACK, LINEBREAK);
+		next(SETTINGS_OR_LINEBREAK_TYPES);
 		return datatype;
 	}
 	
-	private void parseColumnSetting(Column column) {
+	private void parseColumnSetting(String column) {
 		switch (tokenType()) {
 			case NOT -> {
 				next(NULL);
-				addSetting(column, ColumnSetting.NOT_NULL);
+				handler.columnSetting(ColumnSetting.NOT_NULL, null);
 			}
 			case NULL -> {
 			} // ignore
 			case PRIMARY -> {
 				next(KEY);
-				addSetting(column, ColumnSetting.PRIMARY_KEY);
+				handler.columnSetting(ColumnSetting.PRIMARY_KEY, null);
+			}
+			case PK -> handler.columnSetting(ColumnSetting.PRIMARY_KEY, null);
+			case UNIQUE -> handler.columnSetting(ColumnSetting.UNIQUE, null);
+			case INCREMENT -> handler.columnSetting(ColumnSetting.INCREMENT, null);
+			case DEFAULT -> {
+				var value = settingValue(DEFAULT_VALUE_TYPES);
+				handler.columnDefault(value, tokenType() == EXPR);
 			}
-			case PK -> addSetting(column, ColumnSetting.PRIMARY_KEY);
-			case UNIQUE -> addSetting(column, ColumnSetting.UNIQUE);
-			case INCREMENT -> addSetting(column, ColumnSetting.INCREMENT);
-			case DEFAULT -> addSetting(column, ColumnSetting.DEFAULT, stringTypesOr(EXPR, BOOLEAN, NUMBER));
-			case NOTE -> column.setNote(parseInlineNote());
-			case REF -> relationshipDefinitions.add(parseInlineRef(column));
+			case NOTE -> handler.columnNote(parseInlineNote());
+			case REF -> handler.ref(parseInlineRef(column));
 			default -> throw new IllegalStateException("Unexpected value: " + tokenType());
 		}
 	}
 	
-	private RelationshipDefinition parseInlineRef(Column columnFrom) {
+	private Ref parseInlineRef(String columnFrom) {
 		String name = null;
-		next(LITERAL, DSTRING, COLON); // name
-		if (typeIs(LITERAL, DSTRING)) {
+		next(INLINE_REF_NAME_TYPES); // name
+		if (typeIs(NAME_TYPES)) {
 			name = tokenValue();
 			next(COLON);
 		}
 		var relation = parseRelation();
 		var columnTo = parseColumnName();
-		return new RelationshipDefinition(position(),
+		return new Ref(position(),
 				name, relation,
-				new ColumnNames(columnFrom.getTable().getSchema().getName(), columnFrom.getTable().getName(), List.of(columnFrom.getName())),
-				new ColumnNames(columnTo.schema(), columnTo.table(), List.of(columnTo.column())),
+				new Endpoint(tableSchema, tableName, List.of(columnFrom)),
+				new Endpoint(columnTo.schema(), columnTo.table(), List.of(columnTo.column())),
 				new EnumMap<>(RelationshipSetting.class));
 	}
 	
-	private void parseIndexes(Table table) {
+	private void parseIndexes() {
 		next(LBRACE);
 		do {
-			next(LPAREN, LITERAL, EXPR);
-			parseIndex(table);
+			next(INDEX_TYPES);
+			parseIndex();
 		} while (!lookaheadTypeIs(RBRACE));
 		next(RBRACE);
 	}
 	
-	private void parseIndex(Table table) {
+	private void parseIndex() {
 		try (var ignored = new LinebreakMode()) {
 			var columns = new ArrayList<String>();
 			if (typeIs(LPAREN)) {
 				do {
-					next(LITERAL, EXPR);
-					parseIndexColumn(table, columns);
-					next(COMMA, RPAREN);
+					next(INDEX_COLUMN_TYPES);
+					parseIndexColumn(columns);
+					next(LIST_SEPARATOR_TYPES);
 				} while (!typeIs(RPAREN));
 			} else {
-				parseIndexColumn(table, columns);
+				parseIndexColumn(columns);
 			}
-			var index = table.addIndex(columns);
+			handler.index(columns);
 			if (lookaheadTypeIs(LBRACK)) {
 				next(LBRACK);
 				if (lookaheadTypeIs(PK)) {
 					next(PK);
-					addSetting(index, IndexSetting.PK);
+					handler.indexSetting(IndexSetting.PK, null);
 					next(RBRACK);
 				} else {
 					do {
-						next(UNIQUE, NAME, TYPE, NOTE);
-						parseIndexSetting(index);
-						next(COMMA, RBRACK);
+						next(INDEX_SETTING_TYPES);
+						parseIndexSetting();
+						next(SETTING_SEPARATOR_TYPES);
 					} while (!typeIs(RBRACK));
 				}
 			}
-			next(LINEBREAK, RBRACE);
+			next(INDEX_END_TYPES);
 		}
 	}
 	
-	private void parseIndexColumn(Table table, List<String> columns) {
+	private void parseIndexColumn(List<String> columns) {
 		var columnName = tokenValue();
-		if (typeIs(LITERAL) && !table.containsColumn(columnName)) {
+		if (typeIs(LITERAL) && !columnNames.contains(columnName)) {
 			error("Column '%s' is not defined", columnName);
 		}
 		columns.add(columnName);
 	}
 	
-	private void parseIndexSetting(Index index) {
+	private void parseIndexSetting() {
 		switch (tokenType()) {
-			case UNIQUE -> addSetting(index, IndexSetting.UNIQUE);
-			case NAME -> addSetting(index, IndexSetting.NAME, stringTypes());
-			case TYPE -> addSetting(index, IndexSetting.TYPE, BTREE, HASH);
-			case NOTE -> index.setNote(parseInlineNote());
+			case UNIQUE -> handler.indexSetting(IndexSetting.UNIQUE, null);
+			case NAME -> handler.indexSetting(IndexSetting.NAME, settingValue(STRING_TYPES));
+			case TYPE -> handler.indexSetting(IndexSetting.TYPE, settingValue(INDEX_TYPE_TYPES));
+			case NOTE -> handler.indexNote(parseInlineNote());
 			default -> throw new IllegalStateException("Unexpected value: " + tokenType());
 		}
 	}
@@ -319,21 +513,21 @@ public class ParserImpl implements Parser {
 		try (var ignored = new LinebreakMode()) {
 			boolean linebreak = false;
 			String name = null;
-			next(LITERAL, DSTRING, LBRACE, COLON, LINEBREAK); // name
+			next(REF_HEAD_TYPES); // name
 			if (typeIs(LINEBREAK)) {
 				linebreak = true;
-				next(LITERAL, DSTRING, LBRACE, COLON); // name
+				next(REF_NAME_TYPES); // name
 			}
-			if (typeIs(LITERAL, DSTRING)) {
+			if (typeIs(NAME_TYPES)) {
 				name = tokenValue();
-				next(LBRACE, COLON, LINEBREAK);
+				next(REF_BODY_TYPES);
 				if (typeIs(LINEBREAK)) {
 					linebreak = true;
 					next(LBRACE);
 				}
 			}
 			if (linebreak && typeIs(COLON)) {
-				expected(LBRACE);
+				expected(TokenTypeSet.of(LBRACE));
 			}
 			var braced = typeIs(LBRACE);
 			if (braced && lookaheadTypeIs(LINEBREAK)) {
@@ -353,12 +547,12 @@ public class ParserImpl implements Parser {
 			} else if (!lookaheadTypeIs(EOF)) {
 				next(LINEBREAK);
 			}
-			var ref = new RelationshipDefinition(position,
+			var ref = new Ref(position,
 					name, relation,
 					columnFrom,
 					columnTo,
 					settings);
-			relationshipDefinitions.add(ref);
+			handler.ref(ref);
 		}
 	}
 	
@@ -367,7 +561,7 @@ public class ParserImpl implements Parser {
 		if (lookaheadTypeIs(LBRACK)) {
 			next(LBRACK);
 			do {
-				next(DELETE, UPDATE, COLOR);
+				next(REF_SETTING_TYPES);
 				var setting = RelationshipSetting.valueOf(tokenType().name());
 				String value;
 				if (typeIs(COLOR)) {
@@ -376,10 +570,10 @@ public class ParserImpl implements Parser {
 					value = tokenValue();
 				} else {
 					next(COLON);
-					next(CASCADE, RESTRICT, SET, NO);
+					next(REF_ACTION_TYPES);
 					value = tokenValue();
 					if (typeIs(SET)) {
-						next(NULL, DEFAULT);
+						next(SET_ACTION_TYPES);
 						value = multiKeywordValue(value, tokenValue());
 					} else if (typeIs(NO)) {
 						next(ACTION);
@@ -387,194 +581,103 @@ public class ParserImpl implements Parser {
 					}
 				}
 				map.put(setting, value);
-				next(COMMA, RBRACK);
+				next(SETTING_SEPARATOR_TYPES);
 			} while (!typeIs(RBRACK));
 		}
 		return map;
 	}
 	
 	private Relation parseRelation() {
-		next(LT, GT, MINUS, NE);
+		next(RELATION_TYPES);
 		return Relation.of(tokenValue());
 	}
 	
 	private void parseEnum() {
 		var tableName = parseTableName();
-		var schema = database.getOrCreateSchema(tableName.schema());
-		var anEnum = schema.createEnum(tableName.table());
-		if (anEnum == null) {
-			error("Enum '%s' is already defined", tableName);
-		} else {
-			next(LBRACE);
-			do {
-				next(LITERAL, DSTRING); // name
-				var name = tokenValue();
-				var enumValue = anEnum.addValue(name);
-				if (enumValue == null) {
-					error("Enum value '%s' is already defined", Name.of(anEnum, name));
-				} else {
-					try (var ignored = new LinebreakMode()) {
-						next(LBRACK, LINEBREAK);
-						if (typeIs(LBRACK)) {
-							do {
-								next(NOTE);
-								parseEnumSetting(enumValue);
-								next(COMMA, RBRACK);
-							} while (!typeIs(RBRACK));
-							next(LINEBREAK);
-						}
-					}
+		handler.startEnum(tableName.schema(), tableName.table());
+		next(LBRACE);
+		do {
+			next(NAME_TYPES); // name
+			handler.enumValue(tokenValue());
+			try (var ignored = new LinebreakMode()) {
+				next(SETTINGS_OR_LINEBREAK_TYPES);
+				if (typeIs(LBRACK)) {
+					do {
+						next(NOTE);
+						handler.enumValueNote(parseInlineNote());
+						next(SETTING_SEPARATOR_TYPES);
+					} while (!typeIs(RBRACK));
+					next(LINEBREAK);
 				}
-			} while (!lookaheadTypeIs(RBRACE));
-			next(RBRACE);
-		}
-	}
-	
-	private void parseEnumSetting(EnumValue value) {
-		if (typeIs(NOTE)) {
-			value.setNote(parseInlineNote());
-		} else {
-			throw new IllegalStateException("Unexpected value: " + tokenType());
-		}
+			}
+		} while (!lookaheadTypeIs(RBRACE));
+		next(RBRACE);
+		handler.endEnum();
 	}
 	
 	private void parseTableGroup() {
-		next(LITERAL, DSTRING); // name
-		var tableGroupName = tokenValue();
-		var tableGroup = database.createTableGroup(tableGroupName);
-		if (tableGroup == null) {
-			error("TableGroup '%s' is already defined", tableGroupName);
-		} else {
-			next(LBRACK, LBRACE);
-			if (typeIs(LBRACK)) {
-				do {
-					next(COLOR, NOTE);
-					parseTableGroupSetting(tableGroup);
-					next(COMMA, RBRACK);
-				} while (!typeIs(RBRACK));
-				next(LBRACE);
+		next(NAME_TYPES); // name
+		handler.startTableGroup(tokenValue());
+		next(SETTINGS_OR_BODY_TYPES);
+		if (typeIs(LBRACK)) {
+			do {
+				next(TABLE_GROUP_SETTING_TYPES);
+				parseTableGroupSetting();
+				next(SETTING_SEPARATOR_TYPES);
+			} while (!typeIs(RBRACK));
+			next(LBRACE);
+		}
+		while (true) {
+			if (lookaheadTypeIs(NOTE)) {
+				next(NOTE);
+				handler.tableGroupNote(parseNote());
+			} else {
+				var tableName = parseTableName();
+				handler.tableGroupTable(tableName.schema(), tableName.table());
 			}
-			while (true) {
-				if (lookaheadTypeIs(NOTE)) {
-					next(NOTE);
-					tableGroup.setNote(parseNote());
-				} else {
-					var tableName = parseTableName();
-					var table = findTable(tableName);
-					if (!tableGroup.addTable(table)) {
-						error("Table '%s' is already defined", table);
-					}
-				}
-				if (lookaheadTypeIs(RBRACE)) {
-					next(RBRACE);
-					break;
-				}
+			if (lookaheadTypeIs(RBRACE)) {
+				next(RBRACE);
+				break;
 			}
 		}
+		handler.endTableGroup();
 	}
 	
-	private void parseTableGroupSetting(TableGroup tableGroup) {
+	private void parseTableGroupSetting() {
 		if (typeIs(COLOR)) {
-			addSetting(tableGroup, TableGroupSetting.COLOR, COLOR_CODE);
+			handler.tableGroupSetting(TableGroupSetting.COLOR, settingValue(TokenTypeSet.of(COLOR_CODE)));
 		} else if (typeIs(NOTE)) {
-			tableGroup.setNote(parseInlineNote());
+			handler.tableGroupNote(parseInlineNote());
 		}
 	}
 	
 	private void parseTablePartial() {
-		next(LITERAL, DSTRING); // name
-		var tableName = tokenValue();
-		var partial = database.createTablePartial(tableName);
-		if (partial == null) {
-			error("TablePartial '%s' is already defined", tableName);
-		} else {
-			parseTableHead(partial);
-			parseTableBody(partial);
-		}
+		next(NAME_TYPES); // name
+		var name = tokenValue();
+		startTable(Chars.EMPTY, name);
+		handler.startTablePartial(name);
+		parseTableHead();
+		parseTableBody();
+		handler.endTablePartial();
 	}
 	
 	private void parseNamedNote() {
-		next(LITERAL, DSTRING);
-		var noteName = tokenValue();
-		var namedNote = database.addNamedNote(noteName);
-		if (namedNote == null) {
-			error("NamedNote '%s' is already defined", noteName);
-		} else {
-			next(LBRACE);
-			next(stringTypes());
-			var value = tokenValue();
-			namedNote.setValue(value);
-			next(RBRACE);
-		}
-	}
-	
-	private void injectTablePartials() {
-		for (var entry : tablePartialRefs.entrySet()) {
-			var table = entry.getKey();
-			for (var ref : entry.getValue()) {
-				var partial = database.getTablePartial(ref);
-				if (partial == null) {
-					error("Can not find TablePartial '%s'", ref);
-				} else {
-					if (!partial.equals(table) && checkLoop(table, partial)) {
-						table.addTablePartial(partial);
-					}
-				}
-			}
-		}
-	}
-	
-	private boolean checkLoop(Table table, TablePartial partial) {
-		return !(table instanceof TablePartial tp && partial.getTablePartials().contains(tp));
-	}
-	
-	private void createRelationships() {
-		for (var definition : relationshipDefinitions) {
-			var from = definition.from();
-			var to = definition.to();
-			var relationship = database.createRelationship(definition.name(), definition.relation(),
-					validateColumnNames(definition, from), validateColumnNames(definition, to), definition.settings());
-			if (relationship == null) {
-				error(definition, "Reference with the same endpoints already exists");
-			}
-		}
-	}
-	
-	private List<Column> validateColumnNames(RelationshipDefinition definition, ColumnNames names) {
-		var schema = database.getSchema(names.schema());
-		if (!schema.containsTable(names.table())) {
-			error(definition, "Table '%s' is not defined", Name.of(schema, names.table()));
-		}
-		var table = schema.getTable(names.table());
-		for (var column : names.columns()) {
-			if (!table.containsColumn(column)) {
-				error(definition, "Column '%s' is not defined", Name.of(table, column));
-			}
-		}
-		return names.columns().stream().map(table::getColumn).toList();
-	}
-	
-	private Table findTable(TableName tableName) {
-		var table = database.getAlias(tableName.table());
-		if (table == null) {
-			var tableSchema = database.getSchema(tableName.schema());
-			if (tableSchema != null) {
-				table = tableSchema.getTable(tableName.table());
-			}
-		}
-		if (table == null) {
-			error("Table '%s' is not defined", tableName);
-		}
-		return table;
+		next(NAME_TYPES);
+		handler.startNamedNote(tokenValue());
+		next(LBRACE);
+		next(STRING_TYPES);
+		var value = tokenValue();
+		handler.endNamedNote(value);
+		next(RBRACE);
 	}
 	
 	private TableName parseTableName() {
 		String schemaName = Schema.DEFAULT_NAME, tableName;
-		next(LITERAL, DSTRING); // schemaName, tableName
+		next(NAME_TYPES); // schemaName, tableName
 		tableName = tokenValue();
 		if (lookaheadTypeIs(DOT)) {
 			next(DOT);
-			next(LITERAL, DSTRING); // tableName
+			next(NAME_TYPES); // tableName
 			schemaName = tableName;
 			tableName = tokenValue();
 		}
@@ -583,14 +686,14 @@ public class ParserImpl implements Parser {
 	
 	private ColumnName parseColumnName() {
 		String schemaName = Schema.DEFAULT_NAME, tableName, columnName;
-		next(LITERAL, DSTRING); // schemaName, tableName
+		next(NAME_TYPES); // schemaName, tableName
 		tableName = tokenValue();
 		next(DOT);
-		next(LITERAL, DSTRING); // tableName, columnName
+		next(NAME_TYPES); // tableName, columnName
 		columnName = tokenValue();
 		if (lookaheadTypeIs(DOT)) {
 			next(DOT);
-			next(LITERAL, DSTRING); // columnName
+			next(NAME_TYPES); // columnName
 			schemaName = tableName;
 			tableName = columnName;
 			columnName = tokenValue();
@@ -598,21 +701,21 @@ public class ParserImpl implements Parser {
 		return new ColumnName(schemaName, tableName, columnName);
 	}
 	
-	private ColumnNames parseRefColumnNames(TokenType... after) {
+	private Endpoint parseRefColumnNames() {
 		String schemaName = Schema.DEFAULT_NAME, tableName, columnName;
 		var columnNames = new ArrayList<String>();
-		next(LITERAL, DSTRING); // schemaName, tableName
+		next(NAME_TYPES); // schemaName, tableName
 		tableName = tokenValue();
 		next(DOT);
-		next(LITERAL, DSTRING, LPAREN); // tableName, columnName
-		if (typeIs(LITERAL, DSTRING)) {
+		next(REF_COLUMN_TYPES); // tableName, columnName
+		if (typeIs(NAME_TYPES)) {
 			columnName = tokenValue();
 			if (lookaheadTypeIs(DOT)) {
 				next(DOT);
 				schemaName = tableName;
 				tableName = columnName;
-				next(LITERAL, DSTRING, LPAREN); // columnName
-				if (typeIs(LITERAL, DSTRING)) {
+				next(REF_COLUMN_TYPES); // columnName
+				if (typeIs(NAME_TYPES)) {
 					columnNames.add(tokenValue());
 				} else if (typeIs(LPAREN)) {
 					parseRefColumnNames(columnNames);
@@ -623,64 +726,49 @@ public class ParserImpl implements Parser {
 		} else if (typeIs(LPAREN)) {
 			parseRefColumnNames(columnNames);
 		}
-		next(after);
-		return new ColumnNames(schemaName, tableName, columnNames);
+		return new Endpoint(schemaName, tableName, columnNames);
 	}
 	
 	private void parseRefColumnNames(List<String> columnNames) {
 		do {
-			next(LITERAL, DSTRING); // columnName
+			next(NAME_TYPES); // columnName
 			columnNames.add(tokenValue());
-			next(COMMA, RPAREN);
+			next(LIST_SEPARATOR_TYPES);
 		} while (!typeIs(RPAREN));
 	}
 	
-	private Note parseNote() {
-		next(COLON, LBRACE);
+	private String parseNote() {
+		next(NOTE_TYPES);
 		var braced = typeIs(LBRACE);
-		next(stringTypes());
+		next(STRING_TYPES);
 		var note = tokenValue();
 		if (braced) {
 			next(RBRACE);
 		}
-		return new Note(note);
+		return note;
 	}
 	
-	private Note parseInlineNote() {
+	private String parseInlineNote() {
 		next(COLON);
-		next(stringTypes());
-		return new Note(tokenValue());
+		next(STRING_TYPES);
+		return tokenValue();
 	}
 	
-	private <T extends Setting> void addSetting(SettingHolder<T> holder, T setting, TokenType... types) {
-		String value = null;
-		if (types != null && types.length > 0) {
-			next(COLON);
-			next(types);
-			value = tokenValue();
-		}
-		holder.addSetting(setting, value);
-	}
-	
-	private TokenType[] stringTypes() {
-		return new TokenType[]{SSTRING, DSTRING, TSTRING};
-	}
-	
-	private TokenType[] stringTypesOr(TokenType... types) {
-		return types != null && types.length > 0 ? concat(stringTypes(), types) : stringTypes();
+	private String settingValue(TokenTypeSet types) {
+		next(COLON);
+		next(types);
+		return tokenValue();
 	}
 	
 	private String multiKeywordValue(String... keywords) {
 		return String.join(MULTI_SEPARATOR, keywords);
 	}
 	
-	private static <T> T[] concat(T[] first, T[] second) {
-		var result = Arrays.copyOf(first, first.length + second.length);
-		System.arraycopy(second, 0, result, first.length, second.length);
-		return result;
+	private void next(TokenType type) {
+		tokenAccess.next(TokenTypeSet.of(type));
 	}
 	
-	private void next(TokenType... types) {
+	private void next(TokenTypeSet types) {
 		tokenAccess.next(types);
 	}
 	
@@ -689,7 +777,8 @@ public class ParserImpl implements Parser {
 	}
 	
 	private String tokenValue() {
-		return tokenAccess.value();
+		var value = tokenAccess.value();
+		return interner == null ? value : interner.intern(value);
 	}
 	
 	private boolean lookaheadTypeIs(TokenType type) {
@@ -700,22 +789,14 @@ public class ParserImpl implements Parser {
 		return tokenAccess.typeIs(type);
 	}
 	
-	private boolean typeIs(TokenType... types) {
+	private boolean typeIs(TokenTypeSet types) {
 		return tokenAccess.typeIs(types);
 	}
 	
-	private void expected(TokenType... types) {
+	private void expected(TokenTypeSet types) {
 		tokenAccess.expected(types);
 	}
 	
-	private void error(RelationshipDefinition definition, String msg, Object... args) {
-		error(definition, String.format(msg, args));
-	}
-	
-	private void error(RelationshipDefinition definition, String msg) {
-		throw new ParsingException(definition.position(), msg);
-	}
-	
 	private void error(String msg, Object... args) {
 		tokenAccess.error(msg, args);
 	}
@@ -768,21 +849,4 @@ public class ParserImpl implements Parser {
 			return Name.ofColumn(schema, table, column);
 		}
 	}
-	
-	private record ColumnNames(
-			String schema, String table, List<String> columns
-	) {
-		@Override
-		public String toString() {
-			return Name.ofColumns(schema, table, columns);
-		}
-	}
-	
-	private record RelationshipDefinition(
-			Position position,
-			String name, Relation relation,
-			ColumnNames from, ColumnNames to,
-			Map<RelationshipSetting, String> settings
-	) {
-	}
 }
@@ -2,6 +2,7 @@ package com.wn.dbml.compiler.parser;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.List;
 
 class RingBuffer<E> {
 	private final Deque<E> queue;
@@ -24,6 +25,10 @@ class RingBuffer<E> {
 		return queue.poll();
 	}
 	
+	public List<E> toList() {
+		return List.copyOf(queue);
+	}
+	
 	@Override
 	public String toString() {
 		return queue.toString();
@@ -4,32 +4,39 @@ import com.wn.dbml.compiler.Lexer;
 import com.wn.dbml.compiler.ParsingException;
 import com.wn.dbml.compiler.Position;
 import com.wn.dbml.compiler.Token;
+import com.wn.dbml.compiler.UnexpectedTokenException;
 import com.wn.dbml.compiler.token.Literals;
 import com.wn.dbml.compiler.token.TokenImpl;
 import com.wn.dbml.compiler.token.TokenType;
+import com.wn.dbml.compiler.token.TokenTypeSet;
 
 import java.util.ArrayDeque;
-import java.util.Arrays;
+import java.util.Deque;
 import java.util.Objects;
-import java.util.Queue;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 import static com.wn.dbml.compiler.token.TokenType.*;
 
 class TokenAccess {
 	private final RingBuffer<Token> lastTokens = new RingBuffer<>(5);
-	private final Queue<Lookahead> lookahead = new ArrayDeque<>(2);
+	private final Deque<Lookahead> lookahead = new ArrayDeque<>(2);
 	private final Lexer lexer;
+	private final boolean writableStackTrace;
 	private Token token;
+	private Placement placement, lexedPlacement, linePlacement = Placement.LINE_START;
+	private int depth;
 	private boolean ignoreLinebreaks = true, ignoreSpaces = true;
 	
 	TokenAccess(Lexer lexer) {
+		this(lexer, true);
+	}
+	
+	TokenAccess(Lexer lexer, boolean writableStackTrace) {
 		this.lexer = Objects.requireNonNull(lexer);
+		this.writableStackTrace = writableStackTrace;
 	}
 	
-	public void next(TokenType... types) {
-		if (types != null && types.length > 0) {
+	public void next(TokenTypeSet types) {
+		if (!types.isEmpty()) {
 			token = nextToken();
 			if (shouldParseAsLiteral(types)) {
 				token = nextLiteral(types);
@@ -40,16 +47,37 @@ class TokenAccess {
 	}
 	
 	private Token nextToken() {
-		if (!lookahead.isEmpty()) {
-			return lookahead.poll().token();
+		Token next;
+		if (lookahead.isEmpty()) {
+			next = nextTokenFromLexer();
+			placement = lexedPlacement;
+		} else {
+			var poll = lookahead.poll();
+			next = poll.token();
+			placement = poll.placement();
+		}
+		if (next != null) {
+			if (next.getType() == LBRACE) {
+				depth++;
+			} else if (next.getType() == RBRACE) {
+				depth--;
+			}
 		}
-		return nextTokenFromLexer();
+		return next;
 	}
 	
 	private Token nextTokenFromLexer() {
 		Token token;
 		do {
 			token = lexer.nextToken();
+			lexedPlacement = linePlacement;
+			if (token != null) {
+				linePlacement = switch (token.getType()) {
+					case LINEBREAK -> Placement.LINE_START;
+					case SPACE, COMMENT -> linePlacement == Placement.INLINE ? Placement.INLINE : Placement.INDENTED;
+					default -> Placement.INLINE;
+				};
+			}
 		} while (skipToken(token));
 		return token;
 	}
@@ -65,21 +93,20 @@ class TokenAccess {
 		);
 	}
 	
-	private boolean shouldParseAsLiteral(TokenType... types) {
+	private boolean shouldParseAsLiteral(TokenTypeSet types) {
 		return !type().isWhitespace()
 				&& type() != NUMBER
-				&& Arrays.stream(types).noneMatch(this::typeIs)
-				&& Arrays.stream(types).anyMatch(TokenType::isLiteral);
+				&& !types.contains(type())
+				&& types.containsLiteral();
 	}
 	
-	private Token nextLiteral(TokenType... types) {
-		var typeSet = Set.of(types);
-		if (typeSet.contains(BOOLEAN)) {
+	private Token nextLiteral(TokenTypeSet types) {
+		if (types.contains(BOOLEAN)) {
 			if (Literals.isBooleanLiteral(value())) {
 				return token.withType(BOOLEAN);
 			}
 		}
-		if (typeSet.contains(NUMBER)) {
+		if (types.contains(NUMBER)) {
 			var peek = doLookahead();
 			if (typeIs(MINUS) && peek.getType() == NUMBER) {
 				var minus = value();
@@ -102,10 +129,39 @@ class TokenAccess {
 		// save the current lexer position because nextToken() advances the lexer
 		var position = lexer.getPosition();
 		var t = nextTokenFromLexer();
-		lookahead.add(new Lookahead(t, position));
+		lookahead.add(new Lookahead(t, position, lexedPlacement));
 		return t;
 	}
 	
+	/**
+	 * Skips tokens until a token of the given types starts a line, so that parsing can continue after an error.
+	 * The token must either be outside of braces or in the first column.
+	 * The token found, or else the end of the input, is returned by the next call to {@link #next(TokenTypeSet)}.
+	 *
+	 * @param types          the types to continue at
+	 * @param includeCurrent whether to continue at the current token, if it matches
+	 */
+	public void skipTo(TokenTypeSet types, boolean includeCurrent) {
+		var position = position();
+		var next = token;
+		if (!includeCurrent || !isSyncPoint(next, types)) {
+			do {
+				position = position();
+				next = nextToken();
+				if (next == null) {
+					next = new TokenImpl(EOF, -1);
+				}
+			} while (!isSyncPoint(next, types) && next.getType() != EOF && next.getType() != ILLEGAL);
+		}
+		lookahead.addFirst(new Lookahead(next, position, placement));
+		depth = 0;
+	}
+	
+	private boolean isSyncPoint(Token token, TokenTypeSet types) {
+		return token != null && types.contains(token.getType())
+				&& (placement == Placement.LINE_START || placement == Placement.INDENTED && depth <= 0);
+	}
+	
 	public TokenType type() {
 		return token.getType();
 	}
@@ -122,20 +178,18 @@ class TokenAccess {
 		return type() == type;
 	}
 	
-	public boolean typeIs(TokenType... types) {
-		return Arrays.stream(types).anyMatch(this::typeIs);
+	public boolean typeIs(TokenTypeSet types) {
+		return types.contains(type());
 	}
 	
-	public void expecting(Token token, TokenType... types) {
-		var any = Arrays.stream(types).filter(t -> t == token.getType()).findAny();
-		if (any.isEmpty() && types.length > 0) {
+	public void expecting(Token token, TokenTypeSet types) {
+		if (!types.contains(token.getType()) && !types.isEmpty()) {
 			expected(types);
 		}
 	}
 	
-	public void expected(TokenType... types) {
-		var expected = Arrays.stream(types).map(Objects::toString).collect(Collectors.joining(", "));
-		error("unexpected token '%s', expected %s. Last tokens: %s", type(), expected, lastTokens);
+	public void expected(TokenTypeSet types) {
+		throw new UnexpectedTokenException(position(), type(), types, lastTokens.toList(), writableStackTrace);
 	}
 	
 	public void error(String msg, Object... args) {
@@ -143,7 +197,11 @@ class TokenAccess {
 	}
 	
 	public void error(String msg) {
-		throw new ParsingException(position(), msg);
+		throw exception(msg);
+	}
+	
+	public ParsingException exception(String msg) {
+		return new ParsingException(position(), msg, writableStackTrace);
 	}
 	
 	public Position position() {
@@ -164,7 +222,19 @@ class TokenAccess {
 	}
 	
 	private record Lookahead(
-			Token token, Position position
+			Token token, Position position, Placement placement
 	) {
 	}
+	
+	/**
+	 * Where a token is located on its line.
+	 */
+	private enum Placement {
+		/** The first token in the first column */
+		LINE_START,
+		/** The first token after whitespace */
+		INDENTED,
+		/** Any token after the first */
+		INLINE
+	}
 }
@@ -0,0 +1,87 @@
+package com.wn.dbml.compiler.token;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A perfect hash table of keywords, matching words case-insensitively without allocating.
+ * <p>
+ * The hash only considers the length and the first two and the last char of a word.
+ * The table's size and multiplier are chosen so that no two keywords collide,
+ * thus a lookup needs at most one comparison.
+ */
+class KeywordTable {
+	private static final int MAX_BITS = 12;
+	private final TokenType[] table;
+	private final char[][] names;
+	private final int multiplier, shift, minLength, maxLength;
+	
+	KeywordTable(List<TokenType> keywords) {
+		minLength = keywords.stream().mapToInt(k -> k.name().length()).min().orElse(0);
+		if (minLength < 2) throw new IllegalArgumentException("Keywords must have at least two chars");
+		maxLength = keywords.stream().mapToInt(k -> k.name().length()).max().orElse(0);
+		TokenType[] table = null;
+		int bits = 0, multiplier = 0;
+		search:
+		for (bits = 1; bits <= MAX_BITS; bits++) {
+			multiplier = 0x9E3779B1;
+			for (int i = 0; i < 1000; i++, multiplier += 0x3C6EF372) {
+				table = tryCreate(keywords, bits, multiplier);
+				if (table != null) break search;
+			}
+		}
+		if (table == null) {
+			throw new IllegalStateException("Cannot create a perfect hash for " + keywords);
+		}
+		this.table = table;
+		this.names = Arrays.stream(table).map(k -> k == null ? null : k.name().toCharArray()).toArray(char[][]::new);
+		this.multiplier = multiplier;
+		this.shift = Integer.SIZE - bits;
+	}
+	
+	private static TokenType[] tryCreate(List<TokenType> keywords, int bits, int multiplier) {
+		var table = new TokenType[1 << bits];
+		for (var keyword : keywords) {
+			var name = keyword.name();
+			var index = index(name.length(), name.charAt(0), name.charAt(1), name.charAt(name.length() - 1), multiplier, Integer.SIZE - bits);
+			if (table[index] != null) {
+				return null;
+			}
+			table[index] = keyword;
+		}
+		return table;
+	}
+	
+	private static int index(int length, char first, char second, char last, int multiplier, int shift) {
+		var hash = ((length * 31 + upperCase(first)) * 31 + upperCase(second)) * 31 + upperCase(last);
+		return (hash * multiplier) >>> shift;
+	}
+	
+	private static char upperCase(char c) {
+		return 'a' <= c && c <= 'z' ? (char) (c - ('a' - 'A')) : Character.toUpperCase(c);
+	}
+	
+	/**
+	 * Returns the keyword matching the word, ignoring case.
+	 *
+	 * @param word the chars of a word
+	 * @return the keyword or else null
+	 */
+	TokenType get(CharSequence word) {
+		var length = word.length();
+		if (length < minLength || length > maxLength) {
+			return null;
+		}
+		var index = index(length, word.charAt(0), word.charAt(1), word.charAt(length - 1), multiplier, shift);
+		var name = names[index];
+		if (name == null || name.length != length) {
+			return null;
+		}
+		for (int i = 0; i < length; i++) {
+			if (upperCase(word.charAt(i)) != name[i]) {
+				return null;
+			}
+		}
+		return table[index];
+	}
+}
@@ -0,0 +1,78 @@
+package com.wn.dbml.compiler.token;
+
+import com.wn.dbml.compiler.Token;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A token referencing its chars in the source text.
+ * The value is only created once it is requested.
+ */
+public class SliceToken implements Token {
+	private final TokenType type;
+	private final CharSequence source;
+	private final int offset, length;
+	private final Function<CharSequence, String> decoder;
+	private String value;
+	
+	public SliceToken(TokenType type, CharSequence source, int offset, int length) {
+		this(type, source, offset, length, null);
+	}
+	
+	/**
+	 * @param type    the token type
+	 * @param source  the source text
+	 * @param offset  the index of the first char in the source
+	 * @param length  the number of chars
+	 * @param decoder computes the value from the chars, or null to use the chars as they are
+	 */
+	public SliceToken(TokenType type, CharSequence source, int offset, int length, Function<CharSequence, String> decoder) {
+		Objects.checkFromIndexSize(offset, length, source.length());
+		this.type = type;
+		this.source = source;
+		this.offset = offset;
+		this.length = length;
+		this.decoder = decoder;
+	}
+	
+	@Override
+	public Token withType(TokenType tokenType) {
+		var token = new SliceToken(tokenType, source, offset, length, decoder);
+		token.value = value;
+		return token;
+	}
+	
+	@Override
+	public String toString() {
+		return type + "('" + getValue() + "')";
+	}
+	
+	@Override
+	public TokenType getType() {
+		return type;
+	}
+	
+	@Override
+	public String getValue() {
+		if (value == null) {
+			var chars = source.subSequence(offset, offset + length);
+			value = decoder == null ? chars.toString() : decoder.apply(chars);
+		}
+		return value;
+	}
+	
+	/**
+	 * The index of the first char in the source.
+	 */
+	public int getOffset() {
+		return offset;
+	}
+	
+	/**
+	 * The number of chars in the source.
+	 */
+	public int getLength() {
+		return length;
+	}
+}
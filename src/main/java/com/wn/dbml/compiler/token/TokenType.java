@@ -3,9 +3,6 @@ package com.wn.dbml.compiler.token;
 import com.wn.dbml.compiler.Token;
 
 import java.util.Arrays;
-import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
  * The type of {@link Token}.
@@ -80,14 +77,7 @@ public enum TokenType {
 	 * The normalized separator for multi-word keywords.
 	 */
 	public static final String MULTI_SEPARATOR = " ";
-	private static final Map<String, TokenType> KEYWORDS;
-	
-	static {
-		var values = TokenType.values();
-		KEYWORDS = Arrays.stream(values)
-				.filter(TokenType::isKeyword)
-				.collect(Collectors.toMap(TokenType::name, Function.identity()));
-	}
+	private static final KeywordTable KEYWORDS = new KeywordTable(Arrays.stream(values()).filter(TokenType::isKeyword).toList());
 	
 	/**
 	 * Returns a TokenType matching the word.
@@ -96,11 +86,18 @@ public enum TokenType {
 	 * @return a keyword or else {@link TokenType#LITERAL}
 	 */
 	public static TokenType of(String word) {
-		return KEYWORDS.getOrDefault(normalize(word), TokenType.LITERAL);
+		return of((CharSequence) word);
 	}
 	
-	static String normalize(String word) {
-		return word.toUpperCase();
+	/**
+	 * Returns a TokenType matching the chars, ignoring case.
+	 *
+	 * @param word the chars of a word
+	 * @return a keyword or else {@link TokenType#LITERAL}
+	 */
+	public static TokenType of(CharSequence word) {
+		var keyword = KEYWORDS.get(word);
+		return keyword == null ? TokenType.LITERAL : keyword;
 	}
 	
 	/**
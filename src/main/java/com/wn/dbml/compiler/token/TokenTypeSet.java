@@ -0,0 +1,123 @@
+package com.wn.dbml.compiler.token;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * An immutable set of {@link TokenType}s, backed by a bitmask.
+ * <p>
+ * Checking whether a set contains a type is a single bitwise AND. The set remembers the order its types were
+ * given in, so that it can be listed the same way in messages.
+ */
+public final class TokenTypeSet {
+	private static final TokenType[] VALUES = TokenType.values();
+	private static final TokenTypeSet[] SINGLETONS = new TokenTypeSet[VALUES.length];
+	private static final long LITERALS;
+	private final long bits;
+	private final TokenType[] types;
+	
+	static {
+		if (VALUES.length > Long.SIZE) throw new IllegalStateException("Too many token types for a bitmask");
+		long literals = 0;
+		for (var type : VALUES) {
+			SINGLETONS[type.ordinal()] = new TokenTypeSet(bit(type), new TokenType[]{type});
+			if (type.isLiteral()) {
+				literals |= bit(type);
+			}
+		}
+		LITERALS = literals;
+	}
+	
+	private TokenTypeSet(long bits, TokenType[] types) {
+		this.bits = bits;
+		this.types = types;
+	}
+	
+	private static long bit(TokenType type) {
+		return 1L << type.ordinal();
+	}
+	
+	/**
+	 * Returns a set containing only the given type.
+	 *
+	 * @param type a type
+	 */
+	public static TokenTypeSet of(TokenType type) {
+		return SINGLETONS[type.ordinal()];
+	}
+	
+	/**
+	 * Returns a set containing the given types.
+	 *
+	 * @param types the types, in the order they should be listed
+	 */
+	public static TokenTypeSet of(TokenType... types) {
+		var distinct = new LinkedHashSet<>(Arrays.asList(types));
+		long bits = 0;
+		for (var type : distinct) {
+			bits |= bit(type);
+		}
+		return new TokenTypeSet(bits, distinct.toArray(TokenType[]::new));
+	}
+	
+	/**
+	 * Returns a set containing the types of this set followed by the given types.
+	 *
+	 * @param types additional types
+	 */
+	public TokenTypeSet with(TokenType... types) {
+		var all = Arrays.copyOf(this.types, this.types.length + types.length);
+		System.arraycopy(types, 0, all, this.types.length, types.length);
+		return of(all);
+	}
+	
+	/**
+	 * Returns true, if this set contains the given type.
+	 */
+	public boolean contains(TokenType type) {
+		return (bits & bit(type)) != 0;
+	}
+	
+	/**
+	 * Returns true, if this set contains a literal type.
+	 *
+	 * @see TokenType#isLiteral()
+	 */
+	public boolean containsLiteral() {
+		return (bits & LITERALS) != 0;
+	}
+	
+	public boolean isEmpty() {
+		return bits == 0;
+	}
+	
+	/**
+	 * The types of this set, in the order they were given in.
+	 */
+	public List<TokenType> toList() {
+		return List.of(types);
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		final TokenTypeSet that = (TokenTypeSet) o;
+		return bits == that.bits;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Long.hashCode(bits);
+	}
+	
+	/**
+	 * Lists the types in the order they were given in.
+	 */
+	@Override
+	public String toString() {
+		return Arrays.stream(types).map(TokenType::toString).collect(Collectors.joining(", "));
+	}
+}
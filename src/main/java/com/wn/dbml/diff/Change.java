@@ -0,0 +1,11 @@
+package com.wn.dbml.diff;
+
+/**
+ * A changed element.
+ *
+ * @param type the type of the change
+ * @param from the element of the old database, null if it was added
+ * @param to   the element of the new database, null if it was removed
+ */
+public record Change<T>(ChangeType type, T from, T to) {
+}
@@ -0,0 +1,5 @@
+package com.wn.dbml.diff;
+
+public enum ChangeType {
+	ADDED, REMOVED, MODIFIED
+}
@@ -0,0 +1,20 @@
+package com.wn.dbml.diff;
+
+import com.wn.dbml.model.Column;
+import com.wn.dbml.model.ColumnSetting;
+
+import java.util.Set;
+
+/**
+ * A changed column of a modified table.
+ *
+ * @param type        the type of the change
+ * @param from        the column of the old database, null if it was added
+ * @param to          the column of the new database, null if it was removed
+ * @param typeChanged true, if the datatype of a modified column changed
+ * @param settings    the settings of a modified column, which were added, removed or changed their value
+ * @param noteChanged true, if the note of a modified column changed
+ */
+public record ColumnChange(ChangeType type, Column from, Column to, boolean typeChanged, Set<ColumnSetting> settings,
+                           boolean noteChanged) {
+}
@@ -0,0 +1,187 @@
+package com.wn.dbml.diff;
+
+import com.wn.dbml.model.Column;
+import com.wn.dbml.model.ColumnSetting;
+import com.wn.dbml.model.Database;
+import com.wn.dbml.model.Enum;
+import com.wn.dbml.model.Index;
+import com.wn.dbml.model.Note;
+import com.wn.dbml.model.Relationship;
+import com.wn.dbml.model.Schema;
+import com.wn.dbml.model.Table;
+import com.wn.dbml.model.TableGroup;
+import com.wn.dbml.model.TableSetting;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * The changes between two databases.
+ * <p>
+ * Tables, table partials, enums and table groups are matched by their qualified names, columns by their names,
+ * indexes by their columns and relationships by their columns. Elements with equal content hashes are unchanged,
+ * so the comparison only descends into schemas and tables, which changed.
+ * The changes are ordered like the elements of the old database, followed by the added elements.
+ *
+ * @param tablePartials the changed table partials
+ * @param tables        the changed tables of all schemas
+ * @param enums         the changed enums of all schemas
+ * @param relationships the changed relationships, whose name, relation or settings changed if modified
+ * @param tableGroups   the changed table groups
+ * @see Database#getContentHash()
+ */
+public record DatabaseDiff(List<TableChange> tablePartials, List<TableChange> tables, List<Change<Enum>> enums,
+                           List<Change<Relationship>> relationships, List<Change<TableGroup>> tableGroups) {
+	
+	/**
+	 * Compares two databases in a time linear to their sizes.
+	 *
+	 * @param from the old database
+	 * @param to   the new database
+	 */
+	public static DatabaseDiff compare(Database from, Database to) {
+		var tablePartials = new ArrayList<TableChange>();
+		diff(from.getTablePartials(), to.getTablePartials(), t -> to.getTablePartial(t.getName()), t -> from.getTablePartial(t.getName()),
+				Table::getContentHash, DatabaseDiff::tableChange, tablePartials);
+		var tables = new ArrayList<TableChange>();
+		var enums = new ArrayList<Change<Enum>>();
+		for (var schema : from.getSchemas()) {
+			var other = to.getSchema(schema.getName());
+			if (other == null || other.getContentHash() != schema.getContentHash()) {
+				diff(schema, other, tables, enums);
+			}
+		}
+		for (var schema : to.getSchemas()) {
+			if (from.getSchema(schema.getName()) == null) {
+				diff(null, schema, tables, enums);
+			}
+		}
+		var relationships = new ArrayList<Change<Relationship>>();
+		var fromRelationships = byEndpoints(from.getRelationships());
+		var toRelationships = byEndpoints(to.getRelationships());
+		diff(from.getRelationships(), to.getRelationships(), toRelationships::get, fromRelationships::get,
+				Relationship::getContentHash, Change::new, relationships);
+		var tableGroups = new ArrayList<Change<TableGroup>>();
+		diff(from.getTableGroups(), to.getTableGroups(), g -> to.getTableGroup(g.getName()), g -> from.getTableGroup(g.getName()),
+				TableGroup::getContentHash, Change::new, tableGroups);
+		return new DatabaseDiff(Collections.unmodifiableList(tablePartials), Collections.unmodifiableList(tables), Collections.unmodifiableList(enums),
+				Collections.unmodifiableList(relationships), Collections.unmodifiableList(tableGroups));
+	}
+	
+	/**
+	 * @return true, if the databases have no changes
+	 */
+	public boolean isEmpty() {
+		return tablePartials.isEmpty() && tables.isEmpty() && enums.isEmpty() && relationships.isEmpty() && tableGroups.isEmpty();
+	}
+	
+	private static void diff(Schema from, Schema to, List<TableChange> tables, List<Change<Enum>> enums) {
+		diff(from == null ? Set.of() : from.getTables(), to == null ? Set.of() : to.getTables(),
+				t -> to == null ? null : to.getTable(t.getName()), t -> from == null ? null : from.getTable(t.getName()),
+				Table::getContentHash, DatabaseDiff::tableChange, tables);
+		diff(from == null ? Set.of() : from.getEnums(), to == null ? Set.of() : to.getEnums(),
+				e -> to == null ? null : to.getEnum(e.getName()), e -> from == null ? null : from.getEnum(e.getName()),
+				Enum::getContentHash, Change::new, enums);
+	}
+	
+	/**
+	 * Adds the removed and modified elements in the order of the old elements, then the added elements in the order of the new elements.
+	 *
+	 * @param findTo   finds the matching new element of an old element
+	 * @param findFrom finds the matching old element of a new element
+	 */
+	private static <T, C> void diff(Collection<? extends T> from, Collection<? extends T> to, UnaryOperator<T> findTo, UnaryOperator<T> findFrom,
+	                                ToLongFunction<T> hash, ChangeFactory<T, C> factory, List<C> changes) {
+		for (T element : from) {
+			var other = findTo.apply(element);
+			if (other == null) {
+				changes.add(factory.create(ChangeType.REMOVED, element, null));
+			} else if (hash.applyAsLong(element) != hash.applyAsLong(other)) {
+				changes.add(factory.create(ChangeType.MODIFIED, element, other));
+			}
+		}
+		for (T element : to) {
+			if (findFrom.apply(element) == null) {
+				changes.add(factory.create(ChangeType.ADDED, null, element));
+			}
+		}
+	}
+	
+	private static TableChange tableChange(ChangeType type, Table from, Table to) {
+		if (type != ChangeType.MODIFIED) {
+			return new TableChange(type, from, to, false, Set.of(), false, List.of(), List.of());
+		}
+		var columns = new ArrayList<ColumnChange>();
+		diff(from.getColumns(), to.getColumns(), c -> to.getColumn(c.getName()), c -> from.getColumn(c.getName()),
+				Column::getContentHash, DatabaseDiff::columnChange, columns);
+		var indexes = new ArrayList<Change<Index>>();
+		var fromIndexes = byColumns(from.getIndexes());
+		var toIndexes = byColumns(to.getIndexes());
+		diff(from.getIndexes(), to.getIndexes(), i -> toIndexes.get(i.getColumns()), i -> fromIndexes.get(i.getColumns()),
+				Index::getContentHash, Change::new, indexes);
+		var aliasChanged = !Objects.equals(from.getAlias() == null ? null : from.getAlias().getName(),
+				to.getAlias() == null ? null : to.getAlias().getName());
+		var settings = changedSettings(TableSetting.class, from.getSettings(), to.getSettings());
+		return new TableChange(type, from, to, aliasChanged, Collections.unmodifiableSet(settings),
+				noteChanged(from.getNote(), to.getNote()), Collections.unmodifiableList(columns), Collections.unmodifiableList(indexes));
+	}
+	
+	private static ColumnChange columnChange(ChangeType type, Column from, Column to) {
+		if (type != ChangeType.MODIFIED) {
+			return new ColumnChange(type, from, to, false, Set.of(), false);
+		}
+		var settings = changedSettings(ColumnSetting.class, from.getSettings(), to.getSettings());
+		// the same default value as string and as expression
+		if (from.isDefaultExpression() != to.isDefaultExpression()) settings.add(ColumnSetting.DEFAULT);
+		return new ColumnChange(type, from, to, !Objects.equals(from.getType(), to.getType()), Collections.unmodifiableSet(settings),
+				noteChanged(from.getNote(), to.getNote()));
+	}
+	
+	private static <S extends java.lang.Enum<S>> EnumSet<S> changedSettings(Class<S> type, Map<S, String> from, Map<S, String> to) {
+		var settings = EnumSet.noneOf(type);
+		from.forEach((setting, value) -> {
+			if (!to.containsKey(setting) || !Objects.equals(value, to.get(setting))) settings.add(setting);
+		});
+		for (var setting : to.keySet()) {
+			if (!from.containsKey(setting)) settings.add(setting);
+		}
+		return settings;
+	}
+	
+	private static boolean noteChanged(Note from, Note to) {
+		return !Objects.equals(from == null ? null : from.getValue(), to == null ? null : to.getValue());
+	}
+	
+	private static Map<List<String>, Index> byColumns(Collection<Index> indexes) {
+		var map = HashMap.<List<String>, Index>newHashMap(indexes.size());
+		for (var index : indexes) {
+			map.put(index.getColumns(), index);
+		}
+		return map;
+	}
+	
+	/**
+	 * Relationships are equal if their columns are equal, which are identified by their qualified names.
+	 */
+	private static Map<Relationship, Relationship> byEndpoints(Collection<Relationship> relationships) {
+		var map = HashMap.<Relationship, Relationship>newHashMap(relationships.size());
+		for (var relationship : relationships) {
+			map.put(relationship, relationship);
+		}
+		return map;
+	}
+	
+	@FunctionalInterface
+	private interface ChangeFactory<T, C> {
+		C create(ChangeType type, T from, T to);
+	}
+}
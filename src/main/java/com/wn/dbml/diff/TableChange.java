@@ -0,0 +1,26 @@
+package com.wn.dbml.diff;
+
+import com.wn.dbml.model.Index;
+import com.wn.dbml.model.Table;
+import com.wn.dbml.model.TableSetting;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A changed table or table partial. The details are only set for a modified table,
+ * whose columns, indexes and settings include the ones of its injected table partials.
+ * A modified table without changed details changed its order of columns or its injected table partials.
+ *
+ * @param type         the type of the change
+ * @param from         the table of the old database, null if it was added
+ * @param to           the table of the new database, null if it was removed
+ * @param aliasChanged true, if the alias of a modified table changed
+ * @param settings     the settings of a modified table, which were added, removed or changed their value
+ * @param noteChanged  true, if the note of a modified table changed
+ * @param columns      the changed columns of a modified table
+ * @param indexes      the changed indexes of a modified table, which are matched by their columns
+ */
+public record TableChange(ChangeType type, Table from, Table to, boolean aliasChanged, Set<TableSetting> settings,
+                          boolean noteChanged, List<ColumnChange> columns, List<Change<Index>> indexes) {
+}
@@ -0,0 +1,110 @@
+package com.wn.dbml.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.SequencedMap;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable map backed by arrays in insertion order, used by frozen databases.
+ * It is meant for the few settings or properties of a model element, {@link #get(Object)} is linear.
+ */
+final class ArrayMap<K, V> extends AbstractMap<K, V> implements SequencedMap<K, V> {
+	private static final ArrayMap<?, ?> EMPTY = new ArrayMap<>(new Object[0], new Object[0]);
+	private final Object[] keys, values;
+	
+	private ArrayMap(Object[] keys, Object[] values) {
+		this.keys = keys;
+		this.values = values;
+	}
+	
+	@SuppressWarnings("unchecked")
+	static <K, V> ArrayMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+		if (map.isEmpty()) return (ArrayMap<K, V>) EMPTY;
+		var keys = new Object[map.size()];
+		var values = new Object[keys.length];
+		var i = 0;
+		for (var entry : map.entrySet()) {
+			keys[i] = entry.getKey();
+			values[i++] = entry.getValue();
+		}
+		return new ArrayMap<>(keys, values);
+	}
+	
+	private int indexOf(Object key) {
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i].equals(key)) return i;
+		}
+		return -1;
+	}
+	
+	@Override
+	public int size() {
+		return keys.length;
+	}
+	
+	@Override
+	public boolean containsKey(Object key) {
+		return indexOf(key) != -1;
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		var i = indexOf(key);
+		return i == -1 ? null : (V) values[i];
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		for (int i = 0; i < keys.length; i++) {
+			action.accept((K) keys[i], (V) values[i]);
+		}
+	}
+	
+	@Override
+	public ArrayMap<K, V> reversed() {
+		var reversedKeys = new Object[keys.length];
+		var reversedValues = new Object[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			reversedKeys[keys.length - 1 - i] = keys[i];
+			reversedValues[keys.length - 1 - i] = values[i];
+		}
+		return new ArrayMap<>(reversedKeys, reversedValues);
+	}
+	
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		return new AbstractSet<>() {
+			@Override
+			public int size() {
+				return keys.length;
+			}
+			
+			@Override
+			public Iterator<Entry<K, V>> iterator() {
+				return new Iterator<>() {
+					private int index;
+					
+					@Override
+					public boolean hasNext() {
+						return index < keys.length;
+					}
+					
+					@Override
+					@SuppressWarnings("unchecked")
+					public Entry<K, V> next() {
+						if (index == keys.length) throw new NoSuchElementException();
+						var i = index++;
+						return new SimpleImmutableEntry<>((K) keys[i], (V) values[i]);
+					}
+				};
+			}
+		};
+	}
+}
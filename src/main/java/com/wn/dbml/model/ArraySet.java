@@ -0,0 +1,66 @@
+package com.wn.dbml.model;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * An immutable set backed by an array in insertion order, used by frozen databases.
+ * It is meant for the small sets of a model element, {@link #contains(Object)} is linear, see {@link HashedSet}.
+ */
+final class ArraySet<E> extends AbstractSet<E> {
+	private static final ArraySet<?> EMPTY = new ArraySet<>(new Object[0]);
+	private final Object[] elements;
+	
+	private ArraySet(Object[] elements) {
+		this.elements = elements;
+	}
+	
+	@SuppressWarnings("unchecked")
+	static <E> Set<E> copyOf(Collection<? extends E> collection) {
+		return collection.isEmpty() ? (Set<E>) EMPTY : new ArraySet<>(collection.toArray());
+	}
+	
+	@Override
+	public int size() {
+		return elements.length;
+	}
+	
+	@Override
+	public boolean contains(Object o) {
+		for (var element : elements) {
+			if (element.equals(o)) return true;
+		}
+		return false;
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public void forEach(Consumer<? super E> action) {
+		for (var element : elements) {
+			action.accept((E) element);
+		}
+	}
+	
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterator<>() {
+			private int index;
+			
+			@Override
+			public boolean hasNext() {
+				return index < elements.length;
+			}
+			
+			@Override
+			@SuppressWarnings("unchecked")
+			public E next() {
+				if (index == elements.length) throw new NoSuchElementException();
+				return (E) elements[index++];
+			}
+		};
+	}
+}
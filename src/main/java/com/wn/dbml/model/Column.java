@@ -8,12 +8,16 @@ import java.util.Collections;
 import java.util.EnumMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 public class Column implements SettingHolder<ColumnSetting>, DatabaseElement {
 	private final Table table;
 	private final String name, type;
-	private final Map<ColumnSetting, String> settings = new EnumMap<>(ColumnSetting.class);
+	private Map<ColumnSetting, String> settings = new EnumMap<>(ColumnSetting.class);
 	private Note note;
+	private boolean defaultExpression;
+	private long contentHash;
+	private boolean hashed;
 	
 	Column(Table table, String name, String type) {
 		this.table = Objects.requireNonNull(table);
@@ -25,6 +29,7 @@ public class Column implements SettingHolder<ColumnSetting>, DatabaseElement {
 		var column = new Column(other, name, type);
 		column.settings.putAll(this.settings);
 		column.note = this.note;
+		column.defaultExpression = this.defaultExpression;
 		return column;
 	}
 	
@@ -40,13 +45,39 @@ public class Column implements SettingHolder<ColumnSetting>, DatabaseElement {
 		return type;
 	}
 	
+	/**
+	 * @see Database#getRelationships(Column)
+	 */
+	public Set<Relationship> getRelationships() {
+		return table.getSchema().getDatabase().getRelationships(this);
+	}
+	
 	public Map<ColumnSetting, String> getSettings() {
 		return Collections.unmodifiableMap(settings);
 	}
 	
 	@Override
 	public void addSetting(ColumnSetting setting, String value) {
+		table.requireMutable();
 		settings.put(setting, value);
+		if (setting == ColumnSetting.DEFAULT) defaultExpression = false;
+		hashed = false;
+		table.invalidate();
+	}
+	
+	/**
+	 * Sets the default value to an expression, e.g. {@code `now()`}, which is kept without its backticks.
+	 */
+	public void setDefaultExpression(String expression) {
+		addSetting(ColumnSetting.DEFAULT, expression);
+		defaultExpression = true;
+	}
+	
+	/**
+	 * @return true, if the default value is an expression rather than a string, number or boolean
+	 */
+	public boolean isDefaultExpression() {
+		return defaultExpression;
 	}
 	
 	public Note getNote() {
@@ -54,7 +85,27 @@ public class Column implements SettingHolder<ColumnSetting>, DatabaseElement {
 	}
 	
 	public void setNote(Note note) {
+		table.requireMutable();
 		this.note = note;
+		hashed = false;
+		table.invalidate();
+	}
+	
+	/**
+	 * The hash of the name, type, settings, kind of default value and note.
+	 *
+	 * @see Database#getContentHash()
+	 */
+	public long getContentHash() {
+		if (!hashed) {
+			contentHash = new ContentHash().add(name).add(type).add(settings).add(defaultExpression ? 1 : 0).add(note).get();
+			hashed = true;
+		}
+		return contentHash;
+	}
+	
+	void freeze() {
+		settings = ArrayMap.copyOf(settings);
 	}
 	
 	@Override
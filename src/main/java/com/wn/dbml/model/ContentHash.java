@@ -0,0 +1,77 @@
+package com.wn.dbml.model;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Computes the content hash of an element from its values and the content hashes of its children.
+ * The hash only depends on the content, thus it is the same in every run.
+ */
+final class ContentHash {
+	private static final long PRIME = 0x100000001B3L;
+	private long hash = 0xCBF29CE484222325L;
+	
+	ContentHash add(long value) {
+		hash = (hash ^ value) * PRIME;
+		return this;
+	}
+	
+	ContentHash add(String s) {
+		if (s == null) {
+			return add(-1);
+		}
+		add(s.length());
+		for (int i = 0; i < s.length(); i++) {
+			hash = (hash ^ s.charAt(i)) * PRIME;
+		}
+		return this;
+	}
+	
+	ContentHash add(Note note) {
+		return add(note == null ? null : note.getValue());
+	}
+	
+	ContentHash add(Map<? extends Setting, String> settings) {
+		var sum = 0L;
+		for (var entry : settings.entrySet()) {
+			sum += new ContentHash().add(entry.getKey().toString()).add(entry.getValue()).get();
+		}
+		return add(settings.size()).add(sum);
+	}
+	
+	/**
+	 * Adds the hashes of elements, whose order is significant.
+	 */
+	<T> ContentHash addOrdered(Collection<T> elements, ToLongFunction<T> hash) {
+		add(elements.size());
+		for (var element : elements) {
+			add(hash.applyAsLong(element));
+		}
+		return this;
+	}
+	
+	/**
+	 * Adds the hashes of elements, which are identified by their name, independent of their order.
+	 */
+	<T> ContentHash addUnordered(Collection<T> elements, ToLongFunction<T> hash) {
+		var sum = 0L;
+		for (var element : elements) {
+			sum += mix(hash.applyAsLong(element));
+		}
+		return add(elements.size()).add(sum);
+	}
+	
+	long get() {
+		return mix(hash);
+	}
+	
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -5,8 +5,11 @@ import com.wn.dbml.util.Name;
 import com.wn.dbml.visitor.DatabaseElement;
 import com.wn.dbml.visitor.DatabaseVisitor;
 
+import java.lang.invoke.VarHandle;
+import java.util.AbstractSet;
 import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -16,16 +19,29 @@ import java.util.Set;
  * The top-level representation of a DBML file.
  */
 public class Database implements DatabaseElement {
-	private final Map<String, Schema> schemas = new LinkedHashMap<>();
-	private final Set<Relationship> relationships = new LinkedHashSet<>();
-	private final Map<String, NamedNote> namedNotes = new LinkedHashMap<>();
-	private final Map<String, TableGroup> tableGroups = new LinkedHashMap<>();
-	private final Map<String, TablePartial> tablePartials = new LinkedHashMap<>();
+	private final ElementMap<String, Schema> schemas = new ElementMap<>();
+	private final ElementMap<Relationship, Relationship> relationships = new ElementMap<>();
+	// the relationships by name, by the tables of their endpoints and by their columns
+	private Map<String, Set<Relationship>> relationshipsByName = new HashMap<>();
+	private Map<Table, Set<Relationship>> relationshipsFrom = new HashMap<>();
+	private Map<Table, Set<Relationship>> relationshipsTo = new HashMap<>();
+	private Map<Column, Set<Relationship>> relationshipsByColumn = new HashMap<>();
+	private final ElementMap<String, NamedNote> namedNotes = new ElementMap<>();
+	private final ElementMap<String, TableGroup> tableGroups = new ElementMap<>();
+	private final ElementMap<String, TablePartial> tablePartials = new ElementMap<>();
+	// the tables of all schemas by their alias, maintained by the tables
+	private Map<String, Table> aliases = new HashMap<>();
 	private final Schema tablePartialsSchema = new Schema(this, Chars.EMPTY);
 	private Project project;
+	private boolean frozen;
 	
 	public Schema getOrCreateSchema(String name) {
 		Name.requireNonEmpty(name);
+		if (frozen) {
+			var existing = schemas.get(name);
+			if (existing != null) return existing;
+			requireMutable();
+		}
 		var created = new Schema(this, name);
 		var existing = schemas.putIfAbsent(name, created);
 		return existing == null ? created : existing;
@@ -36,52 +52,162 @@ public class Database implements DatabaseElement {
 	}
 	
 	public Set<Schema> getSchemas() {
-		return Collections.unmodifiableSet(new LinkedHashSet<>(schemas.values()));
+		return schemas.values();
 	}
 	
 	public boolean containsAlias(String aliasName) {
-		return getAlias(aliasName) != null;
+		return aliases.containsKey(aliasName);
 	}
 	
 	public Table getAlias(String aliasName) {
-		return getSchemas().stream()
-				.flatMap(s -> s.getTables().stream())
-				.filter(t -> t.getAlias() != null && aliasName.equals(t.getAlias().getName()))
-				.findAny()
-				.orElse(null);
+		return aliases.get(aliasName);
+	}
+	
+	/**
+	 * @return false, if another table already has the alias
+	 */
+	boolean registerAlias(Alias alias, Table table) {
+		var existing = aliases.putIfAbsent(alias.getName(), table);
+		return existing == null || existing == table;
+	}
+	
+	void unregisterAlias(Alias alias, Table table) {
+		aliases.remove(alias.getName(), table);
 	}
 	
 	public Relationship createRelationship(String name, Relation relation, List<Column> from, List<Column> to, Map<RelationshipSetting, String> settings) {
+		requireMutable();
 		var relationship = new Relationship(name, relation, from, to);
 		settings.forEach(relationship::addSetting);
-		var added = relationships.add(relationship);
-		return added ? relationship : null;
+		return addRelationship(relationship, null) ? relationship : null;
+	}
+	
+	/**
+	 * Adds a relationship, which has been removed before, before the next relationship.
+	 *
+	 * @param next a relationship of this database or null to add the relationship after the other relationships
+	 * @return false, if a relationship with the same endpoints already exists
+	 * @throws IllegalArgumentException if the next relationship is not defined
+	 */
+	public boolean addRelationship(Relationship relationship, Relationship next) {
+		requireMutable();
+		var added = relationships.putIfAbsent(relationship, relationship, next) == null;
+		if (added) index(relationship, true);
+		return added;
+	}
+	
+	public boolean removeRelationship(Relationship relationship) {
+		requireMutable();
+		var removed = relationships.remove(relationship, relationship);
+		if (removed) index(relationship, false);
+		return removed;
+	}
+	
+	private void index(Relationship relationship, boolean add) {
+		if (relationship.getName() != null) {
+			index(relationshipsByName, relationship.getName(), relationship, add);
+		}
+		index(relationshipsFrom, relationship.getFrom().getFirst().getTable(), relationship, add);
+		index(relationshipsTo, relationship.getTo().getFirst().getTable(), relationship, add);
+		relationship.getFrom().forEach(c -> index(relationshipsByColumn, c, relationship, add));
+		relationship.getTo().forEach(c -> index(relationshipsByColumn, c, relationship, add));
+	}
+	
+	private static <K> void index(Map<K, Set<Relationship>> index, K key, Relationship relationship, boolean add) {
+		if (add) {
+			index.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(relationship);
+		} else {
+			var relationships = index.get(key);
+			relationships.remove(relationship);
+			// the keys of removed tables and columns are not kept
+			if (relationships.isEmpty()) index.remove(key);
+		}
 	}
 	
 	public boolean containsRelationship(String name) {
 		return getRelationship(name) != null;
 	}
 	
+	/**
+	 * @return the first relationship with the name or null
+	 */
 	public Relationship getRelationship(String name) {
-		return relationships.stream().filter(r -> name.equals(r.getName())).findAny().orElse(null);
+		var result = relationshipsByName.get(name);
+		return result == null || result.isEmpty() ? null : result.iterator().next();
 	}
 	
 	public Set<Relationship> getRelationships() {
-		return Collections.unmodifiableSet(relationships);
+		return relationships.values();
+	}
+	
+	/**
+	 * The relationships starting at the table, i.e. whose from-columns belong to the table.
+	 * The result is an unmodifiable view, which reflects later changes.
+	 */
+	public Set<Relationship> getRelationshipsFrom(Table table) {
+		return view(relationshipsFrom, table);
+	}
+	
+	/**
+	 * The relationships ending at the table, i.e. whose to-columns belong to the table.
+	 * The result is an unmodifiable view, which reflects later changes.
+	 */
+	public Set<Relationship> getRelationshipsTo(Table table) {
+		return view(relationshipsTo, table);
+	}
+	
+	/**
+	 * The relationships with the column at either endpoint.
+	 * The result is an unmodifiable view, which reflects later changes.
+	 */
+	public Set<Relationship> getRelationships(Column column) {
+		return view(relationshipsByColumn, column);
+	}
+	
+	private <K> Set<Relationship> view(Map<K, Set<Relationship>> index, K key) {
+		// the sets of a frozen database are immutable
+		return frozen ? index.getOrDefault(key, Set.of()) : new IndexView<>(index, key);
 	}
 	
 	public NamedNote addNamedNote(String name) {
+		requireMutable();
 		var namedNote = new NamedNote(name);
 		var added = namedNotes.putIfAbsent(name, namedNote) == null;
 		return added ? namedNote : null;
 	}
 	
+	/**
+	 * Adds a named note, which has been removed before, after the other named notes.
+	 *
+	 * @return false, if a named note with the same name is already defined
+	 */
+	public boolean addNamedNote(NamedNote namedNote) {
+		return addNamedNote(namedNote, null);
+	}
+	
+	/**
+	 * Adds a named note, which has been removed before, before the next named note.
+	 *
+	 * @param next a named note of this database or null to add the named note after the other named notes
+	 * @return false, if a named note with the same name is already defined
+	 * @throws IllegalArgumentException if the next named note is not defined
+	 */
+	public boolean addNamedNote(NamedNote namedNote, NamedNote next) {
+		requireMutable();
+		return namedNotes.putIfAbsent(namedNote.getName(), namedNote, next == null ? null : next.getName()) == null;
+	}
+	
+	public boolean removeNamedNote(NamedNote namedNote) {
+		requireMutable();
+		return namedNotes.remove(namedNote.getName(), namedNote);
+	}
+	
 	public NamedNote getNamedNote(String name) {
 		return namedNotes.get(name);
 	}
 	
 	public Set<NamedNote> getNamedNotes() {
-		return Collections.unmodifiableSet(new LinkedHashSet<>(namedNotes.values()));
+		return namedNotes.values();
 	}
 	
 	public boolean containsTableGroup(String tableGroupName) {
@@ -93,13 +219,40 @@ public class Database implements DatabaseElement {
 	}
 	
 	public TableGroup createTableGroup(String name) {
+		requireMutable();
 		var tableGroup = new TableGroup(name);
 		var added = tableGroups.putIfAbsent(name, tableGroup) == null;
 		return added ? tableGroup : null;
 	}
 	
+	/**
+	 * Adds a table group, which has been removed before, after the other table groups.
+	 *
+	 * @return false, if a table group with the same name is already defined
+	 */
+	public boolean addTableGroup(TableGroup tableGroup) {
+		return addTableGroup(tableGroup, null);
+	}
+	
+	/**
+	 * Adds a table group, which has been removed before, before the next table group.
+	 *
+	 * @param next a table group of this database or null to add the table group after the other table groups
+	 * @return false, if a table group with the same name is already defined
+	 * @throws IllegalArgumentException if the next table group is not defined
+	 */
+	public boolean addTableGroup(TableGroup tableGroup, TableGroup next) {
+		requireMutable();
+		return tableGroups.putIfAbsent(tableGroup.getName(), tableGroup, next == null ? null : next.getName()) == null;
+	}
+	
+	public boolean removeTableGroup(TableGroup tableGroup) {
+		requireMutable();
+		return tableGroups.remove(tableGroup.getName(), tableGroup);
+	}
+	
 	public Set<TableGroup> getTableGroups() {
-		return Collections.unmodifiableSet(new LinkedHashSet<>(tableGroups.values()));
+		return tableGroups.values();
 	}
 	
 	public boolean containsTablePartial(String tableName) {
@@ -111,13 +264,43 @@ public class Database implements DatabaseElement {
 	}
 	
 	public TablePartial createTablePartial(String name) {
+		requireMutable();
 		var table = new TablePartial(tablePartialsSchema, name);
 		var added = tablePartials.putIfAbsent(name, table) == null;
 		return added ? table : null;
 	}
 	
+	/**
+	 * Adds a table partial of this database, which has been removed before, after the other table partials.
+	 *
+	 * @return false, if a table partial with the same name is already defined
+	 */
+	public boolean addTablePartial(TablePartial tablePartial) {
+		return addTablePartial(tablePartial, null);
+	}
+	
+	/**
+	 * Adds a table partial of this database, which has been removed before, before the next table partial.
+	 *
+	 * @param next a table partial of this database or null to add the table partial after the other table partials
+	 * @return false, if a table partial with the same name is already defined
+	 * @throws IllegalArgumentException if the next table partial is not defined
+	 */
+	public boolean addTablePartial(TablePartial tablePartial, TablePartial next) {
+		requireMutable();
+		if (tablePartial.getSchema() != tablePartialsSchema) {
+			throw new IllegalArgumentException("TablePartial '%s' belongs to another database".formatted(tablePartial));
+		}
+		return tablePartials.putIfAbsent(tablePartial.getName(), tablePartial, next == null ? null : next.getName()) == null;
+	}
+	
+	public boolean removeTablePartial(TablePartial tablePartial) {
+		requireMutable();
+		return tablePartials.remove(tablePartial.getName(), tablePartial);
+	}
+	
 	public Set<TablePartial> getTablePartials() {
-		return Collections.unmodifiableSet(new LinkedHashSet<>(tablePartials.values()));
+		return tablePartials.values();
 	}
 	
 	public Project getProject() {
@@ -125,9 +308,123 @@ public class Database implements DatabaseElement {
 	}
 	
 	public void setProject(Project project) {
+		requireMutable();
 		this.project = project;
 	}
 	
+	/**
+	 * Freezes this database, so it can not be modified anymore: the modifying methods of all its elements throw an
+	 * {@link UnsupportedOperationException}. The table partials of all tables are resolved in advance,
+	 * and the collections of all elements are replaced by compact immutable ones.
+	 * <p>
+	 * A frozen database uses less memory and can be read by multiple threads without synchronization.
+	 *
+	 * @return this database
+	 */
+	public Database freeze() {
+		if (frozen) return this;
+		tablePartials.values().forEach(Table::freeze);
+		tablePartialsSchema.freeze();
+		schemas.values().forEach(Schema::freeze);
+		relationships.values().forEach(Relationship::freeze);
+		relationships.freeze();
+		relationshipsByName = freeze(relationshipsByName);
+		relationshipsFrom = freeze(relationshipsFrom);
+		relationshipsTo = freeze(relationshipsTo);
+		relationshipsByColumn = freeze(relationshipsByColumn);
+		namedNotes.values().forEach(NamedNote::freeze);
+		tableGroups.values().forEach(TableGroup::freeze);
+		if (project != null) project.freeze();
+		schemas.freeze();
+		namedNotes.freeze();
+		tableGroups.freeze();
+		tablePartials.freeze();
+		aliases = Map.copyOf(aliases);
+		frozen = true;
+		// the elements are complete, before the database is published
+		VarHandle.releaseFence();
+		return this;
+	}
+	
+	/**
+	 * The content hash of this database, combined from the content hashes of its elements.
+	 * Equal content has an equal hash in every run, so two versions of a database can be compared
+	 * by descending only into the elements whose hashes differ. Named elements are hashed independent of their order.
+	 * <p>
+	 * The hashes of the schemas, tables, columns, indexes, enums and relationships are computed when requested
+	 * and kept until the element changes, the hashes of the database and the table groups are computed on each call.
+	 */
+	public long getContentHash() {
+		return new ContentHash()
+				.add(project == null ? -1 : hash(project))
+				.addUnordered(schemas.values(), Schema::getContentHash)
+				.addUnordered(tablePartials.values(), Table::getContentHash)
+				.addUnordered(relationships.values(), Relationship::getContentHash)
+				.addUnordered(tableGroups.values(), TableGroup::getContentHash)
+				.addUnordered(namedNotes.values(), n -> new ContentHash().add(n.getName()).add(n.getValue()).get())
+				.get();
+	}
+	
+	private static long hash(Project project) {
+		return new ContentHash().add(project.getName())
+				.addUnordered(project.getProperties().entrySet(), e -> new ContentHash().add(e.getKey()).add(e.getValue()).get())
+				.add(project.getNote()).get();
+	}
+	
+	private static <K> Map<K, Set<Relationship>> freeze(Map<K, Set<Relationship>> index) {
+		var result = new HashMap<K, Set<Relationship>>();
+		index.forEach((key, relationships) -> {
+			if (!relationships.isEmpty()) result.put(key, ArraySet.copyOf(relationships));
+		});
+		return Map.copyOf(result);
+	}
+	
+	/**
+	 * The relationships of a key in an index, which drops the emptied sets.
+	 */
+	private static final class IndexView<K> extends AbstractSet<Relationship> {
+		private final Map<K, Set<Relationship>> index;
+		private final K key;
+		
+		IndexView(Map<K, Set<Relationship>> index, K key) {
+			this.index = index;
+			this.key = key;
+		}
+		
+		private Set<Relationship> relationships() {
+			return index.getOrDefault(key, Set.of());
+		}
+		
+		@Override
+		public int size() {
+			return relationships().size();
+		}
+		
+		@Override
+		public boolean contains(Object o) {
+			return relationships().contains(o);
+		}
+		
+		@Override
+		public Iterator<Relationship> iterator() {
+			return Collections.unmodifiableSet(relationships()).iterator();
+		}
+	}
+	
+	public boolean isFrozen() {
+		return frozen;
+	}
+	
+	void requireMutable() {
+		requireMutable(frozen);
+	}
+	
+	static void requireMutable(boolean frozen) {
+		if (frozen) {
+			throw new UnsupportedOperationException("The database is frozen");
+		}
+	}
+	
 	@Override
 	public String toString() {
 		return "Database{" +
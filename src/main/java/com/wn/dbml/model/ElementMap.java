@@ -0,0 +1,116 @@
+package com.wn.dbml.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The elements of a container by key in insertion order, an element may also be inserted before another one.
+ * Their unmodifiable snapshot is reused until the elements change, so reading them allocates nothing.
+ */
+final class ElementMap<K, V> {
+	private Map<K, Node<V>> nodes = new HashMap<>();
+	private Map<K, V> frozen;
+	private Node<V> first, last;
+	private Set<V> values;
+	
+	V get(K key) {
+		if (frozen != null) return frozen.get(key);
+		var node = nodes.get(key);
+		return node == null ? null : node.element;
+	}
+	
+	boolean containsKey(K key) {
+		return frozen != null ? frozen.containsKey(key) : nodes.containsKey(key);
+	}
+	
+	V putIfAbsent(K key, V element) {
+		return putIfAbsent(key, element, null);
+	}
+	
+	/**
+	 * Adds an element before the element of the next key, or after the other elements if the next key is null.
+	 *
+	 * @return the element already added with the key or null
+	 * @throws IllegalArgumentException if there is no element with the next key
+	 */
+	V putIfAbsent(K key, V element, K next) {
+		var existing = get(key);
+		if (existing != null) return existing;
+		var successor = next == null ? null : nodes.get(next);
+		if (next != null && successor == null) {
+			throw new IllegalArgumentException("Element '%s' is not defined".formatted(next));
+		}
+		var node = new Node<>(element);
+		nodes.put(key, node);
+		if (successor == null) {
+			node.previous = last;
+			last = node;
+		} else {
+			node.previous = successor.previous;
+			node.next = successor;
+			successor.previous = node;
+		}
+		if (node.previous == null) {
+			first = node;
+		} else {
+			node.previous.next = node;
+		}
+		values = null;
+		return null;
+	}
+	
+	boolean remove(K key, V element) {
+		var node = nodes.get(key);
+		if (node == null || !node.element.equals(element)) return false;
+		nodes.remove(key);
+		if (node.previous == null) {
+			first = node.next;
+		} else {
+			node.previous.next = node.next;
+		}
+		if (node.next == null) {
+			last = node.previous;
+		} else {
+			node.next.previous = node.previous;
+		}
+		values = null;
+		return true;
+	}
+	
+	/**
+	 * Replaces the elements by compact immutable collections, every change throws afterwards.
+	 */
+	void freeze() {
+		values = HashedSet.copyOf(values());
+		var map = new HashMap<K, V>();
+		nodes.forEach((key, node) -> map.put(key, node.element));
+		frozen = Map.copyOf(map);
+		nodes = Map.of();
+		first = last = null;
+	}
+	
+	Set<V> values() {
+		var result = values;
+		if (result == null) {
+			var elements = new LinkedHashSet<V>();
+			for (var node = first; node != null; node = node.next) {
+				elements.add(node.element);
+			}
+			result = Collections.unmodifiableSet(elements);
+			values = result;
+		}
+		return result;
+	}
+	
+	private static final class Node<V> {
+		private final V element;
+		private Node<V> previous, next;
+		
+		Node(V element) {
+			this.element = element;
+		}
+	}
+}
@@ -12,7 +12,9 @@ import java.util.Set;
 public class Enum implements DatabaseElement {
 	private final Schema schema;
 	private final String name;
-	private final Set<EnumValue> values = new LinkedHashSet<>();
+	private Set<EnumValue> values = new LinkedHashSet<>();
+	private long contentHash;
+	private boolean hashed;
 	
 	Enum(Schema schema, String name) {
 		this.schema = Objects.requireNonNull(schema);
@@ -28,8 +30,10 @@ public class Enum implements DatabaseElement {
 	}
 	
 	public EnumValue addValue(String name) {
+		schema.getDatabase().requireMutable();
 		var value = new EnumValue(this, name);
 		var added = values.add(value);
+		if (added) invalidate();
 		return added ? value : null;
 	}
 	
@@ -37,6 +41,30 @@ public class Enum implements DatabaseElement {
 		return Collections.unmodifiableSet(values);
 	}
 	
+	/**
+	 * The hash of the name and the values with their notes.
+	 *
+	 * @see Database#getContentHash()
+	 */
+	public long getContentHash() {
+		if (!hashed) {
+			contentHash = new ContentHash().add(name)
+					.addOrdered(values, v -> new ContentHash().add(v.getName()).add(v.getNote()).get()).get();
+			hashed = true;
+		}
+		return contentHash;
+	}
+	
+	void invalidate() {
+		hashed = false;
+		schema.invalidateContentHash();
+	}
+	
+	void freeze() {
+		values = ArraySet.copyOf(values);
+		getContentHash();
+	}
+	
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
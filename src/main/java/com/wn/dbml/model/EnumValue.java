@@ -27,7 +27,9 @@ public class EnumValue {
 	}
 	
 	public void setNote(Note note) {
+		anEnum.getSchema().getDatabase().requireMutable();
 		this.note = note;
+		anEnum.invalidate();
 	}
 	
 	@Override
@@ -0,0 +1,46 @@
+package com.wn.dbml.model;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * An immutable set in insertion order with hashed lookups, used by frozen databases for the collections
+ * of a database or schema, which can be large.
+ */
+final class HashedSet<E> extends AbstractSet<E> {
+	private final Set<E> elements;
+	private final Set<E> lookup;
+	
+	private HashedSet(Collection<? extends E> collection) {
+		this.elements = ArraySet.copyOf(collection);
+		this.lookup = Set.copyOf(collection);
+	}
+	
+	static <E> Set<E> copyOf(Collection<? extends E> collection) {
+		return collection.isEmpty() ? ArraySet.copyOf(collection) : new HashedSet<>(collection);
+	}
+	
+	@Override
+	public int size() {
+		return elements.size();
+	}
+	
+	@Override
+	public boolean contains(Object o) {
+		// the lookup set does not accept null
+		return o != null && lookup.contains(o);
+	}
+	
+	@Override
+	public void forEach(Consumer<? super E> action) {
+		elements.forEach(action);
+	}
+	
+	@Override
+	public Iterator<E> iterator() {
+		return elements.iterator();
+	}
+}
@@ -13,9 +13,11 @@ import java.util.stream.Collectors;
 
 public class Index implements SettingHolder<IndexSetting>, DatabaseElement {
 	private final Table table;
-	private final List<String> columns;
-	private final Map<IndexSetting, String> settings = new EnumMap<>(IndexSetting.class);
+	private List<String> columns;
+	private Map<IndexSetting, String> settings = new EnumMap<>(IndexSetting.class);
 	private Note note;
+	private long contentHash;
+	private boolean hashed;
 	
 	Index(Table table, List<String> columns) {
 		this.table = Objects.requireNonNull(table);
@@ -43,7 +45,10 @@ public class Index implements SettingHolder<IndexSetting>, DatabaseElement {
 	
 	@Override
 	public void addSetting(IndexSetting setting, String value) {
+		table.requireMutable();
 		settings.put(setting, value);
+		hashed = false;
+		table.invalidate();
 	}
 	
 	public Map<IndexSetting, String> getSettings() {
@@ -55,7 +60,28 @@ public class Index implements SettingHolder<IndexSetting>, DatabaseElement {
 	}
 	
 	public void setNote(Note note) {
+		table.requireMutable();
 		this.note = note;
+		hashed = false;
+		table.invalidate();
+	}
+	
+	/**
+	 * The hash of the columns, settings and note.
+	 *
+	 * @see Database#getContentHash()
+	 */
+	public long getContentHash() {
+		if (!hashed) {
+			contentHash = new ContentHash().addOrdered(columns, c -> new ContentHash().add(c).get()).add(settings).add(note).get();
+			hashed = true;
+		}
+		return contentHash;
+	}
+	
+	void freeze() {
+		columns = List.copyOf(columns);
+		settings = ArrayMap.copyOf(settings);
 	}
 	
 	@Override
@@ -9,6 +9,7 @@ import java.util.Objects;
 public class NamedNote implements DatabaseElement {
 	private final String name;
 	private String value;
+	private boolean frozen;
 	
 	public NamedNote(String name) {
 		this.name = Name.requireNonEmpty(name);
@@ -19,6 +20,7 @@ public class NamedNote implements DatabaseElement {
 	}
 	
 	public void setValue(String value) {
+		Database.requireMutable(frozen);
 		this.value = Objects.requireNonNull(value);
 	}
 	
@@ -26,6 +28,10 @@ public class NamedNote implements DatabaseElement {
 		return value;
 	}
 	
+	void freeze() {
+		frozen = true;
+	}
+	
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
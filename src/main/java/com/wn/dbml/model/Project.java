@@ -9,8 +9,9 @@ import java.util.Map;
 
 public class Project implements DatabaseElement {
 	private final String name;
-	private final Map<String, String> properties = new LinkedHashMap<>();
+	private Map<String, String> properties = new LinkedHashMap<>();
 	private Note note;
+	private boolean frozen;
 	
 	public Project(String name) {
 		this.name = Name.nullIfEmpty(name);
@@ -29,9 +30,15 @@ public class Project implements DatabaseElement {
 	}
 	
 	public void setNote(Note note) {
+		Database.requireMutable(frozen);
 		this.note = note;
 	}
 	
+	void freeze() {
+		properties = ArrayMap.copyOf(properties);
+		frozen = true;
+	}
+	
 	@Override
 	public String toString() {
 		return Name.of(name);
@@ -13,8 +13,10 @@ import java.util.Objects;
 public class Relationship implements SettingHolder<RelationshipSetting>, DatabaseElement {
 	private final String name;
 	private final Relation relation;
-	private final List<Column> from, to;
-	private final Map<RelationshipSetting, String> settings = new EnumMap<>(RelationshipSetting.class);
+	private List<Column> from, to;
+	private Map<RelationshipSetting, String> settings = new EnumMap<>(RelationshipSetting.class);
+	private long contentHash;
+	private boolean hashed;
 	
 	Relationship(String name, Relation relation, List<Column> from, List<Column> to) {
 		this.name = Name.nullIfEmpty(name);
@@ -46,13 +48,44 @@ public class Relationship implements SettingHolder<RelationshipSetting>, Databas
 	
 	@Override
 	public void addSetting(RelationshipSetting setting, String value) {
+		from.getFirst().getTable().requireMutable();
 		settings.put(setting, value);
+		hashed = false;
 	}
 	
 	public Map<RelationshipSetting, String> getSettings() {
 		return Collections.unmodifiableMap(settings);
 	}
 	
+	void freeze() {
+		from = List.copyOf(from);
+		to = List.copyOf(to);
+		from.forEach(Column::freeze);
+		to.forEach(Column::freeze);
+		settings = ArrayMap.copyOf(settings);
+		getContentHash();
+	}
+	
+	/**
+	 * The hash of the name, the relation, the qualified names of the endpoints and the settings.
+	 *
+	 * @see Database#getContentHash()
+	 */
+	public long getContentHash() {
+		if (!hashed) {
+			contentHash = new ContentHash().add(name).add(relation.getSymbol())
+					.addOrdered(from, Relationship::hashName).addOrdered(to, Relationship::hashName)
+					.add(settings).get();
+			hashed = true;
+		}
+		return contentHash;
+	}
+	
+	private static long hashName(Column column) {
+		var table = column.getTable();
+		return new ContentHash().add(table.getSchema().getName()).add(table.getName()).add(column.getName()).get();
+	}
+	
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
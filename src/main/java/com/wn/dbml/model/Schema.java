@@ -4,10 +4,6 @@ import com.wn.dbml.util.Name;
 import com.wn.dbml.visitor.DatabaseElement;
 import com.wn.dbml.visitor.DatabaseVisitor;
 
-import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -15,8 +11,10 @@ public class Schema implements DatabaseElement {
 	public static final String DEFAULT_NAME = "public";
 	private final Database database;
 	private final String name;
-	private final Map<String, Table> tables = new LinkedHashMap<>();
-	private final Map<String, Enum> enums = new LinkedHashMap<>();
+	private final ElementMap<String, Table> tables = new ElementMap<>();
+	private final ElementMap<String, Enum> enums = new ElementMap<>();
+	private long contentHash;
+	private boolean hashed;
 	
 	Schema(Database database, String name) {
 		this.database = database;
@@ -40,13 +38,56 @@ public class Schema implements DatabaseElement {
 	}
 	
 	public Table createTable(String name) {
+		database.requireMutable();
 		var table = new Table(this, name);
 		var added = tables.putIfAbsent(name, table) == null;
+		if (added) hashed = false;
 		return added ? table : null;
 	}
 	
+	/**
+	 * Adds a table of this schema, which has been removed before, after the other tables.
+	 *
+	 * @return false, if a table with the same name is already defined
+	 * @throws IllegalArgumentException if another table already has the alias of the table
+	 */
+	public boolean addTable(Table table) {
+		return addTable(table, null);
+	}
+	
+	/**
+	 * Adds a table of this schema, which has been removed before, before the next table.
+	 *
+	 * @param next a table of this schema or null to add the table after the other tables
+	 * @return false, if a table with the same name is already defined
+	 * @throws IllegalArgumentException if another table already has the alias of the table or the next table is
+	 *                                  not defined
+	 */
+	public boolean addTable(Table table, Table next) {
+		database.requireMutable();
+		requireSchema(table.getSchema());
+		if (tables.containsKey(table.getName())) return false;
+		if (next != null && getTable(next.getName()) != next) {
+			throw new IllegalArgumentException("Table '%s' is not defined".formatted(next));
+		}
+		table.registerAlias();
+		tables.putIfAbsent(table.getName(), table, next == null ? null : next.getName());
+		hashed = false;
+		return true;
+	}
+	
+	public boolean removeTable(Table table) {
+		database.requireMutable();
+		var removed = tables.remove(table.getName(), table);
+		if (removed) {
+			table.unregisterAlias();
+			hashed = false;
+		}
+		return removed;
+	}
+	
 	public Set<Table> getTables() {
-		return Collections.unmodifiableSet(new LinkedHashSet<>(tables.values()));
+		return tables.values();
 	}
 	
 	public boolean containsEnum(String enumName) {
@@ -58,13 +99,82 @@ public class Schema implements DatabaseElement {
 	}
 	
 	public Enum createEnum(String name) {
+		database.requireMutable();
 		var anEnum = new Enum(this, name);
 		var added = enums.putIfAbsent(name, anEnum) == null;
+		if (added) hashed = false;
 		return added ? anEnum : null;
 	}
 	
+	/**
+	 * Adds an enum of this schema, which has been removed before, after the other enums.
+	 *
+	 * @return false, if an enum with the same name is already defined
+	 */
+	public boolean addEnum(Enum anEnum) {
+		return addEnum(anEnum, null);
+	}
+	
+	/**
+	 * Adds an enum of this schema, which has been removed before, before the next enum.
+	 *
+	 * @param next an enum of this schema or null to add the enum after the other enums
+	 * @return false, if an enum with the same name is already defined
+	 * @throws IllegalArgumentException if the next enum is not defined
+	 */
+	public boolean addEnum(Enum anEnum, Enum next) {
+		database.requireMutable();
+		requireSchema(anEnum.getSchema());
+		var added = enums.putIfAbsent(anEnum.getName(), anEnum, next == null ? null : next.getName()) == null;
+		if (added) hashed = false;
+		return added;
+	}
+	
+	public boolean removeEnum(Enum anEnum) {
+		database.requireMutable();
+		var removed = enums.remove(anEnum.getName(), anEnum);
+		if (removed) hashed = false;
+		return removed;
+	}
+	
 	public Set<Enum> getEnums() {
-		return Collections.unmodifiableSet(new LinkedHashSet<>(enums.values()));
+		return enums.values();
+	}
+	
+	/**
+	 * The hash of the name and of the tables and enums, independent of their order.
+	 *
+	 * @see Database#getContentHash()
+	 */
+	public long getContentHash() {
+		if (!hashed) {
+			contentHash = new ContentHash().add(name)
+					.addUnordered(tables.values(), Table::getContentHash)
+					.addUnordered(enums.values(), Enum::getContentHash).get();
+			hashed = true;
+		}
+		return contentHash;
+	}
+	
+	/**
+	 * Called when a table or an enum of this schema has changed.
+	 */
+	void invalidateContentHash() {
+		hashed = false;
+	}
+	
+	void freeze() {
+		tables.values().forEach(Table::freeze);
+		enums.values().forEach(Enum::freeze);
+		tables.freeze();
+		enums.freeze();
+		getContentHash();
+	}
+	
+	private void requireSchema(Schema schema) {
+		if (schema != this) {
+			throw new IllegalArgumentException("Element of schema '%s' can not be added to schema '%s'".formatted(schema, this));
+		}
 	}
 	
 	@Override
@@ -6,6 +6,7 @@ import com.wn.dbml.visitor.DatabaseVisitor;
 
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -17,12 +18,20 @@ import java.util.Set;
 public class Table implements SettingHolder<TableSetting>, DatabaseElement {
 	private final Schema schema;
 	private final String name;
-	private final SequencedMap<String, TablePartial> tablePartials = new LinkedHashMap<>();
-	private final Map<TableSetting, String> settings = new EnumMap<>(TableSetting.class);
-	private final Map<String, Column> columns = new LinkedHashMap<>();
-	private final Set<Index> indexes = new LinkedHashSet<>();
+	// replaced by compact immutable collections, when the database is frozen
+	private SequencedMap<String, TablePartial> tablePartials = new LinkedHashMap<>();
+	private Map<TableSetting, String> settings = new EnumMap<>(TableSetting.class);
+	private Map<String, Column> columns = new LinkedHashMap<>();
+	private Set<Index> indexes = new LinkedHashSet<>();
+	// the tables injecting this table partial, whose resolved views depend on it
+	private Set<Table> dependents;
 	private Alias alias;
 	private Note note;
+	private Local local;
+	private Resolved resolved;
+	// the resolved view, which the content hash has been computed of
+	private Resolved hashed;
+	private long contentHash;
 	
 	Table(Schema schema, String name) {
 		this.schema = Objects.requireNonNull(schema);
@@ -38,29 +47,49 @@ public class Table implements SettingHolder<TableSetting>, DatabaseElement {
 	}
 	
 	public boolean addTablePartial(TablePartial tablePartial) {
-		Objects.requireNonNull(tablePartial);
-		return tablePartials.putIfAbsent(tablePartial.getName(), tablePartial) == null;
+		requireMutable();
+		Table partial = Objects.requireNonNull(tablePartial);
+		var added = tablePartials.putIfAbsent(tablePartial.getName(), tablePartial) == null;
+		if (added) {
+			if (partial.dependents == null) {
+				partial.dependents = Collections.newSetFromMap(new IdentityHashMap<>());
+			}
+			partial.dependents.add(this);
+			local = null;
+			invalidate();
+		}
+		return added;
+	}
+	
+	public boolean removeTablePartial(TablePartial tablePartial) {
+		requireMutable();
+		Table partial = tablePartial;
+		var removed = tablePartials.remove(partial.getName(), partial);
+		if (removed) {
+			partial.dependents.remove(this);
+			local = null;
+			invalidate();
+		}
+		return removed;
 	}
 	
 	public Set<TablePartial> getTablePartials() {
-		var result = new LinkedHashSet<>(tablePartials.values());
-		tablePartials.reversed().values().forEach(tp -> result.addAll(tp.getTablePartials()));
-		return Collections.unmodifiableSet(result);
+		return resolve().tablePartials();
 	}
 	
 	public Set<TablePartial> getLocalTablePartials() {
-		return Collections.unmodifiableSet(new LinkedHashSet<>(tablePartials.values()));
+		return local().tablePartials();
 	}
 	
 	@Override
 	public void addSetting(TableSetting setting, String value) {
+		requireMutable();
 		settings.put(setting, value);
+		invalidate();
 	}
 	
 	public Map<TableSetting, String> getSettings() {
-		var result = new EnumMap<>(settings);
-		tablePartials.reversed().values().forEach(tp -> tp.getSettings().forEach(result::putIfAbsent));
-		return Collections.unmodifiableMap(result);
+		return resolve().settings();
 	}
 	
 	public Map<TableSetting, String> getLocalSettings() {
@@ -72,27 +101,32 @@ public class Table implements SettingHolder<TableSetting>, DatabaseElement {
 	}
 	
 	public Column getColumn(String columnName) {
-		return gatherColumns().get(columnName);
+		return resolve().columns().get(columnName);
 	}
 	
 	public Column addColumn(String columnName, String datatype) {
+		requireMutable();
 		var column = new Column(this, columnName, datatype);
 		var added = columns.putIfAbsent(columnName, column) == null;
+		if (added) {
+			local = null;
+			invalidate();
+		}
 		return added ? column : null;
 	}
 	
 	public Set<Column> getColumns() {
-		return Collections.unmodifiableSet(new LinkedHashSet<>(gatherColumns().values()));
+		return resolve().columnSet();
 	}
 	
 	protected final SequencedMap<String, Column> gatherColumns() {
-		var result = new LinkedHashMap<>(columns);
-		tablePartials.reversed().values().forEach(tp -> tp.gatherColumns().forEach((n, c) -> result.putIfAbsent(n, c.to(this))));
+		var result = new LinkedHashMap<String, Column>();
+		resolve().columnSet().forEach(c -> result.put(c.getName(), c));
 		return result;
 	}
 	
 	public Set<Column> getLocalColumns() {
-		return Collections.unmodifiableSet(new LinkedHashSet<>(columns.values()));
+		return local().columns();
 	}
 	
 	public Index getIndex(String indexName) {
@@ -101,19 +135,36 @@ public class Table implements SettingHolder<TableSetting>, DatabaseElement {
 	}
 	
 	public Index addIndex(List<String> columns) {
+		requireMutable();
 		var index = new Index(this, columns);
 		var added = indexes.add(index);
+		if (added) {
+			local = null;
+			invalidate();
+		}
 		return added ? index : null;
 	}
 	
 	public Set<Index> getIndexes() {
-		var result = new LinkedHashSet<>(indexes);
-		tablePartials.reversed().values().forEach(tp -> tp.getIndexes().forEach(i -> result.add(i.to(this))));
-		return Collections.unmodifiableSet(result);
+		return resolve().indexes();
 	}
 	
 	public Set<Index> getLocalIndexes() {
-		return Collections.unmodifiableSet(new LinkedHashSet<>(indexes));
+		return local().indexes();
+	}
+	
+	/**
+	 * @see Database#getRelationshipsFrom(Table)
+	 */
+	public Set<Relationship> getOutgoingRelationships() {
+		return schema.getDatabase().getRelationshipsFrom(this);
+	}
+	
+	/**
+	 * @see Database#getRelationshipsTo(Table)
+	 */
+	public Set<Relationship> getIncomingRelationships() {
+		return schema.getDatabase().getRelationshipsTo(this);
 	}
 	
 	public Alias getAlias() {
@@ -121,32 +172,139 @@ public class Table implements SettingHolder<TableSetting>, DatabaseElement {
 	}
 	
 	public void setAlias(Alias alias) {
+		requireMutable();
 		if (alias == null) {
+			unregisterAlias();
 			this.alias = null;
+			invalidate();
 		} else {
 			var aliasName = alias.getName();
 			if (!aliasName.isEmpty() && !alias.equals(this.alias)) {
-				if (schema.getDatabase().containsAlias(aliasName)) {
+				// only the tables of a schema are registered
+				if (schema.getTable(name) == this) {
+					if (!schema.getDatabase().registerAlias(alias, this)) {
+						throw new IllegalArgumentException("Alias '%s' is already defined".formatted(aliasName));
+					}
+					unregisterAlias();
+				} else if (schema.getDatabase().containsAlias(aliasName)) {
 					throw new IllegalArgumentException("Alias '%s' is already defined".formatted(aliasName));
 				}
 				this.alias = alias;
+				invalidate();
 			}
 		}
 	}
 	
+	final void registerAlias() {
+		if (alias != null && !schema.getDatabase().registerAlias(alias, this)) {
+			throw new IllegalArgumentException("Alias '%s' is already defined".formatted(alias.getName()));
+		}
+	}
+	
+	final void unregisterAlias() {
+		if (alias != null) {
+			schema.getDatabase().unregisterAlias(alias, this);
+		}
+	}
+	
 	public Note getNote() {
-		if (note != null) return note;
-		return tablePartials.reversed().values().stream().map(Table::getNote).filter(Objects::nonNull).findFirst().orElse(null);
+		return resolve().note();
 	}
 	
 	public void setNote(Note note) {
+		requireMutable();
 		this.note = note;
+		invalidate();
 	}
 	
 	public Note getLocalNote() {
 		return note;
 	}
 	
+	/**
+	 * Discards the resolved view of this table and of the tables depending on it.
+	 * A table only has a resolved view, if its table partials have one, thus the traversal can stop early.
+	 */
+	final void invalidate() {
+		if (resolved != null) {
+			resolved = null;
+			schema.invalidateContentHash();
+			if (dependents != null) dependents.forEach(Table::invalidate);
+		}
+	}
+	
+	final void requireMutable() {
+		schema.getDatabase().requireMutable();
+	}
+	
+	/**
+	 * Resolves this table and computes its content hash in advance, and replaces its collections by compact immutable ones.
+	 */
+	final void freeze() {
+		local = local().compact();
+		resolved = resolve().compact(local);
+		resolved.columnSet().forEach(Column::freeze);
+		local.columns().forEach(Column::freeze);
+		resolved.indexes().forEach(Index::freeze);
+		local.indexes().forEach(Index::freeze);
+		tablePartials = ArrayMap.copyOf(tablePartials);
+		settings = ArrayMap.copyOf(settings);
+		columns = Map.copyOf(columns);
+		indexes = local.indexes();
+		dependents = null;
+		getContentHash();
+	}
+	
+	/**
+	 * The hash of the name, alias, table partials and the resolved columns, indexes, settings and note,
+	 * thus it also changes with the table partials.
+	 *
+	 * @see Database#getContentHash()
+	 */
+	public long getContentHash() {
+		var result = resolve();
+		if (hashed != result) {
+			contentHash = new ContentHash().add(name).add(alias == null ? null : alias.getName())
+					.addOrdered(local().tablePartials(), tp -> new ContentHash().add(tp.getName()).get())
+					.addOrdered(result.columnSet(), Column::getContentHash)
+					.addOrdered(result.indexes(), Index::getContentHash)
+					.add(result.settings()).add(result.note()).get();
+			hashed = result;
+		}
+		return contentHash;
+	}
+	
+	/**
+	 * The hash of what this table declares itself: the name, alias, names of its local table partials
+	 * and its local columns, indexes, settings and note. Unlike the content hash, it does not change with the table partials.
+	 */
+	public long getLocalContentHash() {
+		var result = local();
+		return new ContentHash().add(name).add(alias == null ? null : alias.getName())
+				.addOrdered(result.tablePartials(), tp -> new ContentHash().add(tp.getName()).get())
+				.addOrdered(result.columns(), Column::getContentHash)
+				.addOrdered(result.indexes(), Index::getContentHash)
+				.add(settings).add(note).get();
+	}
+	
+	private Local local() {
+		var result = local;
+		if (result == null) {
+			result = Local.of(this);
+			local = result;
+		}
+		return result;
+	}
+	
+	private Resolved resolve() {
+		var result = resolved;
+		if (result == null) {
+			result = Resolved.of(this);
+			resolved = result;
+		}
+		return result;
+	}
+	
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
@@ -169,4 +327,59 @@ public class Table implements SettingHolder<TableSetting>, DatabaseElement {
 	public void accept(DatabaseVisitor visitor) {
 		visitor.visit(this);
 	}
+	
+	/**
+	 * Unmodifiable snapshots of the local table partials, columns and indexes of a table,
+	 * which only change with the table itself.
+	 */
+	private record Local(Set<TablePartial> tablePartials, Set<Column> columns, Set<Index> indexes) {
+		static Local of(Table table) {
+			return new Local(Collections.unmodifiableSet(new LinkedHashSet<>(table.tablePartials.values())),
+					Collections.unmodifiableSet(new LinkedHashSet<>(table.columns.values())),
+					Collections.unmodifiableSet(new LinkedHashSet<>(table.indexes)));
+		}
+		
+		Local compact() {
+			return new Local(ArraySet.copyOf(tablePartials), ArraySet.copyOf(columns), ArraySet.copyOf(indexes));
+		}
+	}
+	
+	/**
+	 * The table partials, columns, indexes, settings and note of a table including those of its table partials.
+	 */
+	private record Resolved(
+			Set<TablePartial> tablePartials, Map<String, Column> columns, Set<Column> columnSet,
+			Set<Index> indexes, Map<TableSetting, String> settings, Note note
+	) {
+		static Resolved of(Table table) {
+			var tablePartials = new LinkedHashSet<>(table.tablePartials.values());
+			var columns = new LinkedHashMap<>(table.columns);
+			var indexes = new LinkedHashSet<>(table.indexes);
+			var settings = new EnumMap<TableSetting, String>(TableSetting.class);
+			settings.putAll(table.settings);
+			var note = table.note;
+			for (Table tablePartial : table.tablePartials.reversed().values()) {
+				var partial = tablePartial.resolve();
+				tablePartials.addAll(partial.tablePartials);
+				partial.columnSet.forEach(c -> columns.putIfAbsent(c.getName(), c.to(table)));
+				partial.indexes.forEach(i -> indexes.add(i.to(table)));
+				partial.settings.forEach(settings::putIfAbsent);
+				if (note == null) note = partial.note;
+			}
+			return new Resolved(Collections.unmodifiableSet(tablePartials), Collections.unmodifiableSequencedMap(columns),
+					Collections.unmodifiableSet(new LinkedHashSet<>(columns.values())),
+					Collections.unmodifiableSet(indexes), Collections.unmodifiableMap(settings), note);
+		}
+		
+		/**
+		 * The same view in compact immutable collections. The resolved elements start with the local ones,
+		 * thus the local collections are shared, if there are no injected elements.
+		 */
+		Resolved compact(Local local) {
+			return new Resolved(local.tablePartials().size() == tablePartials.size() ? local.tablePartials() : ArraySet.copyOf(tablePartials),
+					Map.copyOf(columns), local.columns().size() == columnSet.size() ? local.columns() : ArraySet.copyOf(columnSet),
+					local.indexes().size() == indexes.size() ? local.indexes() : ArraySet.copyOf(indexes),
+					ArrayMap.copyOf(settings), note);
+		}
+	}
 }
@@ -13,9 +13,10 @@ import java.util.Set;
 
 public class TableGroup implements SettingHolder<TableGroupSetting>, DatabaseElement {
 	private final String name;
-	private final Map<TableGroupSetting, String> settings = new EnumMap<>(TableGroupSetting.class);
-	private final Set<Table> tables = new LinkedHashSet<>();
+	private Map<TableGroupSetting, String> settings = new EnumMap<>(TableGroupSetting.class);
+	private Set<Table> tables = new LinkedHashSet<>();
 	private Note note;
+	private boolean frozen;
 	
 	TableGroup(String name) {
 		this.name = Name.requireNonEmpty(name);
@@ -27,6 +28,7 @@ public class TableGroup implements SettingHolder<TableGroupSetting>, DatabaseEle
 	
 	@Override
 	public void addSetting(TableGroupSetting setting, String value) {
+		Database.requireMutable(frozen);
 		settings.put(setting, value);
 	}
 	
@@ -35,6 +37,7 @@ public class TableGroup implements SettingHolder<TableGroupSetting>, DatabaseEle
 	}
 	
 	public boolean addTable(Table table) {
+		Database.requireMutable(frozen);
 		return tables.add(table);
 	}
 	
@@ -47,9 +50,27 @@ public class TableGroup implements SettingHolder<TableGroupSetting>, DatabaseEle
 	}
 	
 	public void setNote(Note note) {
+		Database.requireMutable(frozen);
 		this.note = note;
 	}
 	
+	/**
+	 * The hash of the name, settings, note and the names of the tables, computed on each call.
+	 *
+	 * @see Database#getContentHash()
+	 */
+	public long getContentHash() {
+		return new ContentHash().add(name).add(settings).add(note)
+				.addOrdered(tables, t -> new ContentHash().add(t.getSchema().getName()).add(t.getName()).get())
+				.get();
+	}
+	
+	void freeze() {
+		settings = ArrayMap.copyOf(settings);
+		tables = ArraySet.copyOf(tables);
+		frozen = true;
+	}
+	
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
@@ -0,0 +1,130 @@
+package com.wn.dbml.printer;
+
+import com.wn.dbml.model.Database;
+import com.wn.dbml.model.Enum;
+import com.wn.dbml.model.Relationship;
+import com.wn.dbml.model.Table;
+import com.wn.dbml.model.TableGroup;
+import com.wn.dbml.visitor.DatabaseElement;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+
+/**
+ * Prints a database repeatedly, reusing the DBML of the elements, which did not change since the last print.
+ * <p>
+ * The DBML of each table, table partial, enum, relationship and table group is kept with a fingerprint of its printed content,
+ * which is its content hash, see {@link Database#getContentHash()}, or for a table its local content hash,
+ * see {@link Table#getLocalContentHash()}.
+ * An element is only printed again if its fingerprint changed, the DBML is the same as that of a new {@link DbmlPrinter}.
+ * Elements that are not printed anymore are removed from the cache.
+ * A printer is not thread-safe.
+ */
+public final class CachingDbmlPrinter {
+	private final DbmlFormatter formatter;
+	private Map<DatabaseElement, Fragment> fragments = new HashMap<>();
+	private long hits, misses;
+	
+	public CachingDbmlPrinter() {
+		this(new DbmlFormatter.Builder().build());
+	}
+	
+	public CachingDbmlPrinter(DbmlFormatter formatter) {
+		this.formatter = Objects.requireNonNull(formatter);
+	}
+	
+	/**
+	 * Creates DBML from a database.
+	 *
+	 * @param database a database
+	 */
+	public String print(Database database) {
+		var printer = new DbmlPrinter(formatter);
+		print(database, printer);
+		return printer.toString();
+	}
+	
+	/**
+	 * Streams DBML from a database to an output.
+	 *
+	 * @param database a database
+	 * @param out      the output, which is flushed but not closed
+	 */
+	public void print(Database database, Appendable out) {
+		var printer = new DbmlPrinter(out, formatter);
+		print(database, printer);
+		printer.flush();
+	}
+	
+	private void print(Database database, DbmlPrinter printer) {
+		var previous = fragments;
+		fragments = HashMap.newHashMap(previous.size());
+		DbmlPrinter.forEachElement(database, element -> {
+			var fingerprint = fingerprint(element);
+			if (fingerprint.isEmpty()) {
+				// the project and named notes are few and cheap to print
+				element.accept(printer);
+				return;
+			}
+			var fragment = previous.get(element);
+			if (fragment != null && fragment.fingerprint() == fingerprint.getAsLong()) {
+				hits++;
+			} else {
+				misses++;
+				var elementPrinter = new DbmlPrinter(formatter);
+				element.accept(elementPrinter);
+				fragment = new Fragment(fingerprint.getAsLong(), elementPrinter.toString(), elementPrinter.getLinebreaks());
+			}
+			fragments.put(element, fragment);
+			printer.append(fragment.text(), fragment.linebreaks());
+		});
+	}
+	
+	private static OptionalLong fingerprint(DatabaseElement element) {
+		return switch (element) {
+			// a table only prints its local elements
+			case Table table -> OptionalLong.of(table.getLocalContentHash());
+			case Enum anEnum -> OptionalLong.of(anEnum.getContentHash());
+			case Relationship relationship -> OptionalLong.of(relationship.getContentHash());
+			case TableGroup tableGroup -> OptionalLong.of(fingerprint(tableGroup));
+			default -> OptionalLong.empty();
+		};
+	}
+	
+	/**
+	 * A table group is printed with the aliases of its tables, which are not part of its content hash.
+	 */
+	private static long fingerprint(TableGroup tableGroup) {
+		var fingerprint = tableGroup.getContentHash();
+		for (var table : tableGroup.getTables()) {
+			fingerprint = 31 * fingerprint + (table.getAlias() == null ? 0 : table.getAlias().getName().hashCode());
+		}
+		return fingerprint;
+	}
+	
+	/**
+	 * Removes the DBML of all elements.
+	 */
+	public void clear() {
+		fragments.clear();
+	}
+	
+	public Stats getStats() {
+		return new Stats(fragments.size(), hits, misses);
+	}
+	
+	/**
+	 * The statistics of a printer since its creation.
+	 *
+	 * @param size   the number of elements, whose DBML is kept
+	 * @param hits   the number of elements, whose DBML was reused
+	 * @param misses the number of printed elements
+	 */
+	public record Stats(int size, long hits, long misses) {
+	}
+	
+	private record Fragment(long fingerprint, String text, int linebreaks) {
+	}
+}
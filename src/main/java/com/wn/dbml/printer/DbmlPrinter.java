@@ -4,166 +4,314 @@ import com.wn.dbml.model.Column;
 import com.wn.dbml.model.ColumnSetting;
 import com.wn.dbml.model.Database;
 import com.wn.dbml.model.Enum;
-import com.wn.dbml.model.EnumValue;
 import com.wn.dbml.model.Index;
 import com.wn.dbml.model.IndexSetting;
 import com.wn.dbml.model.NamedNote;
+import com.wn.dbml.model.Note;
 import com.wn.dbml.model.Project;
 import com.wn.dbml.model.Relationship;
 import com.wn.dbml.model.Schema;
+import com.wn.dbml.model.Setting;
 import com.wn.dbml.model.Table;
 import com.wn.dbml.model.TableGroup;
 import com.wn.dbml.model.TablePartial;
 import com.wn.dbml.util.Char;
 import com.wn.dbml.util.Chars;
+import com.wn.dbml.visitor.DatabaseElement;
 import com.wn.dbml.visitor.DatabaseVisitor;
 
-import java.util.ArrayList;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 /**
  * Creates DBML from a database representation.
+ * <p>
+ * By default, the DBML is collected and returned by {@link #toString()}.
+ * Alternatively, it is streamed to an output through a buffer of a bounded size and completed by {@link #flush()}.
+ * Linebreaks are only written when followed by text, so the blank lines after the last element are omitted in both cases.
  */
 public class DbmlPrinter implements DatabaseVisitor {
+	static final int BUFFER_SIZE = 8192;
 	private final StringBuilder sb = new StringBuilder();
+	private final Appendable out;
 	private final DbmlFormatter formatter;
+	private String[] indentations = {Chars.EMPTY};
 	private int level = 0;
+	private int linebreaks = 0;
 	
 	public DbmlPrinter() {
 		this(new DbmlFormatter.Builder().build());
 	}
 	
 	public DbmlPrinter(DbmlFormatter formatter) {
+		this.out = null;
 		this.formatter = formatter;
 	}
 	
-	private void println(Consumer<StringBuilder> line) {
-		indent();
-		line.accept(sb);
-		println();
+	/**
+	 * @see #DbmlPrinter(Appendable, DbmlFormatter)
+	 */
+	public DbmlPrinter(Appendable out) {
+		this(out, new DbmlFormatter.Builder().build());
+	}
+	
+	/**
+	 * Creates a printer streaming to an output.
+	 *
+	 * @param out the output, e.g. a {@link java.io.Writer}, which is flushed but not closed by {@link #flush()}
+	 */
+	public DbmlPrinter(Appendable out, DbmlFormatter formatter) {
+		this.out = Objects.requireNonNull(out);
+		this.formatter = formatter;
+	}
+	
+	/**
+	 * Creates a printer streaming UTF-8 to a channel.
+	 *
+	 * @see #DbmlPrinter(Appendable, DbmlFormatter)
+	 */
+	public DbmlPrinter(WritableByteChannel channel, DbmlFormatter formatter) {
+		this(Channels.newWriter(channel, StandardCharsets.UTF_8), formatter);
+	}
+	
+	/**
+	 * Starts a line, which is appended to {@link #sb} and ended by {@link #endLine()}.
+	 */
+	private StringBuilder startLine() {
+		for (; linebreaks > 0; linebreaks--) sb.append(formatter.getLinebreak());
+		return sb.append(indentation(level));
 	}
 	
-	private void indent() {
-		for (int i = 0; i < level; i++) sb.append(formatter.getIndentation());
+	private String indentation(int level) {
+		if (level >= indentations.length) {
+			indentations = Arrays.copyOf(indentations, level + 1);
+		}
+		var indentation = indentations[level];
+		if (indentation == null) {
+			indentation = formatter.getIndentation().repeat(level);
+			indentations[level] = indentation;
+		}
+		return indentation;
+	}
+	
+	private void endLine() {
+		println();
+		if (out != null && sb.length() >= BUFFER_SIZE) {
+			write();
+		}
 	}
 	
 	private void println() {
-		sb.append(formatter.getLinebreak());
+		linebreaks++;
+	}
+	
+	private void write() {
+		try {
+			out.append(sb);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		sb.setLength(0);
+	}
+	
+	private void appendString(String s) {
+		var quote = Chars.hasLinebreak(s) ? "'''" : "'";
+		sb.append(quote).append(s).append(quote);
 	}
 	
-	private String quoteString(String s) {
-		return Chars.hasLinebreak(s) ? "'''" + s + "'''" : '\'' + s + '\'';
+	private void appendColumnType(String s) {
+		for (int i = 0; i < s.length(); i++) {
+			var c = s.charAt(i);
+			if (!Char.isWordChar(c) && c != '(' && c != ')') {
+				sb.append('"').append(s).append('"');
+				return;
+			}
+		}
+		sb.append(s);
+	}
+	
+	private void appendColumnDefault(String s, boolean expression) {
+		if (expression) {
+			sb.append('`').append(s).append('`');
+		} else if (s.equals("null") || Chars.isNumber(s)) {
+			sb.append(s);
+		} else {
+			appendString(s);
+		}
+	}
+	
+	/**
+	 * Appends the separator before a setting.
+	 *
+	 * @param first true, if it is the first setting of the list
+	 * @return false, as the following setting is not the first one
+	 */
+	private boolean startSetting(boolean first) {
+		sb.append(first ? " [" : ", ");
+		return false;
 	}
 	
-	private String quoteColumnType(String s) {
-		return s.chars().allMatch(c -> Char.isWordChar(c) || c == '(' || c == ')') ? s : '"' + s + '"';
+	private void endSettings(boolean first) {
+		if (!first) sb.append(']');
 	}
 	
-	private String quoteColumnDefault(String s) {
-		return s.equals("null") || Chars.isNumber(s) ? s : quoteString(s);
+	private boolean appendNoteSetting(Note note, boolean first) {
+		if (hasNote(note)) {
+			first = startSetting(first);
+			sb.append("note: ");
+			appendString(note.getValue());
+		}
+		return first;
+	}
+	
+	private void appendSettings(Map<? extends Setting, String> settings) {
+		var first = true;
+		for (var entry : settings.entrySet()) {
+			first = startSetting(first);
+			sb.append(entry.getKey());
+			if (entry.getValue() != null) sb.append(": ").append(entry.getValue());
+		}
+		endSettings(first);
+	}
+	
+	private static boolean hasNote(Note note) {
+		return note != null && !note.getValue().isBlank();
+	}
+	
+	private void printNote(Note note) {
+		if (hasNote(note)) {
+			println();
+			startLine().append("Note: ");
+			appendString(note.getValue());
+			endLine();
+		}
 	}
 	
 	private void endLevel() {
 		level--;
-		println(sb -> sb.append('}'));
+		startLine().append('}');
+		endLine();
 		println();
 	}
 	
 	@Override
 	public void visit(Column column) {
-		println(sb -> sb.append(column).append(' ').append(quoteColumnType(column.getType())).append(columnSettings(column)));
-	}
-	
-	private String columnSettings(Column column) {
-		var list = new ArrayList<String>();
-		if (!column.getSettings().isEmpty()) {
-			column.getSettings().forEach((k, v) -> list.add(k == ColumnSetting.DEFAULT ? k + ": " + quoteColumnDefault(v) : k.toString()));
-		}
-		if (column.getNote() != null && !column.getNote().getValue().isBlank()) {
-			list.add("note: " + quoteString(column.getNote().getValue()));
+		startLine().append(column).append(' ');
+		appendColumnType(column.getType());
+		var first = true;
+		for (var entry : column.getSettings().entrySet()) {
+			first = startSetting(first);
+			sb.append(entry.getKey());
+			if (entry.getKey() == ColumnSetting.DEFAULT) {
+				sb.append(": ");
+				appendColumnDefault(entry.getValue(), column.isDefaultExpression());
+			}
 		}
-		return list.isEmpty() ? Chars.EMPTY : list.stream().collect(Collectors.joining(", ", " [", "]"));
+		endSettings(appendNoteSetting(column.getNote(), first));
+		endLine();
 	}
 	
 	@Override
 	public void visit(Database database) {
+		forEachElement(database, e -> e.accept(this));
+	}
+	
+	/**
+	 * Passes the top-level elements of a database in the printed order.
+	 */
+	static void forEachElement(Database database, Consumer<DatabaseElement> action) {
 		if (database.getProject() != null) {
-			database.getProject().accept(this);
+			action.accept(database.getProject());
+		}
+		for (var schema : database.getSchemas()) {
+			schema.getEnums().forEach(action);
 		}
-		database.getSchemas().stream().flatMap(s -> s.getEnums().stream()).forEach(e -> e.accept(this));
-		database.getTablePartials().forEach(tp -> tp.accept(this));
-		database.getSchemas().stream().flatMap(s -> s.getTables().stream()).forEach(t -> t.accept(this));
-		database.getRelationships().forEach(r -> r.accept(this));
-		database.getTableGroups().forEach(tg -> tg.accept(this));
-		database.getNamedNotes().forEach(nn -> nn.accept(this));
+		database.getTablePartials().forEach(action);
+		for (var schema : database.getSchemas()) {
+			schema.getTables().forEach(action);
+		}
+		database.getRelationships().forEach(action);
+		database.getTableGroups().forEach(action);
+		database.getNamedNotes().forEach(action);
 	}
 	
 	@Override
 	public void visit(Enum anEnum) {
-		println(sb -> sb.append("enum ").append(anEnum).append(" {"));
+		startLine().append("enum ").append(anEnum).append(" {");
+		endLine();
 		level++;
-		anEnum.getValues().forEach(ev -> println(sb -> sb.append(ev).append(enumSettings(ev))));
+		for (var value : anEnum.getValues()) {
+			startLine().append(value);
+			endSettings(appendNoteSetting(value.getNote(), true));
+			endLine();
+		}
 		endLevel();
 	}
 	
-	private String enumSettings(EnumValue value) {
-		return value.getNote() != null && !value.getNote().getValue().isBlank() ? " [note: " + quoteString(value.getNote().getValue()) + ']' : Chars.EMPTY;
-	}
-	
 	@Override
 	public void visit(Index index) {
-		println(sb -> sb.append(index).append(indexSettings(index)));
-	}
-	
-	private String indexSettings(Index index) {
-		var list = new ArrayList<String>();
-		if (!index.getSettings().isEmpty()) {
-			index.getSettings().forEach((k, v) -> list.add(v == null ? k.toString() : k + ": " + (k == IndexSetting.NAME ? quoteString(v) : v)));
-		}
-		if (index.getNote() != null && !index.getNote().getValue().isBlank()) {
-			list.add("note: " + quoteString(index.getNote().getValue()));
+		startLine().append(index);
+		var first = true;
+		for (var entry : index.getSettings().entrySet()) {
+			first = startSetting(first);
+			sb.append(entry.getKey());
+			var value = entry.getValue();
+			if (value == null) {
+				continue;
+			}
+			sb.append(": ");
+			if (entry.getKey() == IndexSetting.NAME) {
+				appendString(value);
+			} else {
+				sb.append(value);
+			}
 		}
-		return list.isEmpty() ? Chars.EMPTY : list.stream().collect(Collectors.joining(", ", " [", "]"));
+		endSettings(appendNoteSetting(index.getNote(), first));
+		endLine();
 	}
 	
 	@Override
 	public void visit(NamedNote namedNote) {
-		println(sb -> sb.append("Note ").append(namedNote.getName()).append(" {"));
+		startLine().append("Note ").append(namedNote.getName()).append(" {");
+		endLine();
 		level++;
-		println(sb -> sb.append(quoteString(namedNote.getValue())));
+		startLine();
+		appendString(namedNote.getValue());
+		endLine();
 		endLevel();
 	}
 	
 	@Override
 	public void visit(Project project) {
-		println(sb -> sb.append("Project ").append(project).append(" {"));
+		startLine().append("Project ").append(project).append(" {");
+		endLine();
 		level++;
-		project.getProperties().forEach((k, v) -> println(sb -> sb.append(k).append(": '").append(v).append('\'')));
-		if (project.getNote() != null && !project.getNote().getValue().isBlank()) {
-			println();
-			println(sb -> sb.append("Note: ").append(quoteString(project.getNote().getValue())));
+		for (var property : project.getProperties().entrySet()) {
+			startLine().append(property.getKey()).append(": '").append(property.getValue()).append('\'');
+			endLine();
 		}
+		printNote(project.getNote());
 		endLevel();
 	}
 	
 	@Override
 	public void visit(Relationship relationship) {
-		println(sb -> sb.append("Ref").append(relationshipName(relationship)).append(": ").append(relationship).append(relationshipSettings(relationship)));
+		startLine().append("Ref");
+		if (relationship.getName() != null) sb.append(' ').append(relationship.getName());
+		sb.append(": ").append(relationship);
+		appendSettings(relationship.getSettings());
+		endLine();
 		println();
 	}
 	
-	private String relationshipName(Relationship relationship) {
-		return relationship.getName() == null ? Chars.EMPTY : " " + relationship.getName();
-	}
-	
-	private String relationshipSettings(Relationship relationship) {
-		return relationship.getSettings().isEmpty() ? Chars.EMPTY
-				: relationship.getSettings().entrySet().stream()
-				.map(e -> e.getValue() == null ? e.getKey().toString() : e.getKey() + ": " + e.getValue())
-				.collect(Collectors.joining(", ", " [", "]"));
-	}
-	
 	@Override
 	public void visit(Schema schema) {
 		schema.getEnums().forEach(e -> e.accept(this));
@@ -176,63 +324,103 @@ public class DbmlPrinter implements DatabaseVisitor {
 	}
 	
 	private void printTable(Table table, String name) {
-		println(sb -> sb.append(name).append(table).append(tableAlias(table)).append(tableSettings(table)).append(" {"));
+		startLine().append(name).append(table);
+		if (table.getAlias() != null) sb.append(" as ").append(table.getAlias());
+		appendSettings(table.getLocalSettings());
+		sb.append(" {");
+		endLine();
 		level++;
-		table.getLocalTablePartials().forEach(tp -> println(sb -> sb.append('~').append(tp)));
+		for (var tablePartial : table.getLocalTablePartials()) {
+			startLine().append('~').append(tablePartial);
+			endLine();
+		}
 		table.getLocalColumns().forEach(c -> c.accept(this));
 		if (!table.getLocalIndexes().isEmpty()) {
 			println();
-			println(sb -> sb.append("indexes").append(" {"));
+			startLine().append("indexes {");
+			endLine();
 			level++;
 			table.getLocalIndexes().forEach(i -> i.accept(this));
 			level--;
-			println(sb -> sb.append('}'));
-		}
-		if (table.getLocalNote() != null && !table.getLocalNote().getValue().isBlank()) {
-			println();
-			println(sb -> sb.append("Note: ").append(quoteString(table.getLocalNote().getValue())));
+			startLine().append('}');
+			endLine();
 		}
+		printNote(table.getLocalNote());
 		endLevel();
 	}
 	
-	private String tableAlias(Table table) {
-		return table.getAlias() == null ? Chars.EMPTY : " as " + table.getAlias();
-	}
-	
-	private String tableSettings(Table table) {
-		return table.getLocalSettings().isEmpty() ? Chars.EMPTY
-				: table.getLocalSettings().entrySet().stream()
-				.map(e -> e.getValue() == null ? e.getKey().toString() : e.getKey() + ": " + e.getValue())
-				.collect(Collectors.joining(", ", " [", "]"));
-	}
-	
 	@Override
 	public void visit(TableGroup tableGroup) {
-		println(sb -> sb.append("TableGroup ").append(tableGroup).append(tableGroupSettings(tableGroup)).append(" {"));
+		startLine().append("TableGroup ").append(tableGroup);
+		appendSettings(tableGroup.getSettings());
+		sb.append(" {");
+		endLine();
 		level++;
-		tableGroup.getTables().forEach(t -> println(sb -> sb.append(t.getAlias() == null ? t : t.getAlias())));
-		if (tableGroup.getNote() != null && !tableGroup.getNote().getValue().isBlank()) {
-			println();
-			println(sb -> sb.append("Note: ").append(quoteString(tableGroup.getNote().getValue())));
+		for (var table : tableGroup.getTables()) {
+			startLine().append(table.getAlias() == null ? table : table.getAlias());
+			endLine();
 		}
+		printNote(tableGroup.getNote());
 		endLevel();
 	}
 	
-	private String tableGroupSettings(TableGroup tableGroup) {
-		return tableGroup.getSettings().isEmpty() ? Chars.EMPTY
-				: tableGroup.getSettings().entrySet().stream()
-				.map(e -> e.getValue() == null ? e.getKey().toString() : e.getKey() + ": " + e.getValue())
-				.collect(Collectors.joining(", ", " [", "]"));
-	}
-	
 	@Override
 	public void visit(TablePartial tablePartial) {
 		printTable(tablePartial, "TablePartial ");
 	}
 	
+	/**
+	 * Appends the DBML of another printer, as if its elements were printed by this printer.
+	 */
+	void append(DbmlPrinter printer) {
+		append(printer.sb, printer.linebreaks);
+	}
+	
+	/**
+	 * Appends printed DBML.
+	 *
+	 * @param text       the DBML without its trailing linebreaks
+	 * @param linebreaks the number of trailing linebreaks
+	 */
+	void append(CharSequence text, int linebreaks) {
+		if (text.isEmpty()) {
+			this.linebreaks += linebreaks;
+			return;
+		}
+		startLine().append(text);
+		this.linebreaks = linebreaks;
+		if (out != null && sb.length() >= BUFFER_SIZE) {
+			write();
+		}
+	}
+	
+	int getLinebreaks() {
+		return linebreaks;
+	}
+	
+	/**
+	 * Writes the buffered DBML to the output and flushes it, if it is streamed.
+	 * Further elements may be printed afterwards.
+	 */
+	public void flush() {
+		if (out == null) {
+			return;
+		}
+		write();
+		if (out instanceof Flushable flushable) {
+			try {
+				flushable.flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+	
+	/**
+	 * @return the DBML, or the DBML not yet written to the output, if it is streamed
+	 */
 	@Override
 	public String toString() {
-		var len = formatter.getLinebreak().length();
-		return sb.delete(sb.length() - 2 * len, sb.length()).toString();
+		return sb.toString();
 	}
 }
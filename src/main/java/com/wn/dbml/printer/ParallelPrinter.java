@@ -0,0 +1,102 @@
+package com.wn.dbml.printer;
+
+import com.wn.dbml.model.Database;
+import com.wn.dbml.visitor.DatabaseElement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Prints the top-level elements of a database in parallel.
+ * <p>
+ * The enums, table partials, tables, relationships, table groups and named notes are split into parts of consecutive elements,
+ * which are printed by the tasks of a {@link ForkJoinPool} into their own buffers and concatenated in order.
+ * The DBML is the same as that of a {@link DbmlPrinter}.
+ * The elements must not be changed while printing.
+ */
+public final class ParallelPrinter {
+	private static final int MIN_PART_SIZE = 64;
+	private static final int PARTS_PER_THREAD = 4;
+	private final ForkJoinPool pool;
+	private final DbmlFormatter formatter;
+	private final int minPartSize;
+	
+	public ParallelPrinter() {
+		this(ForkJoinPool.commonPool());
+	}
+	
+	public ParallelPrinter(ForkJoinPool pool) {
+		this(pool, new DbmlFormatter.Builder().build(), MIN_PART_SIZE);
+	}
+	
+	/**
+	 * @param pool        the pool printing the parts
+	 * @param formatter   the formatter of the DBML
+	 * @param minPartSize the minimum number of elements of a part, databases with fewer elements are printed serially,
+	 *                    as are all databases if the pool has a single thread
+	 */
+	public ParallelPrinter(ForkJoinPool pool, DbmlFormatter formatter, int minPartSize) {
+		if (minPartSize < 1) throw new IllegalArgumentException("Illegal size: " + minPartSize);
+		this.pool = Objects.requireNonNull(pool);
+		this.formatter = Objects.requireNonNull(formatter);
+		this.minPartSize = minPartSize;
+	}
+	
+	/**
+	 * Creates DBML from a database.
+	 *
+	 * @param database a database
+	 */
+	public String print(Database database) {
+		var printer = new DbmlPrinter(formatter);
+		print(database, printer);
+		return printer.toString();
+	}
+	
+	/**
+	 * Streams DBML from a database to an output.
+	 *
+	 * @param database a database
+	 * @param out      the output, which is flushed but not closed
+	 */
+	public void print(Database database, Appendable out) {
+		var printer = new DbmlPrinter(out, formatter);
+		print(database, printer);
+		printer.flush();
+	}
+	
+	private void print(Database database, DbmlPrinter printer) {
+		var elements = new ArrayList<DatabaseElement>();
+		DbmlPrinter.forEachElement(database, elements::add);
+		var partSize = Math.max(minPartSize, elements.size() / (pool.getParallelism() * PARTS_PER_THREAD));
+		if (pool.getParallelism() < 2 || elements.size() < 2 * partSize) {
+			database.accept(printer);
+			return;
+		}
+		var tasks = new ArrayList<ForkJoinTask<DbmlPrinter>>(elements.size() / partSize + 1);
+		for (int start = 0; start < elements.size(); start += partSize) {
+			var part = elements.subList(start, Math.min(start + partSize, elements.size()));
+			tasks.add(pool.submit(() -> printPart(part)));
+		}
+		try {
+			for (var task : tasks) {
+				printer.append(task.join());
+			}
+		} finally {
+			for (var task : tasks) {
+				task.cancel(false);
+			}
+		}
+	}
+	
+	private DbmlPrinter printPart(List<DatabaseElement> part) {
+		var printer = new DbmlPrinter(formatter);
+		for (var element : part) {
+			element.accept(printer);
+		}
+		return printer;
+	}
+}
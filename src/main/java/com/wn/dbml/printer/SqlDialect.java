@@ -0,0 +1,38 @@
+package com.wn.dbml.printer;
+
+/**
+ * The SQL dialects of a {@link SqlPrinter}.
+ */
+public enum SqlDialect {
+	POSTGRESQL('"', false),
+	MYSQL('`', true),
+	;
+	
+	private final char identifierQuote;
+	private final boolean backslashEscapes;
+	
+	SqlDialect(char identifierQuote, boolean backslashEscapes) {
+		this.identifierQuote = identifierQuote;
+		this.backslashEscapes = backslashEscapes;
+	}
+	
+	void appendIdentifier(StringBuilder sb, String identifier) {
+		sb.append(identifierQuote);
+		for (int i = 0; i < identifier.length(); i++) {
+			var c = identifier.charAt(i);
+			if (c == identifierQuote) sb.append(c);
+			sb.append(c);
+		}
+		sb.append(identifierQuote);
+	}
+	
+	void appendString(StringBuilder sb, String s) {
+		sb.append('\'');
+		for (int i = 0; i < s.length(); i++) {
+			var c = s.charAt(i);
+			if (c == '\'' || c == '\\' && backslashEscapes) sb.append(c);
+			sb.append(c);
+		}
+		sb.append('\'');
+	}
+}
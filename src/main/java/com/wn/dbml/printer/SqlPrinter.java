@@ -0,0 +1,593 @@
+package com.wn.dbml.printer;
+
+import com.wn.dbml.model.Column;
+import com.wn.dbml.model.ColumnSetting;
+import com.wn.dbml.model.Database;
+import com.wn.dbml.model.Enum;
+import com.wn.dbml.model.Index;
+import com.wn.dbml.model.IndexSetting;
+import com.wn.dbml.model.NamedNote;
+import com.wn.dbml.model.Note;
+import com.wn.dbml.model.Project;
+import com.wn.dbml.model.Relation;
+import com.wn.dbml.model.Relationship;
+import com.wn.dbml.model.RelationshipSetting;
+import com.wn.dbml.model.Schema;
+import com.wn.dbml.model.Table;
+import com.wn.dbml.model.TableGroup;
+import com.wn.dbml.model.TablePartial;
+import com.wn.dbml.util.Chars;
+import com.wn.dbml.visitor.DatabaseVisitor;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * Creates SQL DDL from a database representation.
+ * <p>
+ * Visiting a database writes a script creating its schemas, enums, tables, indexes and foreign keys.
+ * Tables are created after the tables they reference, so that their foreign keys are part of their definition.
+ * Only the foreign keys of tables referencing each other in a cycle are added at the end.
+ * A many-to-many relationship creates a junction table referencing both tables.
+ * Visiting another element writes the statements creating that element.
+ * <p>
+ * The DDL is streamed to the output through a buffer of a bounded size, a database is flushed after visiting it.
+ * Default values are written as expressions, if they are expressions in DBML, e.g. {@code `now()`}, and as string literals,
+ * unless they are numbers, booleans or null.
+ */
+public class SqlPrinter implements DatabaseVisitor {
+	private static final String INDENTATION = "  ";
+	private final StringBuilder sb = new StringBuilder();
+	private final Appendable out;
+	private final SqlDialect dialect;
+	private boolean statements;
+	// the foreign keys of the next table, whose referenced tables are already created
+	private List<ForeignKey> foreignKeys = List.of();
+	
+	/**
+	 * @param out     the output, e.g. a {@link java.io.Writer}, which is flushed but not closed
+	 * @param dialect the dialect of the DDL
+	 */
+	public SqlPrinter(Appendable out, SqlDialect dialect) {
+		this.out = Objects.requireNonNull(out);
+		this.dialect = Objects.requireNonNull(dialect);
+	}
+	
+	/**
+	 * Starts a statement, which is separated by a blank line from the previous one.
+	 */
+	private StringBuilder startStatement() {
+		if (statements) sb.append('\n');
+		statements = true;
+		return sb;
+	}
+	
+	private void endStatement() {
+		sb.append(";\n");
+		if (sb.length() >= DbmlPrinter.BUFFER_SIZE) {
+			write();
+		}
+	}
+	
+	private void write() {
+		try {
+			out.append(sb);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		sb.setLength(0);
+	}
+	
+	/**
+	 * Writes the buffered DDL to the output and flushes it.
+	 */
+	public void flush() {
+		write();
+		if (out instanceof Flushable flushable) {
+			try {
+				flushable.flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+	
+	private void appendIdentifier(String identifier) {
+		dialect.appendIdentifier(sb, identifier);
+	}
+	
+	private void appendName(String schema, String name) {
+		if (!schema.equals(Schema.DEFAULT_NAME)) {
+			appendIdentifier(schema);
+			sb.append('.');
+		}
+		appendIdentifier(name);
+	}
+	
+	private void appendName(Table table) {
+		appendName(table.getSchema().getName(), table.getName());
+	}
+	
+	private void appendColumnNames(List<String> columns) {
+		sb.append('(');
+		for (int i = 0; i < columns.size(); i++) {
+			if (i > 0) sb.append(", ");
+			appendIdentifier(columns.get(i));
+		}
+		sb.append(')');
+	}
+	
+	private static boolean hasNote(Note note) {
+		return note != null && !note.getValue().isBlank();
+	}
+	
+	/**
+	 * Writes a script creating the database.
+	 */
+	@Override
+	public void visit(Database database) {
+		database.getSchemas().forEach(s -> s.accept(this));
+		var tableForeignKeys = new HashMap<Table, List<ForeignKey>>();
+		for (var relationship : database.getRelationships()) {
+			var foreignKey = ForeignKey.of(relationship);
+			if (foreignKey != null) {
+				tableForeignKeys.computeIfAbsent(foreignKey.table(), t -> new ArrayList<>()).add(foreignKey);
+			}
+		}
+		var created = new HashSet<Table>();
+		var cyclic = new ArrayList<ForeignKey>();
+		for (var table : sortByDependencies(database, tableForeignKeys)) {
+			var inline = new ArrayList<ForeignKey>();
+			for (var foreignKey : tableForeignKeys.getOrDefault(table, List.of())) {
+				var referenced = foreignKey.referenced();
+				(referenced.equals(table) || created.contains(referenced) ? inline : cyclic).add(foreignKey);
+			}
+			created.add(table);
+			foreignKeys = inline;
+			table.accept(this);
+			foreignKeys = List.of();
+		}
+		for (var relationship : database.getRelationships()) {
+			if (relationship.getRelation() == Relation.MANY_TO_MANY) {
+				relationship.accept(this);
+			}
+		}
+		cyclic.forEach(this::printAlterTable);
+		flush();
+	}
+	
+	/**
+	 * Sorts the tables, so that tables come after the tables they reference, otherwise keeping their order.
+	 * A cycle is broken at its first table.
+	 */
+	private static List<Table> sortByDependencies(Database database, Map<Table, List<ForeignKey>> tableForeignKeys) {
+		var tables = new ArrayList<Table>();
+		database.getSchemas().forEach(s -> tables.addAll(s.getTables()));
+		var positions = HashMap.<Table, Integer>newHashMap(tables.size());
+		for (int i = 0; i < tables.size(); i++) {
+			positions.put(tables.get(i), i);
+		}
+		var missing = new int[tables.size()];
+		var dependents = new HashMap<Table, List<Integer>>();
+		tableForeignKeys.forEach((table, foreignKeys) -> {
+			for (var foreignKey : foreignKeys) {
+				if (!foreignKey.referenced().equals(table)) {
+					int position = positions.get(table);
+					missing[position]++;
+					dependents.computeIfAbsent(foreignKey.referenced(), t -> new ArrayList<>()).add(position);
+				}
+			}
+		});
+		var ready = new PriorityQueue<Integer>();
+		for (int i = 0; i < missing.length; i++) {
+			if (missing[i] == 0) ready.add(i);
+		}
+		var sorted = new ArrayList<Table>(tables.size());
+		var done = new boolean[tables.size()];
+		var next = 0;
+		while (sorted.size() < tables.size()) {
+			if (ready.isEmpty()) {
+				while (done[next]) next++;
+				ready.add(next);
+			}
+			int position = ready.poll();
+			if (done[position]) continue;
+			done[position] = true;
+			var table = tables.get(position);
+			sorted.add(table);
+			for (var dependent : dependents.getOrDefault(table, List.of())) {
+				if (--missing[dependent] == 0 && !done[dependent]) ready.add(dependent);
+			}
+		}
+		return sorted;
+	}
+	
+	@Override
+	public void visit(Schema schema) {
+		if (!schema.getName().equals(Schema.DEFAULT_NAME)) {
+			startStatement().append("CREATE SCHEMA IF NOT EXISTS ");
+			appendIdentifier(schema.getName());
+			endStatement();
+		}
+		schema.getEnums().forEach(e -> e.accept(this));
+	}
+	
+	/**
+	 * Creates the type of an enum, if the dialect has enum types. Otherwise, the columns of the enum are typed by its values.
+	 */
+	@Override
+	public void visit(Enum anEnum) {
+		if (dialect != SqlDialect.POSTGRESQL) {
+			return;
+		}
+		startStatement().append("CREATE TYPE ");
+		appendName(anEnum.getSchema().getName(), anEnum.getName());
+		sb.append(" AS ENUM (\n");
+		var first = true;
+		for (var value : anEnum.getValues()) {
+			if (!first) sb.append(",\n");
+			first = false;
+			sb.append(INDENTATION);
+			dialect.appendString(sb, value.getName());
+		}
+		sb.append("\n)");
+		endStatement();
+	}
+	
+	@Override
+	public void visit(Table table) {
+		var primaryKey = new ArrayList<String>();
+		for (var column : table.getColumns()) {
+			if (column.getSettings().containsKey(ColumnSetting.PRIMARY_KEY)) primaryKey.add(column.getName());
+		}
+		startStatement().append("CREATE TABLE ");
+		appendName(table);
+		sb.append(" (");
+		var first = true;
+		for (var column : table.getColumns()) {
+			first = startDefinition(first);
+			appendColumn(column, column.getName(), primaryKey.size() == 1);
+		}
+		if (primaryKey.size() > 1) {
+			first = startDefinition(first);
+			sb.append("PRIMARY KEY ");
+			appendColumnNames(primaryKey);
+		}
+		for (var index : table.getIndexes()) {
+			if (index.getSettings().containsKey(IndexSetting.PK)) {
+				first = startDefinition(first);
+				sb.append("PRIMARY KEY ");
+				appendIndexColumns(index);
+			}
+		}
+		for (var foreignKey : foreignKeys) {
+			first = startDefinition(first);
+			appendForeignKey(foreignKey);
+		}
+		sb.append("\n)");
+		if (dialect == SqlDialect.MYSQL && hasNote(table.getNote())) {
+			sb.append(" COMMENT=");
+			dialect.appendString(sb, table.getNote().getValue());
+		}
+		endStatement();
+		for (var index : table.getIndexes()) {
+			if (!index.getSettings().containsKey(IndexSetting.PK)) {
+				index.accept(this);
+			}
+		}
+		if (dialect == SqlDialect.POSTGRESQL) {
+			printComments(table);
+		}
+	}
+	
+	private boolean startDefinition(boolean first) {
+		sb.append(first ? "\n" : ",\n").append(INDENTATION);
+		return false;
+	}
+	
+	private void printComments(Table table) {
+		if (hasNote(table.getNote())) {
+			startStatement().append("COMMENT ON TABLE ");
+			appendName(table);
+			sb.append(" IS ");
+			dialect.appendString(sb, table.getNote().getValue());
+			endStatement();
+		}
+		for (var column : table.getColumns()) {
+			if (hasNote(column.getNote())) {
+				startStatement().append("COMMENT ON COLUMN ");
+				appendName(table);
+				sb.append('.');
+				appendIdentifier(column.getName());
+				sb.append(" IS ");
+				dialect.appendString(sb, column.getNote().getValue());
+				endStatement();
+			}
+		}
+	}
+	
+	/**
+	 * Writes the definition of a column, as part of its table.
+	 */
+	@Override
+	public void visit(Column column) {
+		appendColumn(column, column.getName(), true);
+	}
+	
+	private void appendColumn(Column column, String name, boolean primaryKey) {
+		appendIdentifier(name);
+		sb.append(' ');
+		appendType(column);
+		var settings = column.getSettings();
+		if (settings.containsKey(ColumnSetting.NOT_NULL)) sb.append(" NOT NULL");
+		if (settings.containsKey(ColumnSetting.DEFAULT)) {
+			sb.append(" DEFAULT ");
+			appendDefault(settings.get(ColumnSetting.DEFAULT), column.isDefaultExpression());
+		}
+		if (settings.containsKey(ColumnSetting.INCREMENT)) {
+			sb.append(dialect == SqlDialect.POSTGRESQL ? " GENERATED BY DEFAULT AS IDENTITY" : " AUTO_INCREMENT");
+		}
+		if (settings.containsKey(ColumnSetting.UNIQUE)) sb.append(" UNIQUE");
+		if (primaryKey && settings.containsKey(ColumnSetting.PRIMARY_KEY)) sb.append(" PRIMARY KEY");
+		if (dialect == SqlDialect.MYSQL && hasNote(column.getNote())) {
+			sb.append(" COMMENT ");
+			dialect.appendString(sb, column.getNote().getValue());
+		}
+	}
+	
+	private void appendType(Column column) {
+		var anEnum = findEnum(column);
+		if (anEnum == null) {
+			sb.append(column.getType());
+		} else if (dialect == SqlDialect.POSTGRESQL) {
+			appendName(anEnum.getSchema().getName(), anEnum.getName());
+		} else {
+			sb.append("ENUM(");
+			var first = true;
+			for (var value : anEnum.getValues()) {
+				if (!first) sb.append(", ");
+				first = false;
+				dialect.appendString(sb, value.getName());
+			}
+			sb.append(')');
+		}
+	}
+	
+	/**
+	 * @return the enum typing a column, which is in the schema of its table or the default schema, unless its schema is named
+	 */
+	private static Enum findEnum(Column column) {
+		var type = column.getType();
+		var schema = column.getTable().getSchema();
+		var database = schema.getDatabase();
+		var dot = type.lastIndexOf('.');
+		if (dot > 0) {
+			var enumSchema = database.getSchema(type.substring(0, dot));
+			return enumSchema == null ? null : enumSchema.getEnum(type.substring(dot + 1));
+		}
+		var anEnum = schema.getEnum(type);
+		if (anEnum == null && !schema.getName().equals(Schema.DEFAULT_NAME)) {
+			var defaultSchema = database.getSchema(Schema.DEFAULT_NAME);
+			anEnum = defaultSchema == null ? null : defaultSchema.getEnum(type);
+		}
+		return anEnum;
+	}
+	
+	private void appendDefault(String value, boolean expression) {
+		if (expression) {
+			// MySQL only accepts expressions in parentheses, besides the current timestamp
+			if (dialect == SqlDialect.MYSQL) {
+				sb.append('(').append(value).append(')');
+			} else {
+				sb.append(value);
+			}
+		} else if (value.equalsIgnoreCase("null") || value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+			sb.append(value.toUpperCase(Locale.ROOT));
+		} else if (!value.isEmpty() && Chars.isNumber(value)) {
+			sb.append(value);
+		} else {
+			dialect.appendString(sb, value);
+		}
+	}
+	
+	/**
+	 * Creates an index of a table, or adds it as primary key.
+	 */
+	@Override
+	public void visit(Index index) {
+		var settings = index.getSettings();
+		if (settings.containsKey(IndexSetting.PK)) {
+			startStatement().append("ALTER TABLE ");
+			appendName(index.getTable());
+			sb.append(" ADD PRIMARY KEY ");
+			appendIndexColumns(index);
+			endStatement();
+			return;
+		}
+		var unique = settings.containsKey(IndexSetting.UNIQUE) ? "UNIQUE " : Chars.EMPTY;
+		var name = settings.get(IndexSetting.NAME);
+		var type = settings.get(IndexSetting.TYPE);
+		if (dialect == SqlDialect.POSTGRESQL) {
+			startStatement().append("CREATE ").append(unique).append("INDEX ");
+			if (name != null) {
+				appendIdentifier(name);
+				sb.append(' ');
+			}
+			sb.append("ON ");
+			appendName(index.getTable());
+			if (type != null) sb.append(" USING ").append(type.toUpperCase(Locale.ROOT));
+			sb.append(' ');
+			appendIndexColumns(index);
+		} else {
+			startStatement().append("ALTER TABLE ");
+			appendName(index.getTable());
+			sb.append(" ADD ").append(unique).append("INDEX ");
+			if (name != null) {
+				appendIdentifier(name);
+				sb.append(' ');
+			}
+			appendIndexColumns(index);
+			if (type != null) sb.append(" USING ").append(type.toUpperCase(Locale.ROOT));
+		}
+		endStatement();
+	}
+	
+	/**
+	 * Appends the columns of an index, whose expressions are enclosed in parentheses.
+	 */
+	private void appendIndexColumns(Index index) {
+		sb.append('(');
+		var columns = index.getColumns();
+		for (int i = 0; i < columns.size(); i++) {
+			if (i > 0) sb.append(", ");
+			var column = columns.get(i);
+			if (index.getTable().containsColumn(column)) {
+				appendIdentifier(column);
+			} else {
+				sb.append('(').append(column).append(')');
+			}
+		}
+		sb.append(')');
+	}
+	
+	/**
+	 * Adds the foreign key of a relationship, or creates the junction table of a many-to-many relationship.
+	 */
+	@Override
+	public void visit(Relationship relationship) {
+		var foreignKey = ForeignKey.of(relationship);
+		if (foreignKey != null) {
+			printAlterTable(foreignKey);
+		} else {
+			printJunctionTable(relationship);
+		}
+	}
+	
+	private void printAlterTable(ForeignKey foreignKey) {
+		startStatement().append("ALTER TABLE ");
+		appendName(foreignKey.table());
+		sb.append(" ADD ");
+		appendForeignKey(foreignKey);
+		endStatement();
+	}
+	
+	private void appendForeignKey(ForeignKey foreignKey) {
+		if (foreignKey.name() != null) {
+			sb.append("CONSTRAINT ");
+			appendIdentifier(foreignKey.name());
+			sb.append(' ');
+		}
+		sb.append("FOREIGN KEY ");
+		appendColumnNames(foreignKey.columns());
+		sb.append(" REFERENCES ");
+		appendName(foreignKey.referenced());
+		sb.append(' ');
+		appendColumnNames(foreignKey.referencedColumns());
+		var delete = foreignKey.settings().get(RelationshipSetting.DELETE);
+		if (delete != null) sb.append(" ON DELETE ").append(delete.toUpperCase(Locale.ROOT));
+		var update = foreignKey.settings().get(RelationshipSetting.UPDATE);
+		if (update != null) sb.append(" ON UPDATE ").append(update.toUpperCase(Locale.ROOT));
+	}
+	
+	/**
+	 * Creates a table named after both tables, with a column named after each table and column.
+	 */
+	private void printJunctionTable(Relationship relationship) {
+		var from = relationship.getFrom();
+		var to = relationship.getTo();
+		var fromTable = from.getFirst().getTable();
+		var toTable = to.getFirst().getTable();
+		var fromPrefix = fromTable.getName() + '_';
+		var toPrefix = toTable.getName() + (toTable.getName().equals(fromTable.getName()) ? "2_" : "_");
+		var fromColumns = from.stream().map(c -> fromPrefix + c.getName()).toList();
+		var toColumns = to.stream().map(c -> toPrefix + c.getName()).toList();
+		startStatement().append("CREATE TABLE ");
+		appendName(fromTable.getSchema().getName(), fromTable.getName() + '_' + toTable.getName());
+		sb.append(" (");
+		for (int i = 0; i < from.size(); i++) {
+			startDefinition(i == 0);
+			appendJunctionColumn(from.get(i), fromColumns.get(i));
+		}
+		for (int i = 0; i < to.size(); i++) {
+			startDefinition(false);
+			appendJunctionColumn(to.get(i), toColumns.get(i));
+		}
+		startDefinition(false);
+		sb.append("PRIMARY KEY ");
+		var primaryKey = new ArrayList<>(fromColumns);
+		primaryKey.addAll(toColumns);
+		appendColumnNames(primaryKey);
+		var settings = relationship.getSettings();
+		startDefinition(false);
+		appendForeignKey(new ForeignKey(null, null, fromColumns, fromTable, names(from), settings));
+		startDefinition(false);
+		appendForeignKey(new ForeignKey(null, null, toColumns, toTable, names(to), settings));
+		sb.append("\n)");
+		endStatement();
+	}
+	
+	private void appendJunctionColumn(Column column, String name) {
+		appendIdentifier(name);
+		sb.append(' ');
+		appendType(column);
+		sb.append(" NOT NULL");
+	}
+	
+	private static List<String> names(List<Column> columns) {
+		return columns.stream().map(Column::getName).toList();
+	}
+	
+	@Override
+	public void visit(NamedNote namedNote) {
+	}
+	
+	@Override
+	public void visit(Project project) {
+	}
+	
+	@Override
+	public void visit(TableGroup tableGroup) {
+	}
+	
+	/**
+	 * Writes nothing, as the columns and indexes of a table partial are created with the tables injecting it.
+	 */
+	@Override
+	public void visit(TablePartial tablePartial) {
+	}
+	
+	/**
+	 * A foreign key of a table.
+	 *
+	 * @param name  the name of the constraint, may be null
+	 * @param table the table of the foreign key, null for a junction table
+	 */
+	private record ForeignKey(String name, Table table, List<String> columns, Table referenced, List<String> referencedColumns,
+	                          Map<RelationshipSetting, String> settings) {
+		
+		/**
+		 * @return the foreign key of a relationship, or null for a many-to-many relationship
+		 */
+		static ForeignKey of(Relationship relationship) {
+			return switch (relationship.getRelation()) {
+				case ONE_TO_MANY -> of(relationship, relationship.getTo(), relationship.getFrom());
+				case MANY_TO_ONE, ONE_TO_ONE -> of(relationship, relationship.getFrom(), relationship.getTo());
+				case MANY_TO_MANY -> null;
+			};
+		}
+		
+		private static ForeignKey of(Relationship relationship, List<Column> columns, List<Column> referenced) {
+			return new ForeignKey(relationship.getName(), columns.getFirst().getTable(), names(columns),
+					referenced.getFirst().getTable(), names(referenced), relationship.getSettings());
+		}
+	}
+}
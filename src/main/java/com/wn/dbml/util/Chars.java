@@ -1,7 +1,5 @@
 package com.wn.dbml.util;
 
-import java.util.Arrays;
-
 public final class Chars {
 	public static final String EMPTY = "";
 	
@@ -9,19 +7,41 @@ public final class Chars {
 	}
 	
 	public static boolean hasLinebreak(String s) {
-		return s.chars().anyMatch(Char::isLinebreak);
+		for (int i = 0; i < s.length(); i++) {
+			if (Char.isLinebreak(s.charAt(i))) return true;
+		}
+		return false;
 	}
 	
 	public static boolean isWordChars(String s) {
-		return s.chars().allMatch(Char::isWordChar);
+		for (int i = 0; i < s.length(); i++) {
+			if (!Char.isWordChar(s.charAt(i))) return false;
+		}
+		return true;
 	}
 	
+	/**
+	 * @return true, if the string consists of digits with at most one dot, not counting trailing dots,
+	 * like the parts of the string split at the dots
+	 */
 	public static boolean isNumber(String s) {
-		var split = s.split("\\.");
-		return 1 <= split.length && split.length <= 2 && Arrays.stream(split).flatMapToInt(String::chars).allMatch(Char::isDigit);
+		var end = s.length();
+		while (end > 0 && s.charAt(end - 1) == '.') end--;
+		if (end == 0) {
+			return s.isEmpty();
+		}
+		var dots = 0;
+		for (int i = 0; i < end; i++) {
+			var c = s.charAt(i);
+			if (c == '.' ? ++dots > 1 : !Char.isDigit(c)) return false;
+		}
+		return true;
 	}
 	
 	public static boolean isHexDigits(String s) {
-		return s.chars().allMatch(Char::isHexDigit);
+		for (int i = 0; i < s.length(); i++) {
+			if (!Char.isHexDigit(s.charAt(i))) return false;
+		}
+		return true;
 	}
 }
@@ -0,0 +1,75 @@
+package com.wn.dbml.util;
+
+/**
+ * A bounded table of strings, which returns the same instance for equal chars.
+ * Repeated identifiers, datatypes and setting values thus share one string instead of each keeping a copy.
+ * <p>
+ * Each slot keeps the last string hashed to it, so the table never grows and a collision only costs a duplicate.
+ * An interner can be used for one parse or shared by concurrent parses, as a slot is replaced atomically.
+ */
+public final class StringInterner {
+	public static final int DEFAULT_CAPACITY = 4096;
+	public static final int DEFAULT_MAX_LENGTH = 64;
+	private static final StringInterner SHARED = new StringInterner(16 * DEFAULT_CAPACITY, DEFAULT_MAX_LENGTH);
+	private final String[] table;
+	private final int maxLength;
+	
+	public StringInterner() {
+		this(DEFAULT_CAPACITY, DEFAULT_MAX_LENGTH);
+	}
+	
+	/**
+	 * @param capacity  the number of slots, which is rounded up to a power of two
+	 * @param maxLength the length of the longest string to intern, longer ones like notes are rarely repeated
+	 */
+	public StringInterner(int capacity, int maxLength) {
+		if (capacity < 1 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+		}
+		var size = Integer.highestOneBit(capacity);
+		this.table = new String[size < capacity ? size << 1 : size];
+		this.maxLength = maxLength;
+	}
+	
+	/**
+	 * An interner shared by all parses of the application.
+	 */
+	public static StringInterner shared() {
+		return SHARED;
+	}
+	
+	/**
+	 * Returns a string equal to the chars, which is the same instance as for previous equal chars, if still in the table.
+	 *
+	 * @param chars the chars, or null
+	 * @return the interned string, or null
+	 */
+	public String intern(CharSequence chars) {
+		if (chars == null || chars.length() > maxLength) {
+			return chars == null ? null : chars.toString();
+		}
+		var hash = hash(chars);
+		var index = (hash ^ hash >>> 16) & table.length - 1;
+		var interned = table[index];
+		if (interned != null && interned.hashCode() == hash && interned.contentEquals(chars)) {
+			return interned;
+		}
+		interned = chars.toString();
+		table[index] = interned;
+		return interned;
+	}
+	
+	/**
+	 * Computes {@link String#hashCode()} without creating the string.
+	 */
+	private static int hash(CharSequence chars) {
+		if (chars instanceof String s) {
+			return s.hashCode();
+		}
+		var hash = 0;
+		for (int i = 0; i < chars.length(); i++) {
+			hash = 31 * hash + chars.charAt(i);
+		}
+		return hash;
+	}
+}
@@ -0,0 +1,52 @@
+package com.wn.dbml.benchmark;
+
+import com.wn.dbml.binary.BinaryReader;
+import com.wn.dbml.binary.BinaryWriter;
+import com.wn.dbml.model.Database;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes and reads the binary format of a generated database, compared to {@link ParserBenchmark}.
+ * <p>
+ * Run with {@code mvn -P benchmark test -Djmh.args="'(Binary|Parser)Benchmark' -prof gc"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BinaryBenchmark {
+	private byte[] bytes;
+	
+	@Setup
+	public void setup(DbmlState state) throws IOException {
+		bytes = write(state).toByteArray();
+	}
+	
+	@Benchmark
+	public ByteArrayOutputStream write(DbmlState state) throws IOException {
+		var out = new ByteArrayOutputStream(bytes == null ? 8192 : bytes.length);
+		new BinaryWriter(out).write(state.database);
+		return out;
+	}
+	
+	@Benchmark
+	public Database read() throws IOException {
+		return new BinaryReader(new ByteArrayInputStream(bytes)).read();
+	}
+}
@@ -0,0 +1,83 @@
+package com.wn.dbml.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares two benchmark runs saved with {@code -rf csv -rff <file>}, showing the throughput and the allocated bytes
+ * per operation of the benchmarks contained in both runs.
+ * A change is marked with {@code *}, if it is larger than the sum of the score errors of both runs.
+ * <p>
+ * Run with {@code mvn -P benchmark test -Djmh.main=com.wn.dbml.benchmark.CompareRuns -Djmh.args="base.csv new.csv"}.
+ */
+public class CompareRuns {
+	
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: CompareRuns <base.csv> <new.csv>");
+			System.exit(1);
+		}
+		var base = read(Path.of(args[0]));
+		var next = read(Path.of(args[1]));
+		System.out.printf("%-100s %15s %15s %9s%n", "Benchmark", "Base", "New", "Change");
+		for (var entry : base.entrySet()) {
+			var baseResult = entry.getValue();
+			var nextResult = next.get(entry.getKey());
+			if (nextResult == null) continue;
+			var change = (nextResult.score - baseResult.score) / baseResult.score * 100;
+			var significant = Math.abs(nextResult.score - baseResult.score) > baseResult.error + nextResult.error;
+			System.out.printf("%-100s %15.3f %15.3f %+8.1f%% %s%n", entry.getKey(), baseResult.score, nextResult.score,
+					change, significant ? "*" : "");
+		}
+	}
+	
+	/**
+	 * Reads the primary and the normalized allocation results of a run, keyed by benchmark and parameters.
+	 */
+	private static Map<String, Result> read(Path file) throws IOException {
+		var lines = Files.readAllLines(file);
+		var header = split(lines.getFirst());
+		var results = new LinkedHashMap<String, Result>();
+		for (var line : lines.subList(1, lines.size())) {
+			var fields = split(line);
+			var benchmark = fields.get(0);
+			var secondary = benchmark.indexOf(':');
+			if (secondary != -1 && !benchmark.endsWith(":gc.alloc.rate.norm")) continue;
+			var method = benchmark.lastIndexOf('.', secondary == -1 ? benchmark.length() : secondary);
+			var key = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.', method - 1) + 1));
+			for (int i = 7; i < fields.size(); i++) {
+				key.append(' ').append(header.get(i).substring("Param: ".length())).append('=').append(fields.get(i));
+			}
+			var error = Double.parseDouble(fields.get(5));
+			results.put(key.toString(), new Result(Double.parseDouble(fields.get(4)), Double.isNaN(error) ? 0 : error));
+		}
+		return results;
+	}
+	
+	private static List<String> split(String line) {
+		var fields = new ArrayList<String>();
+		var field = new StringBuilder();
+		var quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			var c = line.charAt(i);
+			if (c == '"') {
+				quoted = !quoted;
+			} else if (c == ',' && !quoted) {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+	
+	private record Result(double score, double error) {
+	}
+}
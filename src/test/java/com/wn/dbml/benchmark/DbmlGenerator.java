@@ -0,0 +1,55 @@
+package com.wn.dbml.benchmark;
+
+import java.util.Random;
+
+/**
+ * Generates a valid synthetic DBML text. The same arguments always generate the same text.
+ *
+ * @param tables   the number of tables
+ * @param columns  the number of columns per table, besides the id and the reference columns
+ * @param refs     the number of references per table, to random preceding tables
+ * @param partials the number of table partials, each table injects one of them
+ * @param notes    whether the elements have notes
+ */
+public record DbmlGenerator(int tables, int columns, int refs, int partials, boolean notes) {
+	private static final String[] TYPES = {"integer", "varchar(255)", "timestamp", "boolean", "decimal(10,2)", "text"};
+	
+	public String generate() {
+		var random = new Random(42);
+		var sb = new StringBuilder(tables * (columns + refs + 4) * 48);
+		sb.append("Project generated {\n  database_type: 'PostgreSQL'\n");
+		if (notes) sb.append("  Note: 'A generated project'\n");
+		sb.append("}\n\n");
+		for (int i = 0; i < partials; i++) {
+			sb.append("TablePartial partial").append(i).append(" {\n");
+			sb.append("  created_at timestamp [not null, default: `now()`]\n");
+			sb.append("  updated_by").append(i).append(" varchar(255)\n");
+			if (notes) sb.append("  Note: 'Partial ").append(i).append("'\n");
+			sb.append("}\n\n");
+		}
+		for (int i = 0; i < tables; i++) {
+			sb.append("Table table").append(i).append(" as T").append(i).append(" {\n");
+			sb.append("  id integer [pk, increment]\n");
+			if (partials > 0) sb.append("  ~partial").append(i % partials).append('\n');
+			for (int c = 0; c < columns; c++) {
+				sb.append("  column").append(c).append(' ').append(TYPES[random.nextInt(TYPES.length)]);
+				if (c % 3 == 0) {
+					sb.append(notes ? " [not null, note: 'Column " + c + " of table " + i + "']" : " [not null]");
+				}
+				sb.append('\n');
+			}
+			for (int r = 0; i > 0 && r < refs; r++) {
+				sb.append("  ref").append(r).append("_id integer [ref: > table").append(random.nextInt(i)).append(".id]\n");
+			}
+			if (columns > 1) {
+				sb.append("  indexes {\n    (column0, column1) [unique, name: 'table").append(i).append("_idx']\n  }\n");
+			}
+			if (notes) sb.append("  Note: '''\n  Table ").append(i).append("\n  generated\n  '''\n");
+			sb.append("}\n\n");
+		}
+		if (notes) {
+			sb.append("Note summary {\n  'Generated ").append(tables).append(" tables'\n}\n");
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,36 @@
+package com.wn.dbml.benchmark;
+
+import com.wn.dbml.compiler.DbmlParser;
+import com.wn.dbml.model.Database;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A generated DBML text and its database, shared by the stage benchmarks.
+ * The parameters can be overridden, e.g. with {@code -p tables=10000 -p notes=false}.
+ */
+@State(Scope.Benchmark)
+public class DbmlState {
+	@Param({"100", "1000"})
+	public int tables;
+	@Param("10")
+	public int columns;
+	@Param("2")
+	public int refs;
+	@Param("5")
+	public int partials;
+	@Param("true")
+	public boolean notes;
+	
+	public String dbml;
+	public Database database;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		dbml = new DbmlGenerator(tables, columns, refs, partials, notes).generate();
+		database = DbmlParser.parse(dbml);
+	}
+}
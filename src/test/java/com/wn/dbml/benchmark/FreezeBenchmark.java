@@ -0,0 +1,54 @@
+package com.wn.dbml.benchmark;
+
+import com.wn.dbml.compiler.DbmlParser;
+import com.wn.dbml.model.Database;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of freezing a parsed database, compared to {@link ParserBenchmark}, and queries on the frozen database,
+ * compared to {@link ModelBenchmark}.
+ * <p>
+ * Run with {@code mvn -P benchmark test -Djmh.args="FreezeBenchmark -prof gc"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FreezeBenchmark {
+	private Database frozen;
+	
+	@Setup
+	public void setup(DbmlState state) {
+		frozen = DbmlParser.parse(state.dbml).freeze();
+	}
+	
+	@Benchmark
+	public Database parseAndFreeze(DbmlState state) {
+		return DbmlParser.parse(state.dbml).freeze();
+	}
+	
+	@Benchmark
+	public void frozenColumns(Blackhole blackhole) {
+		for (var schema : frozen.getSchemas()) {
+			for (var table : schema.getTables()) {
+				for (var column : table.getColumns()) {
+					blackhole.consume(column);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.wn.dbml.benchmark;
+
+import com.wn.dbml.compiler.parser.IncrementalParser;
+import com.wn.dbml.model.Database;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Changes a column type of the first or the last table of a generated DBML text and back,
+ * each edit is parsed incrementally. The time should not grow with the number of tables.
+ * <p>
+ * Run with {@code mvn -P benchmark test -Djmh.args="IncrementalParserBenchmark -p tables=500,2000,8000"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IncrementalParserBenchmark {
+	
+	@Benchmark
+	public Database editFirstTable(EditState state) {
+		return edit(state.parser, state.first);
+	}
+	
+	@Benchmark
+	public Database editLastTable(EditState state) {
+		return edit(state.parser, state.last);
+	}
+	
+	private static Database edit(IncrementalParser parser, int offset) {
+		parser.edit(offset, "integer".length(), "bigint");
+		return parser.edit(offset, "bigint".length(), "integer");
+	}
+	
+	@State(Scope.Thread)
+	public static class EditState {
+		IncrementalParser parser;
+		// the offsets of the type of the id column
+		int first, last;
+		
+		@Setup(Level.Trial)
+		public void setup(DbmlState state) {
+			parser = new IncrementalParser();
+			parser.parse(state.dbml);
+			first = state.dbml.indexOf("integer", state.dbml.indexOf("Table table0 "));
+			last = state.dbml.indexOf("integer", state.dbml.lastIndexOf("Table table"));
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package com.wn.dbml.benchmark;
+
+import com.wn.dbml.compiler.lexer.LexerImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokenizes a generated DBML text.
+ * <p>
+ * Run with {@code mvn -P benchmark test -Djmh.args="LexerBenchmark -prof gc"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexerBenchmark {
+	
+	@Benchmark
+	public void tokenize(DbmlState state, Blackhole blackhole) {
+		var lexer = new LexerImpl(state.dbml);
+		for (var token = lexer.nextToken(); token != null; token = lexer.nextToken()) {
+			blackhole.consume(token);
+		}
+	}
+}
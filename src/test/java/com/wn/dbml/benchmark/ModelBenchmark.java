@@ -0,0 +1,107 @@
+package com.wn.dbml.benchmark;
+
+import com.wn.dbml.model.Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries the database of a generated DBML text, as a visitor or a translator would.
+ * <p>
+ * Run with {@code mvn -P benchmark test -Djmh.args="ModelBenchmark -prof gc"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+	
+	@Benchmark
+	public void columns(DbmlState state, Blackhole blackhole) {
+		for (var schema : state.database.getSchemas()) {
+			for (var table : schema.getTables()) {
+				for (var column : table.getColumns()) {
+					blackhole.consume(column);
+				}
+			}
+		}
+	}
+	
+	@Benchmark
+	public void indexesAndSettings(DbmlState state, Blackhole blackhole) {
+		for (var schema : state.database.getSchemas()) {
+			for (var table : schema.getTables()) {
+				blackhole.consume(table.getIndexes());
+				blackhole.consume(table.getSettings());
+				blackhole.consume(table.getNote());
+			}
+		}
+	}
+	
+	/**
+	 * Combines the cached content hashes of the elements.
+	 */
+	@Benchmark
+	public long contentHash(DbmlState state) {
+		return state.database.getContentHash();
+	}
+	
+	@Benchmark
+	public void lookups(DbmlState state, Blackhole blackhole) {
+		var database = state.database;
+		for (int i = 0; i < state.tables; i++) {
+			Table table = database.getAlias("T" + i);
+			blackhole.consume(table.getColumn("id"));
+		}
+	}
+	
+	@Benchmark
+	public void relationships(DbmlState state, Blackhole blackhole) {
+		for (var relationship : state.database.getRelationships()) {
+			blackhole.consume(relationship.getFrom());
+		}
+	}
+	
+	@Benchmark
+	public void relationshipsByTable(DbmlState state, Blackhole blackhole) {
+		for (var schema : state.database.getSchemas()) {
+			for (var table : schema.getTables()) {
+				blackhole.consume(table.getIncomingRelationships());
+				blackhole.consume(table.getOutgoingRelationships());
+			}
+		}
+	}
+	
+	@Benchmark
+	public int sizes(DbmlState state) {
+		var database = state.database;
+		var size = database.getSchemas().size() + database.getTablePartials().size()
+				+ database.getTableGroups().size() + database.getNamedNotes().size();
+		for (var schema : database.getSchemas()) {
+			size += schema.getTables().size() + schema.getEnums().size();
+		}
+		return size;
+	}
+	
+	@Benchmark
+	public void iteration(DbmlState state, Blackhole blackhole) {
+		for (var schema : state.database.getSchemas()) {
+			for (var table : schema.getTables()) {
+				for (var column : table.getLocalColumns()) {
+					blackhole.consume(column);
+				}
+				for (var index : table.getLocalIndexes()) {
+					blackhole.consume(index);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package com.wn.dbml.benchmark;
+
+import com.wn.dbml.compiler.DbmlParser;
+import com.wn.dbml.model.Database;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses a generated DBML text into a database.
+ * <p>
+ * Run with {@code mvn -P benchmark test -Djmh.args="ParserBenchmark -prof gc"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+	
+	@Benchmark
+	public Database parse(DbmlState state) {
+		return DbmlParser.parse(state.dbml);
+	}
+}
@@ -0,0 +1,49 @@
+package com.wn.dbml.benchmark;
+
+import com.wn.dbml.printer.DbmlPrinter;
+import com.wn.dbml.printer.ParallelPrinter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prints the database of a generated DBML text.
+ * <p>
+ * Run with {@code mvn -P benchmark test -Djmh.args="PrinterBenchmark -prof gc"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrinterBenchmark {
+	
+	@Benchmark
+	public String print(DbmlState state) {
+		var printer = new DbmlPrinter();
+		state.database.accept(printer);
+		return printer.toString();
+	}
+	
+	/**
+	 * Streams the DBML to a writer, keeping only a bounded buffer.
+	 */
+	@Benchmark
+	public void stream(DbmlState state) {
+		var printer = new DbmlPrinter(Writer.nullWriter());
+		state.database.accept(printer);
+		printer.flush();
+	}
+	
+	@Benchmark
+	public String parallel(DbmlState state) {
+		return new ParallelPrinter().print(state.database);
+	}
+}
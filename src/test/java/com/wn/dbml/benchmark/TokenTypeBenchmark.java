@@ -0,0 +1,72 @@
+package com.wn.dbml.benchmark;
+
+import com.wn.dbml.compiler.token.TokenType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the keyword recognition of {@link TokenType#of(CharSequence)} to the previous
+ * upper-casing {@code HashMap} lookup, using identifier-heavy input.
+ * <p>
+ * Run with {@code mvn -P benchmark test -Djmh.args=TokenTypeBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenTypeBenchmark {
+	private static final Map<String, TokenType> KEYWORDS = Arrays.stream(TokenType.values())
+			.filter(TokenType::isKeyword)
+			.collect(Collectors.toMap(TokenType::name, Function.identity()));
+	private static final String[] IDENTIFIERS = {
+			"id", "user_id", "created_at", "updated_at", "name", "email", "status", "integer", "varchar",
+			"timestamp", "users", "posts", "title", "body", "amount", "order_id", "product_id", "price",
+	};
+	private static final String[] KEYWORD_WORDS = {"Table", "Ref", "note", "pk", "not", "null", "increment"};
+	
+	private String[] words;
+	
+	@Setup
+	public void setup() {
+		var random = new Random(42);
+		// about one in ten words is a keyword
+		words = new String[1024];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = random.nextInt(10) == 0
+					? KEYWORD_WORDS[random.nextInt(KEYWORD_WORDS.length)]
+					: IDENTIFIERS[random.nextInt(IDENTIFIERS.length)];
+		}
+	}
+	
+	@Benchmark
+	public void upperCaseHashMap(Blackhole blackhole) {
+		for (var word : words) {
+			blackhole.consume(KEYWORDS.getOrDefault(word.toUpperCase(), TokenType.LITERAL));
+		}
+	}
+	
+	@Benchmark
+	public void perfectHash(Blackhole blackhole) {
+		for (var word : words) {
+			blackhole.consume(TokenType.of(word));
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package com.wn.dbml.binary;
+
+import com.wn.dbml.benchmark.DbmlGenerator;
+import com.wn.dbml.compiler.lexer.LexerImpl;
+import com.wn.dbml.compiler.parser.ParserImpl;
+import com.wn.dbml.model.Database;
+import com.wn.dbml.printer.DbmlPrinter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryFormatTest {
+	
+	private static Database parse(String dbml) {
+		return new ParserImpl().parse(new LexerImpl(dbml));
+	}
+	
+	private static String print(Database database) {
+		var printer = new DbmlPrinter();
+		database.accept(printer);
+		return printer.toString();
+	}
+	
+	private static byte[] write(Database database) throws IOException {
+		var out = new ByteArrayOutputStream();
+		new BinaryWriter(out).write(database);
+		return out.toByteArray();
+	}
+	
+	private static Database read(byte[] bytes) throws IOException {
+		return new BinaryReader(new ByteArrayInputStream(bytes)).read();
+	}
+	
+	private static void assertRoundTrip(String dbml) throws IOException {
+		var database = parse(dbml);
+		assertEquals(print(database), print(read(write(database))));
+	}
+	
+	@Test
+	void testAllElements() throws IOException {
+		var dbml = """
+				Project "my project" {
+				  database_type: 'PostgreSQL'
+				  version: '1.0'
+				  Note: '''
+				  A project
+				  with a multi-line note
+				  '''
+				}
+				
+				Enum status {
+				  active [note: 'is active']
+				  inactive
+				}
+				
+				Enum other.kind {
+				  "äöü"
+				}
+				
+				TablePartial base [headercolor: #3498DB, note: 'the base'] {
+				  id integer [pk, increment]
+				  created_at timestamp [not null, default: `now()`]
+				  indexes {
+				    created_at [name: 'idx_created']
+				  }
+				}
+				
+				TablePartial audited {
+				  ~base
+				  updated_by varchar(255) [default: 'system', note: 'the user']
+				}
+				
+				Table users as U [headercolor: #fff] {
+				  ~audited
+				  name "character varying" [unique, default: null]
+				  status status [default: 1.5]
+				  indexes {
+				    (name, `lower(name)`) [unique, type: hash, name: 'users_name', note: 'by name']
+				    status
+				  }
+				  Note: 'the users'
+				}
+				
+				Table other.posts {
+				  ~base
+				  user_id integer [ref: > users.id]
+				  user_name varchar
+				  kind kind
+				}
+				
+				Ref posts_users: other.posts.(user_id, user_name) > users.(id, name) [delete: cascade, update: no action, color: #aabbcc]
+				
+				Ref: other.posts.id - users.id
+				
+				Ref: other.posts.kind <> users.status
+				
+				TableGroup "user data" [color: #111111, note: 'the group'] {
+				  U
+				  other.posts
+				}
+				
+				Note summary {
+				  'the summary'
+				}""";
+		assertRoundTrip(dbml);
+	}
+	
+	@Test
+	void testEmpty() throws IOException {
+		var database = read(write(new Database()));
+		
+		assertNull(database.getProject());
+		assertTrue(database.getSchemas().isEmpty());
+		assertTrue(database.getTablePartials().isEmpty());
+		assertTrue(database.getRelationships().isEmpty());
+	}
+	
+	@Test
+	void testGenerated() throws IOException {
+		var dbml = new DbmlGenerator(200, 10, 2, 5, true).generate();
+		var database = parse(dbml);
+		var bytes = write(database);
+		var read = read(bytes);
+		
+		assertEquals(print(database), print(read));
+		assertTrue(bytes.length < dbml.length() / 2, "size " + bytes.length);
+		assertEquals("table7", read.getAlias("T7").getName());
+		assertEquals(database.getRelationships(), read.getRelationships());
+		var table = read.getSchema("public").getTable("table10");
+		assertEquals(table.getOutgoingRelationships().size(), database.getSchema("public").getTable("table10").getOutgoingRelationships().size());
+		assertTrue(table.containsColumn("created_at"));
+	}
+	
+	@Test
+	void testFrozen() throws IOException {
+		var database = parse(new DbmlGenerator(20, 5, 2, 2, true).generate());
+		var bytes = write(database);
+		
+		assertArrayEquals(bytes, write(database.freeze()));
+		assertFalse(read(bytes).isFrozen());
+	}
+	
+	@Test
+	void testHeader() throws IOException {
+		var bytes = write(parse("Table users {\n  id integer\n}"));
+		
+		var version = bytes.clone();
+		ByteBuffer.wrap(version).putShort(4, (short) (BinaryFormat.VERSION + 1));
+		var e = assertThrows(IOException.class, () -> read(version));
+		assertEquals("Unsupported version %d, expected %d".formatted(BinaryFormat.VERSION + 1, BinaryFormat.VERSION), e.getMessage());
+		
+		var magic = bytes.clone();
+		magic[0] = 'X';
+		e = assertThrows(IOException.class, () -> read(magic));
+		assertEquals("Not a binary DBML database", e.getMessage());
+		
+		assertThrows(IOException.class, () -> read(new byte[3]));
+	}
+	
+	@Test
+	void testDuplicates() throws IOException {
+		assertDuplicate("Table core.t1 {\n  id integer\n}\nTable core.t2 {\n  id integer\n}", "t2", "t1", "Table 'core.t1' is already defined");
+		assertDuplicate("Table t {\n  c1 integer\n  c2 integer\n}", "c2", "c1", "Column 't.c1' is already defined");
+		assertDuplicate("Enum e1 {\n  a\n}\nEnum e2 {\n  b\n}", "e2", "e1", "Enum 'e1' is already defined");
+		assertDuplicate("Enum e {\n  v1\n  v2\n}", "v2", "v1", "Enum value 'e.v1' is already defined");
+		assertDuplicate("TablePartial p1 {\n  id integer\n}\nTablePartial p2 {\n  id integer\n}", "p2", "p1", "TablePartial 'p1' is already defined");
+		assertDuplicate("Table t {\n  id integer\n}\nTableGroup g1 {\n  t\n}\nTableGroup g2 {\n  t\n}", "g2", "g1", "TableGroup 'g1' is already defined");
+		assertDuplicate("Note n1 {\n  'a'\n}\nNote n2 {\n  'b'\n}", "n2", "n1", "NamedNote 'n1' is already defined");
+	}
+	
+	/**
+	 * Writes the database and renames the first occurrence of a name in the bytes, which must fail reading.
+	 */
+	private static void assertDuplicate(String dbml, String name, String replacement, String message) throws IOException {
+		var bytes = write(parse(dbml));
+		var text = new String(bytes, StandardCharsets.ISO_8859_1);
+		var index = text.indexOf(name);
+		assertTrue(index > 0);
+		System.arraycopy(replacement.getBytes(StandardCharsets.ISO_8859_1), 0, bytes, index, replacement.length());
+		
+		var e = assertThrows(IOException.class, () -> read(bytes));
+		assertEquals(message, e.getMessage());
+	}
+}
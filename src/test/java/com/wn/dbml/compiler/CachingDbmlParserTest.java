@@ -0,0 +1,147 @@
+package com.wn.dbml.compiler;
+
+import com.wn.dbml.compiler.CachingDbmlParser.Stats;
+import com.wn.dbml.model.Database;
+import com.wn.dbml.printer.DbmlPrinter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingDbmlParserTest {
+	@TempDir
+	Path directory;
+	
+	private static String dbml(int i) {
+		return """
+				Table users%d {
+				  id integer [pk]
+				}""".formatted(i);
+	}
+	
+	private static String print(Database database) {
+		var printer = new DbmlPrinter();
+		database.accept(printer);
+		return printer.toString();
+	}
+	
+	@Test
+	void testMemory() {
+		var parser = new CachingDbmlParser.Builder().build();
+		
+		var database = parser.parse(dbml(1));
+		assertTrue(database.isFrozen());
+		assertEquals(print(DbmlParser.parse(dbml(1))), print(database));
+		assertSame(database, parser.parse(dbml(1)));
+		assertNotSame(database, parser.parse(dbml(2)));
+		assertEquals(new Stats(2, 1, 0, 2, 0, 0), parser.getStats());
+		
+		parser.clear();
+		assertNotSame(database, parser.parse(dbml(1)));
+		assertEquals(new Stats(1, 1, 0, 3, 0, 0), parser.getStats());
+	}
+	
+	@Test
+	void testEviction() {
+		var parser = new CachingDbmlParser.Builder().setMaxEntries(2).build();
+		
+		var database1 = parser.parse(dbml(1));
+		parser.parse(dbml(2));
+		// 1 is used more recently than 2, so 2 is evicted
+		parser.parse(dbml(1));
+		parser.parse(dbml(3));
+		assertEquals(new Stats(2, 1, 0, 3, 1, 0), parser.getStats());
+		
+		assertSame(database1, parser.parse(dbml(1)));
+		parser.parse(dbml(2));
+		assertEquals(new Stats(2, 2, 0, 4, 2, 0), parser.getStats());
+	}
+	
+	@Test
+	void testDirectory() throws IOException {
+		var builder = new CachingDbmlParser.Builder().setDirectory(directory.resolve("cache"));
+		var database = builder.build().parse(dbml(1));
+		
+		var parser = builder.build();
+		var read = parser.parse(dbml(1));
+		assertNotSame(database, read);
+		assertTrue(read.isFrozen());
+		assertEquals(print(database), print(read));
+		assertSame(read, parser.parse(dbml(1)));
+		assertEquals(new Stats(1, 1, 1, 0, 0, 0), parser.getStats());
+		try (var files = Files.list(directory.resolve("cache"))) {
+			assertEquals(1, files.count());
+		}
+	}
+	
+	@Test
+	void testFileEviction() throws IOException {
+		var builder = new CachingDbmlParser.Builder().setDirectory(directory).setMaxFiles(2);
+		var parser = builder.build();
+		parser.parse(dbml(1));
+		parser.parse(dbml(2));
+		setLastModifiedTimes(1000);
+		// 1 is read more recently than 2, so 2 is evicted
+		builder.build().parse(dbml(1));
+		parser.parse(dbml(3));
+		assertEquals(new Stats(3, 0, 0, 3, 0, 1), parser.getStats());
+		try (var files = Files.list(directory)) {
+			assertEquals(2, files.count());
+		}
+		
+		var other = builder.build();
+		other.parse(dbml(1));
+		other.parse(dbml(3));
+		other.parse(dbml(2));
+		assertEquals(new Stats(3, 0, 2, 1, 0, 1), other.getStats());
+	}
+	
+	private void setLastModifiedTimes(long millis) throws IOException {
+		try (var files = Files.list(directory)) {
+			for (var file : files.toList()) {
+				Files.setLastModifiedTime(file, FileTime.fromMillis(millis));
+			}
+		}
+	}
+	
+	@Test
+	void testDamagedFile() throws IOException {
+		var builder = new CachingDbmlParser.Builder().setDirectory(directory);
+		builder.build().parse(dbml(1));
+		try (var files = Files.list(directory)) {
+			var file = files.findFirst().orElseThrow();
+			Files.write(file, new byte[]{1, 2, 3});
+		}
+		
+		var parser = builder.build();
+		assertEquals(print(DbmlParser.parse(dbml(1))), print(parser.parse(dbml(1))));
+		assertEquals(new Stats(1, 0, 0, 1, 0, 0), parser.getStats());
+		// the damaged file has been replaced
+		var other = builder.build();
+		other.parse(dbml(1));
+		assertEquals(new Stats(1, 0, 1, 0, 0, 0), other.getStats());
+	}
+	
+	@Test
+	void testParsingError() {
+		var parser = new CachingDbmlParser.Builder().setDirectory(directory).build();
+		
+		assertThrows(ParsingException.class, () -> parser.parse("Table {"));
+		assertThrows(ParsingException.class, () -> parser.parse("Table {"));
+		assertEquals(new Stats(0, 0, 0, 0, 0, 0), parser.getStats());
+	}
+	
+	@Test
+	void testKey() {
+		assertEquals(CachingDbmlParser.key("1.0", dbml(1)), CachingDbmlParser.key("1.0", dbml(1)));
+		assertNotEquals(CachingDbmlParser.key("1.0", dbml(1)), CachingDbmlParser.key("1.0", dbml(2)));
+		// a new library version may parse the same string differently
+		assertNotEquals(CachingDbmlParser.key("1.0", dbml(1)), CachingDbmlParser.key("1.1", dbml(1)));
+		assertFalse(CachingDbmlParser.LIBRARY_VERSION.contains("${"), CachingDbmlParser.LIBRARY_VERSION);
+	}
+}
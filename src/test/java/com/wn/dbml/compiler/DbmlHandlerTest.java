@@ -0,0 +1,210 @@
+package com.wn.dbml.compiler;
+
+import com.wn.dbml.model.ColumnSetting;
+import com.wn.dbml.model.Relation;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DbmlHandlerTest {
+	
+	@Test
+	void testEvents() {
+		var dbml = """
+				Project p {
+				  database_type: 'PostgreSQL'
+				}
+				
+				Table s.users as U {
+				  id integer [pk, note: 'id']
+				  name varchar
+				  indexes {
+				    (id, name) [unique]
+				  }
+				}
+				
+				Ref: s.users.id < posts.user_id""";
+		var events = new ArrayList<String>();
+		DbmlParser.parse(dbml, new DbmlHandler() {
+			@Override
+			public void startProject(String name) {
+				events.add("startProject " + name);
+			}
+			
+			@Override
+			public void projectProperty(String property, String value) {
+				events.add(property + "=" + value);
+			}
+			
+			@Override
+			public void endProject() {
+				events.add("endProject");
+			}
+			
+			@Override
+			public void startTable(String schema, String name) {
+				events.add("startTable " + schema + "." + name);
+			}
+			
+			@Override
+			public void tableAlias(String alias) {
+				events.add("alias " + alias);
+			}
+			
+			@Override
+			public void column(String name, String type) {
+				events.add("column " + name + " " + type);
+			}
+			
+			@Override
+			public void columnSetting(ColumnSetting setting, String value) {
+				events.add("columnSetting " + setting);
+			}
+			
+			@Override
+			public void columnNote(String note) {
+				events.add("columnNote " + note);
+			}
+			
+			@Override
+			public void index(List<String> columns) {
+				events.add("index " + columns);
+			}
+			
+			@Override
+			public void endTable() {
+				events.add("endTable");
+			}
+			
+			@Override
+			public void ref(Ref ref) {
+				assertEquals(Relation.ONE_TO_MANY, ref.relation());
+				events.add("ref " + ref.from() + " " + ref.to());
+			}
+		});
+		
+		assertEquals(List.of("startProject p", "database_type=PostgreSQL", "endProject",
+				"startTable s.users", "alias U", "column id integer", "columnSetting primary key", "columnNote id",
+				"column name varchar", "index [id, name]", "endTable",
+				"ref s.users.id posts.user_id"), events);
+	}
+	
+	@Test
+	void testUnresolvedNames() {
+		// references and table partials are not resolved, thus a handler can process them in any order
+		var dbml = """
+				Table posts {
+				  ~base
+				  user_id integer [ref: > users.id]
+				}""";
+		var refs = new ArrayList<DbmlHandler.Ref>();
+		DbmlParser.parse(dbml, new DbmlHandler() {
+			@Override
+			public void ref(Ref ref) {
+				refs.add(ref);
+			}
+		});
+		
+		assertEquals(1, refs.size());
+		assertEquals("posts.user_id", refs.getFirst().from().toString());
+		assertEquals("users.id", refs.getFirst().to().toString());
+		assertEquals(new Position(3, 34), refs.getFirst().position());
+	}
+	
+	@Test
+	void testError() {
+		var dbml = """
+				Table users {
+				  id integer
+				  id varchar
+				}""";
+		
+		var e = assertThrows(ParsingException.class, () -> DbmlParser.parse(dbml, new DbmlHandler() {
+		}));
+		assertEquals("[3:4] Column 'users.id' is already defined", e.getMessage());
+	}
+	
+	@Test
+	void testRejectedEvent() {
+		var dbml = """
+				Table users {
+				  id integer
+				}""";
+		
+		var e = assertThrows(ParsingException.class, () -> DbmlParser.parse(dbml, new DbmlHandler() {
+			@Override
+			public void startTable(String schema, String name) {
+				throw new IllegalArgumentException("Table '%s' is not allowed".formatted(name));
+			}
+		}));
+		assertEquals("[1:11] Table 'users' is not allowed", e.getMessage());
+	}
+	
+	@Test
+	void testLargeReader() {
+		var tables = 20_000;
+		var counter = new DbmlHandler() {
+			int tableCount, columnCount;
+			
+			@Override
+			public void startTable(String schema, String name) {
+				tableCount++;
+			}
+			
+			@Override
+			public void column(String name, String type) {
+				columnCount++;
+			}
+		};
+		
+		DbmlParser.parse(new GeneratingReader(tables), counter);
+		
+		assertEquals(tables, counter.tableCount);
+		assertEquals(tables * 3, counter.columnCount);
+	}
+	
+	/**
+	 * Generates the tables while they are read, so the text is never held in memory.
+	 */
+	private static class GeneratingReader extends Reader {
+		private final int tables;
+		private int table;
+		private String chunk = "";
+		private int index;
+		
+		GeneratingReader(int tables) {
+			this.tables = tables;
+		}
+		
+		@Override
+		public int read(char[] cbuf, int off, int len) {
+			if (index == chunk.length()) {
+				if (table == tables) {
+					return -1;
+				}
+				chunk = """
+						Table t%1$d {
+						  id integer [pk]
+						  name varchar(255)
+						  t%2$d_id integer [ref: > t%2$d.id]
+						}
+						
+						""".formatted(table, Math.max(table - 1, 0));
+				index = 0;
+				table++;
+			}
+			var n = Math.min(len, chunk.length() - index);
+			chunk.getChars(index, index + n, cbuf, off);
+			index += n;
+			return n;
+		}
+		
+		@Override
+		public void close() {
+		}
+	}
+}
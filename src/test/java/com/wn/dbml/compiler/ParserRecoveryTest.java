@@ -0,0 +1,169 @@
+package com.wn.dbml.compiler;
+
+import com.wn.dbml.compiler.lexer.LexerImpl;
+import com.wn.dbml.compiler.parser.ParserImpl;
+import com.wn.dbml.model.Schema;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParserRecoveryTest {
+	
+	private ParsingResult parse(String dbml) {
+		return new ParserImpl().parseWithRecovery(new LexerImpl(dbml));
+	}
+	
+	private static Schema getDefaultSchema(ParsingResult result) {
+		return result.database().getSchema(Schema.DEFAULT_NAME);
+	}
+	
+	@Test
+	void testValid() {
+		var dbml = """
+				Table users {
+				  id integer
+				}
+				
+				Table posts {
+				  user_id integer
+				}
+				
+				Ref: posts.user_id > users.id""";
+		
+		var result = parse(dbml);
+		assertTrue(result.isValid());
+		assertEquals(1, result.database().getRelationships().size());
+		assertEquals(DbmlParser.parse(dbml).toString(), result.database().toString());
+	}
+	
+	@Test
+	void testMultipleErrors() {
+		var dbml = """
+				Table users {
+				  id integer
+				  name
+				}
+				
+				Table posts {
+				  id integer [pk
+				  title varchar
+				}
+				
+				Enum status {
+				  active
+				}
+				
+				Ref: posts.user_id > users.id""";
+		
+		var result = parse(dbml);
+		var messages = result.errors().stream().map(ParsingException::getMessage).toList();
+		assertEquals(3, messages.size(), messages.toString());
+		assertTrue(messages.get(0).startsWith("[3:7] unexpected token 'LINEBREAK'"), messages.get(0));
+		assertTrue(messages.get(1).startsWith("[7:17] unexpected token 'LINEBREAK'"), messages.get(1));
+		assertEquals("[15:29] Column 'posts.user_id' is not defined", messages.get(2));
+		var schema = getDefaultSchema(result);
+		assertTrue(schema.getTable("users").containsColumn("id"));
+		assertTrue(schema.getTable("posts").containsColumn("id"));
+		assertNotNull(schema.getEnum("status"));
+	}
+	
+	@Test
+	void testUndefinedSchema() {
+		var dbml = """
+				Table a {
+				  id int
+				}
+				
+				Ref: a.id > zz.b.id
+				Ref: a.id > b.id""";
+		
+		var result = parse(dbml);
+		var messages = result.errors().stream().map(ParsingException::getMessage).toList();
+		assertEquals(List.of("[5:19] Table 'zz.b' is not defined", "[6:16] Table 'b' is not defined"), messages);
+		assertTrue(getDefaultSchema(result).containsTable("a"));
+	}
+	
+	@Test
+	void testDuplicateProject() {
+		var dbml = """
+				Project a {
+				}
+				Project b {
+				}
+				Table users {
+				  id integer
+				}""";
+		
+		var result = parse(dbml);
+		assertEquals(1, result.errors().size());
+		assertEquals("[3:7] Project is already defined", result.errors().getFirst().getMessage());
+		assertEquals("a", result.database().getProject().getName());
+		assertTrue(getDefaultSchema(result).containsTable("users"));
+	}
+	
+	@Test
+	void testContinueAtUnexpectedKeyword() {
+		var dbml = """
+				Note note {
+				Table users {
+				  id integer
+				}""";
+		
+		var result = parse(dbml);
+		assertEquals(1, result.errors().size());
+		assertInstanceOf(UnexpectedTokenException.class, result.errors().getFirst());
+		assertTrue(getDefaultSchema(result).containsTable("users"));
+	}
+	
+	@Test
+	void testSkipNestedKeywords() {
+		var dbml = """
+				Table users {
+				  id integer [note 'x']
+				  Note {
+				    'description'
+				  }
+				}
+				TablePartial base {
+				  id integer
+				}
+				Table posts {
+				  ~base
+				  ~missing
+				}""";
+		
+		var result = parse(dbml);
+		var messages = result.errors().stream().map(ParsingException::getMessage).toList();
+		assertEquals(2, messages.size(), messages.toString());
+		assertTrue(messages.get(0).startsWith("[2:22] unexpected token 'SSTRING'"), messages.get(0));
+		assertEquals("[13:1] Can not find TablePartial 'missing'", messages.get(1));
+		var posts = getDefaultSchema(result).getTable("posts");
+		assertTrue(posts.containsColumn("id"));
+	}
+	
+	@Test
+	void testEndOfInput() {
+		var result = DbmlParser.parseWithRecovery(new StringReader("Table users {\n  id integer"));
+		
+		assertEquals(1, result.errors().size());
+		assertTrue(result.errors().getFirst().getMessage().contains("unexpected token 'EOF'"));
+		assertTrue(getDefaultSchema(result).containsTable("users"));
+	}
+	
+	@Test
+	void testParseStopsAtFirstError() {
+		var dbml = """
+				Table users {
+				  name
+				}
+				Table users {
+				}""";
+		
+		var e = assertThrows(ParsingException.class, () -> DbmlParser.parse(dbml));
+		assertTrue(e.getMessage().startsWith("[2:7] unexpected token 'LINEBREAK'"), e.getMessage());
+		assertEquals(2, DbmlParser.parseWithRecovery(dbml).errors().size());
+	}
+}
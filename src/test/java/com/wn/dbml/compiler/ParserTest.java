@@ -2,6 +2,8 @@ package com.wn.dbml.compiler;
 
 import com.wn.dbml.compiler.lexer.LexerImpl;
 import com.wn.dbml.compiler.parser.ParserImpl;
+import com.wn.dbml.compiler.token.SliceToken;
+import com.wn.dbml.compiler.token.TokenType;
 import com.wn.dbml.model.Column;
 import com.wn.dbml.model.ColumnSetting;
 import com.wn.dbml.model.Database;
@@ -10,8 +12,13 @@ import com.wn.dbml.model.RelationshipSetting;
 import com.wn.dbml.model.Schema;
 import com.wn.dbml.model.TableSetting;
 import com.wn.dbml.util.Name;
+import com.wn.dbml.util.StringInterner;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -167,6 +174,76 @@ class ParserTest {
 		assertTrue(e.getMessage().startsWith("[1:12] unexpected token 'LITERAL'"));
 	}
 	
+	@Test
+	void testParseUnexpectedToken() {
+		var dbml = """
+				Table .users {
+				  id integer
+				}""";
+		
+		var e = assertThrows(UnexpectedTokenException.class, () -> parse(dbml));
+		assertEquals(new Position(1, 12), e.getPosition());
+		assertEquals(TokenType.LITERAL, e.getActual());
+		assertTrue(e.getExpected().contains(TokenType.AS));
+		assertTrue(e.getExpected().contains(TokenType.LBRACE));
+		assertEquals(TokenType.LITERAL, e.getLastTokens().getLast().getType());
+		assertEquals("[1:12] unexpected token 'LITERAL', expected AS, LBRACK, LBRACE. Last tokens: [TABLE('Table'), LITERAL('.'), LITERAL('users')]", e.getMessage());
+		assertTrue(e.getStackTrace().length > 0);
+	}
+	
+	@Test
+	void testParseWithoutStackTrace() {
+		var parser = new ParserImpl(false);
+		
+		var e1 = assertThrows(UnexpectedTokenException.class, () -> parser.parse(new LexerImpl("Table .users {}")));
+		assertEquals(0, e1.getStackTrace().length);
+		var e2 = assertThrows(ParsingException.class, () -> parser.parse(new LexerImpl("Project a {}\nProject b {}")));
+		assertEquals(0, e2.getStackTrace().length);
+		assertEquals("[2:7] Project is already defined", e2.getMessage());
+	}
+	
+	@Test
+	void testSerializeUnexpectedToken() throws Exception {
+		var e = assertThrows(UnexpectedTokenException.class, () -> new ParserImpl(false).parse(new LexerImpl("Table .users {}")));
+		assertFalse(e.getLastTokens().stream().anyMatch(SliceToken.class::isInstance));
+		
+		var bytes = new ByteArrayOutputStream();
+		try (var out = new ObjectOutputStream(bytes)) {
+			out.writeObject(e);
+		}
+		try (var in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			var copy = (UnexpectedTokenException) in.readObject();
+			assertEquals(e.getMessage(), copy.getMessage());
+			assertEquals(e.getPosition(), copy.getPosition());
+			assertEquals(e.getActual(), copy.getActual());
+		}
+	}
+	
+	@Test
+	void testParseInterned() {
+		var dbml = """
+				Table users {
+				  id integer [pk]
+				  name varchar(255) [default: 'none']
+				}
+				
+				Table posts {
+				  id integer [pk]
+				  title varchar(255) [default: 'none']
+				  user_id integer [ref: > users.id]
+				}""";
+		var database = new ParserImpl(true, new StringInterner()).parse(new LexerImpl(dbml));
+		
+		var users = getDefaultSchema(database).getTable("users");
+		var posts = getDefaultSchema(database).getTable("posts");
+		assertSame(users.getColumn("id").getName(), posts.getColumn("id").getName());
+		assertSame(users.getColumn("id").getType(), posts.getColumn("user_id").getType());
+		assertSame(users.getColumn("name").getType(), posts.getColumn("title").getType());
+		assertSame(users.getColumn("name").getSettings().get(ColumnSetting.DEFAULT), posts.getColumn("title").getSettings().get(ColumnSetting.DEFAULT));
+		assertEquals("varchar(255)", posts.getColumn("title").getType());
+		assertEquals(users.getColumn("id"), database.getRelationships().iterator().next().getTo().getFirst());
+	}
+	
 	@Test
 	void testParseNoteEmpty() {
 		var dbml = """
@@ -479,7 +556,7 @@ class ParserTest {
 		assertTrue(quantity.getSettings().containsKey(ColumnSetting.NOT_NULL));
 		var unit = table.getColumn("unit");
 		assertNotNull(unit);
-		
+	
 	}
 	
 	@Test
@@ -1114,7 +1191,9 @@ class ParserTest {
 		var table = schema.getTable("Organization");
 		assertEquals("CURRENT_TIMESTAMP", table.getColumn("created_at").getSettings().get(ColumnSetting.DEFAULT));
 		assertEquals("CURRENT_TIMESTAMP", table.getColumn("updated_at").getSettings().get(ColumnSetting.DEFAULT));
+		assertTrue(table.getColumn("created_at").isDefaultExpression());
 		assertEquals("true", table.getColumn("active").getSettings().get(ColumnSetting.DEFAULT));
+		assertFalse(table.getColumn("active").isDefaultExpression());
 		assertEquals("100.0", table.getColumn("percent").getSettings().get(ColumnSetting.DEFAULT));
 		assertEquals("1", table.getColumn("def1").getSettings().get(ColumnSetting.DEFAULT));
 		assertEquals("-1", table.getColumn("def2").getSettings().get(ColumnSetting.DEFAULT));
@@ -0,0 +1,53 @@
+package com.wn.dbml.compiler.lexer;
+
+import com.wn.dbml.compiler.lexer.BlockScanner.Block;
+import com.wn.dbml.compiler.token.TokenType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BlockScannerTest {
+	
+	@Test
+	void testScan() {
+		var dbml = """
+				// Table in a comment
+				Table users {
+				  note: 'Table in a string'
+				  Note {
+				    '''
+				Table in a multi-line string
+				    '''
+				  }
+				}
+				  Ref: users.id < posts.user_id
+				/* Enum in
+				a comment */
+				enum status {
+				}
+				TableGroup group { users }
+				""";
+		
+		var blocks = BlockScanner.scan(dbml);
+		assertEquals(List.of(
+				new Block(dbml.indexOf("Table users"), 2, TokenType.TABLE, true),
+				new Block(dbml.indexOf("  Ref"), 10, TokenType.REF, true),
+				new Block(dbml.indexOf("enum"), 13, TokenType.ENUM, true),
+				new Block(dbml.indexOf("TableGroup"), 15, TokenType.TABLEGROUP, false)
+		), blocks);
+	}
+	
+	@Test
+	void testScanDependent() {
+		var dbml = "Table a {\n}\nTable b {\n} TableGroup g { a }\r\nTable c {\n}";
+		
+		var blocks = BlockScanner.scan(dbml);
+		assertEquals(List.of(
+				new Block(0, 1, TokenType.TABLE, true),
+				new Block(dbml.indexOf("Table b"), 3, TokenType.TABLE, false),
+				new Block(dbml.indexOf("Table c"), 5, TokenType.TABLE, true)
+		), blocks);
+	}
+}
@@ -1,9 +1,15 @@
 package com.wn.dbml.compiler.lexer;
 
+import com.wn.dbml.compiler.Token;
+import com.wn.dbml.compiler.token.SliceToken;
 import com.wn.dbml.compiler.token.TokenType;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 class LexerImplTest {
 	
 	@Test
@@ -37,4 +43,31 @@ class LexerImplTest {
 			}
 		});
 	}
-}
\ No newline at end of file
+	
+	@Test
+	void testReaderAndCharSequenceTokensAreEqual() {
+		var dbml = "Table \"a\\\"b\" as A [note: '''x\r\n  y\\''' z'''] {\r\n" +
+				"  id integer [default: -1.5, note: 'it\\'s'] // comment\r\n" +
+				"  /* multi\n line */ c `now()` #fff #ab\n" +
+				"}";
+		
+		var expected = new LexerImpl(dbml).tokenList().stream().map(Token::toString).toList();
+		var actual = new LexerImpl(new StringReader(dbml)).tokenList().stream().map(Token::toString).toList();
+		
+		assertEquals(expected, actual);
+	}
+	
+	@Test
+	void testSliceToken() {
+		var dbml = "Table t // comment";
+		var lexer = new LexerImpl(dbml);
+		
+		var tokenList = lexer.tokenList();
+		
+		var comment = assertInstanceOf(SliceToken.class, tokenList.get(4));
+		assertEquals(TokenType.COMMENT, comment.getType());
+		assertEquals(10, comment.getOffset());
+		assertEquals(8, comment.getLength());
+		assertEquals(" comment", comment.getValue());
+	}
+}
@@ -0,0 +1,67 @@
+package com.wn.dbml.compiler.lexer;
+
+import com.wn.dbml.compiler.Position;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.StringReader;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+class LookaheadReaderTest {
+	
+	static Stream<Arguments> readers() {
+		return Stream.of(
+				arguments((Function<String, LookaheadReader>) LookaheadReader::of),
+				arguments((Function<String, LookaheadReader>) s -> LookaheadReader.of(new StringReader(s))),
+				arguments((Function<String, LookaheadReader>) s -> new StreamLookaheadReader(new StringReader(s), 2))
+		);
+	}
+	
+	@ParameterizedTest
+	@MethodSource("readers")
+	void testNextChar(Function<String, LookaheadReader> factory) {
+		var reader = factory.apply("ab");
+		
+		assertEquals('a', reader.nextChar());
+		assertEquals('b', reader.nextChar());
+		assertEquals(-1, reader.nextChar());
+		assertEquals(-1, reader.nextChar());
+	}
+	
+	@ParameterizedTest
+	@MethodSource("readers")
+	void testLookahead(Function<String, LookaheadReader> factory) {
+		var reader = factory.apply("abcdef");
+		reader.nextChar();
+		
+		assertEquals('b', reader.lookahead());
+		assertEquals('d', reader.peek(2));
+		assertEquals(-1, reader.peek(5));
+		assertEquals("bcdef", reader.lookahead(10));
+		assertTrue(reader.lookaheadIs("bcd"));
+		assertTrue(reader.lookaheadIs("xbcd", 1));
+		assertFalse(reader.lookaheadIs("bcdefg"));
+		assertEquals('b', reader.nextChar());
+	}
+	
+	@ParameterizedTest
+	@MethodSource("readers")
+	void testPosition(Function<String, LookaheadReader> factory) {
+		var reader = factory.apply("a\r\nb\nc");
+		
+		reader.nextChar();
+		assertEquals(new Position(1, 1), reader.getPosition());
+		assertEquals('\n', reader.nextChar());
+		assertEquals(new Position(1, 2), reader.getPosition());
+		reader.nextChar();
+		assertEquals(new Position(2, 1), reader.getPosition());
+		reader.nextChar();
+		reader.nextChar();
+		assertEquals(new Position(3, 1), reader.getPosition());
+	}
+}
@@ -0,0 +1,265 @@
+package com.wn.dbml.compiler.parser;
+
+import com.wn.dbml.compiler.ParsingException;
+import com.wn.dbml.compiler.lexer.LexerImpl;
+import com.wn.dbml.model.Database;
+import com.wn.dbml.model.Schema;
+import com.wn.dbml.printer.DbmlPrinter;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalParserTest {
+	
+	private static Database parse(String dbml) {
+		return new ParserImpl().parse(new LexerImpl(dbml));
+	}
+	
+	private static String print(Database database) {
+		var printer = new DbmlPrinter();
+		database.accept(printer);
+		return printer.toString();
+	}
+	
+	private static String result(ThrowingSupplier supplier) {
+		try {
+			return print(supplier.get());
+		} catch (RuntimeException e) {
+			return e.getClass().getSimpleName() + ": " + e.getMessage();
+		}
+	}
+	
+	private static String generate(int tables) {
+		var sb = new StringBuilder("""
+				// generated
+				Project project {
+				  database_type: 'PostgreSQL'
+				}
+				
+				TablePartial base {
+				  id integer [pk, increment]
+				}
+				
+				Enum status {
+				  active
+				  inactive
+				}
+				""");
+		for (int i = 0; i < tables; i++) {
+			sb.append("""
+					Table schema%1$d.table%2$d as T%2$d {
+					  ~base
+					  name varchar(255) [not null]
+					  status status
+					  parent_id integer [ref: > schema%1$d.table%2$d.id]
+					  indexes {
+					    (name, status) [unique]
+					  }
+					}
+					
+					""".formatted(i % 3, i));
+			if (i > 0) {
+				sb.append("Ref: schema%d.table%d.parent_id > schema%d.table%d.id\n\n".formatted(i % 3, i, (i - 1) % 3, i - 1));
+			}
+			if (i % 5 == 4) {
+				sb.append("TableGroup group%d {\n  T%d\n  schema%d.table%d\n}\n\n".formatted(i, i, (i - 1) % 3, i - 1));
+			}
+		}
+		sb.append("""
+				Note summary {
+				  'generated tables'
+				}""");
+		return sb.toString();
+	}
+	
+	@Test
+	void testEditColumn() {
+		var dbml = generate(10);
+		var parser = new IncrementalParser();
+		var database = parser.parse(dbml);
+		var table2 = database.getSchema("schema2").getTable("table2");
+		var table5 = database.getSchema("schema2").getTable("table5");
+		
+		var offset = dbml.indexOf("name varchar(255)", dbml.indexOf("table5 as"));
+		assertSame(database, parser.edit(offset + "name varchar(".length(), 3, "100"));
+		
+		assertEquals(parser.getText(), dbml.replaceFirst("(table5 as[^}]*)varchar\\(255\\)", "$1varchar(100)"));
+		assertEquals(print(parse(parser.getText())), print(database));
+		assertSame(table2, database.getSchema("schema2").getTable("table2"));
+		assertNotSame(table5, database.getSchema("schema2").getTable("table5"));
+		assertEquals("varchar(100)", database.getSchema("schema2").getTable("table5").getColumn("name").getType());
+		// the relationships and table groups refer to the new table
+		var newTable5 = database.getSchema("schema2").getTable("table5");
+		assertTrue(database.getRelationships().stream().anyMatch(r -> r.getTo().getFirst().getTable() == newTable5));
+		assertTrue(database.getTableGroup("group9").getTables().stream().noneMatch(t -> t == table5));
+	}
+	
+	@Test
+	void testEditKeepsOtherElements() {
+		var dbml = generate(10);
+		var parser = new IncrementalParser();
+		var database = parser.parse(dbml);
+		var table5 = database.getSchema("schema2").getTable("table5");
+		var tables = List.copyOf(database.getSchema("schema2").getTables());
+		var relationships = List.copyOf(database.getRelationships());
+		
+		var offset = dbml.indexOf("name varchar(255)", dbml.indexOf("table5 as"));
+		parser.edit(offset + "name varchar(".length(), 3, "100");
+		
+		// the replaced table keeps its position, the others are not moved
+		var newTable5 = database.getSchema("schema2").getTable("table5");
+		var newTables = List.copyOf(database.getSchema("schema2").getTables());
+		assertEquals(tables.size(), newTables.size());
+		for (int i = 0; i < tables.size(); i++) {
+			assertSame(tables.get(i) == table5 ? newTable5 : tables.get(i), newTables.get(i));
+		}
+		// only the relationships of the replaced table are created again at their position
+		var newRelationships = List.copyOf(database.getRelationships());
+		assertEquals(relationships.size(), newRelationships.size());
+		for (int i = 0; i < relationships.size(); i++) {
+			var relationship = relationships.get(i);
+			var replaced = relationship.getFrom().getFirst().getTable() == table5 || relationship.getTo().getFirst().getTable() == table5;
+			assertEquals(replaced, relationship != newRelationships.get(i), "relationship " + i);
+		}
+		assertEquals(print(parse(parser.getText())), print(database));
+	}
+	
+	@Test
+	void testEditTablePartial() {
+		var dbml = generate(5);
+		var parser = new IncrementalParser();
+		var database = parser.parse(dbml);
+		var table3 = database.getSchema("schema0").getTable("table3");
+		
+		var offset = dbml.indexOf("  id integer [pk, increment]\n") + "  id integer [pk, increment]\n".length();
+		parser.edit(offset, 0, "  updated_at timestamp\n");
+		
+		assertEquals(print(parse(parser.getText())), print(database));
+		assertSame(table3, database.getSchema("schema0").getTable("table3"));
+		assertTrue(table3.containsColumn("updated_at"));
+	}
+	
+	@Test
+	void testAddAndRemoveElements() {
+		var dbml = generate(5);
+		var parser = new IncrementalParser();
+		var database = parser.parse(dbml);
+		
+		var offset = dbml.indexOf("Table schema1.table1");
+		var table = "Table schema1.added {\n  id integer [ref: - schema1.table1.id]\n}\n\n";
+		assertSame(database, parser.edit(offset, 0, table));
+		assertEquals(print(parse(parser.getText())), print(database));
+		
+		assertSame(database, parser.edit(offset, table.length(), ""));
+		assertEquals(dbml, parser.getText());
+		assertEquals(print(parse(dbml)), print(database));
+	}
+	
+	@Test
+	void testSchemaOrder() {
+		var dbml = """
+				Enum core.status {
+				  active
+				}
+				
+				Table users {
+				  id integer
+				}
+				
+				Table core.accounts {
+				  id integer
+				}
+				""";
+		var parser = new IncrementalParser();
+		parser.parse(dbml);
+		
+		// the schemas are in the order of their first element
+		var database = parser.edit(0, dbml.indexOf("Table users"), "");
+		assertEquals(print(parse(parser.getText())), print(database));
+		assertEquals(List.of("public", "core"), schemaNames(database));
+		
+		database = parser.edit(0, 0, "Enum core.kind {\n  a\n}\n\n");
+		assertEquals(print(parse(parser.getText())), print(database));
+		assertEquals(List.of("core", "public"), schemaNames(database));
+		
+		database = parser.edit(0, 0, "Enum e9 {\n  a\n}\n\n");
+		assertEquals(print(parse(parser.getText())), print(database));
+		assertEquals(List.of("public", "core"), schemaNames(database));
+	}
+	
+	private static List<String> schemaNames(Database database) {
+		return database.getSchemas().stream().map(Schema::getName).toList();
+	}
+	
+	@Test
+	void testErrorAndFix() {
+		var dbml = generate(3);
+		var parser = new IncrementalParser();
+		parser.parse(dbml);
+		
+		var offset = dbml.indexOf("status status");
+		var expected = assertThrows(ParsingException.class, () -> parse(dbml.substring(0, offset) + "[" + dbml.substring(offset)));
+		var actual = assertThrows(ParsingException.class, () -> parser.edit(offset, 0, "["));
+		assertEquals(expected.getMessage(), actual.getMessage());
+		// the partly updated database is not kept
+		assertNull(parser.getDatabase());
+		
+		var database = parser.edit(offset, 1, "");
+		assertEquals(dbml, parser.getText());
+		assertEquals(print(parse(dbml)), print(database));
+	}
+	
+	@Test
+	void testErrorInNewElement() {
+		var dbml = "Table a {\n  id int\n}\n\nTable b {\n  id int\n}\n";
+		var parser = new IncrementalParser();
+		parser.parse(dbml);
+		
+		assertThrows(ParsingException.class, () -> parser.edit(dbml.length(), 0, "\nTable c {\n  x int [\n}"));
+		assertNull(parser.getDatabase());
+		var other = new IncrementalParser();
+		assertThrows(ParsingException.class, () -> other.parse(parser.getText()));
+		assertNull(other.getDatabase());
+	}
+	
+	@Test
+	void testRandomEdits() {
+		var snippets = new String[]{
+				"", "x", "\n", " ", "}", "{", "'", "//", "/*", "*/", "[pk]", "~base\n", "T1", "status",
+				"\nTable schema0.other {\n  id integer\n}\n",
+				"\nRef: schema0.table0.id - schema1.table1.id\n",
+				"\nTableGroup other {\n  T0\n}\n",
+				"\nTablePartial base2 {\n  x int\n}\n",
+				"\n  other_id integer\n",
+		};
+		var random = new Random(42);
+		var parser = new IncrementalParser();
+		var dbml = generate(12);
+		parser.parse(dbml);
+		for (int i = 0; i < 500; i++) {
+			var offset = random.nextInt(dbml.length() + 1);
+			var removed = random.nextInt(4) == 0 ? random.nextInt(Math.min(40, dbml.length() - offset) + 1) : 0;
+			var inserted = snippets[random.nextInt(snippets.length)];
+			var edited = dbml.substring(0, offset) + inserted + dbml.substring(offset + removed);
+			
+			var expected = result(() -> parse(edited));
+			var actual = result(() -> parser.edit(offset, removed, inserted));
+			assertEquals(expected, actual, "edit " + i);
+			assertEquals(edited, parser.getText());
+			// undo most edits, so that the text stays mostly valid
+			dbml = random.nextInt(4) == 0 ? edited : dbml;
+			if (dbml != edited) {
+				var restored = dbml;
+				assertEquals(result(() -> parse(restored)), result(() -> parser.edit(offset, inserted.length(), restored.substring(offset, offset + removed))));
+			}
+		}
+	}
+	
+	@FunctionalInterface
+	private interface ThrowingSupplier {
+		Database get();
+	}
+}
@@ -0,0 +1,201 @@
+package com.wn.dbml.compiler.parser;
+
+import com.wn.dbml.compiler.DbmlHandler;
+import com.wn.dbml.compiler.ParsingException;
+import com.wn.dbml.compiler.lexer.LexerImpl;
+import com.wn.dbml.model.Database;
+import com.wn.dbml.printer.DbmlPrinter;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelParserTest {
+	private static ForkJoinPool pool;
+	
+	@BeforeAll
+	static void setUp() {
+		pool = new ForkJoinPool(4);
+	}
+	
+	@AfterAll
+	static void tearDown() {
+		pool.shutdown();
+	}
+	
+	private static Database parse(String dbml) {
+		return new ParserImpl().parse(new LexerImpl(dbml));
+	}
+	
+	private static Database parseParallel(String dbml) {
+		// split at every element
+		return new ParallelParser(pool, 1).parse(dbml);
+	}
+	
+	private static String print(Database database) {
+		var printer = new DbmlPrinter();
+		database.accept(printer);
+		return printer.toString();
+	}
+	
+	private static void assertSameResult(String dbml) {
+		String expected, actual;
+		try {
+			expected = print(parse(dbml));
+		} catch (ParsingException e) {
+			expected = e.getMessage();
+		}
+		try {
+			actual = print(parseParallel(dbml));
+		} catch (ParsingException e) {
+			actual = e.getMessage();
+		}
+		assertEquals(expected, actual);
+	}
+	
+	private static String generate(int tables) {
+		var sb = new StringBuilder("""
+				// generated
+				Project project {
+				  database_type: 'PostgreSQL'
+				}
+				
+				TablePartial base [headercolor: #3498DB] {
+				  id integer [pk, increment]
+				  created_at timestamp [default: `now()`]
+				}
+				
+				Enum status {
+				  active [note: 'is active']
+				  inactive
+				}
+				""");
+		for (int i = 0; i < tables; i++) {
+			sb.append("""
+					Table schema%1$d.table%2$d as T%2$d [note: 'table %2$d'] {
+					  ~base
+					  name varchar(255) [not null, note: '''
+					    multi-line note with { and Table
+					  ''']
+					  status status
+					  "parent_id" integer [ref: > schema%1$d.table%2$d.id]
+					  indexes {
+					    (name, status) [unique, name: 'idx_%2$d']
+					  }
+					}
+					
+					""".formatted(i % 3, i));
+			if (i > 0) {
+				sb.append("Ref: schema%d.table%d.parent_id > schema%d.table%d.id [delete: cascade]\n\n".formatted(i % 3, i, (i - 1) % 3, i - 1));
+			}
+			if (i % 10 == 9) {
+				sb.append("TableGroup group%d {\n  T%d\n  schema%d.table%d\n}\n\n".formatted(i, i, (i - 1) % 3, i - 1));
+			}
+		}
+		sb.append("""
+				Note summary {
+				  'generated tables'
+				}""");
+		return sb.toString();
+	}
+	
+	@Test
+	void testSameAsSerial() {
+		var dbml = generate(50);
+		var database = parseParallel(dbml);
+		
+		assertEquals(print(parse(dbml)), print(database));
+		assertEquals(50, database.getRelationships().size() - 49);
+		assertEquals(5, database.getTableGroups().size());
+		assertEquals("table7", database.getAlias("T7").getName());
+		assertTrue(database.getSchema("schema1").getTable("table4").containsColumn("created_at"));
+	}
+	
+	@Test
+	void testSmallText() {
+		var dbml = generate(3);
+		
+		assertEquals(print(parse(dbml)), print(new ParallelParser(pool).parse(dbml)));
+	}
+	
+	@Test
+	void testDuplicateInOtherPart() {
+		var dbml = generate(5) + """
+				
+				Table schema1.table4 {
+				  id integer
+				}""";
+		
+		var expected = assertThrows(ParsingException.class, () -> parse(dbml));
+		var actual = assertThrows(ParsingException.class, () -> parseParallel(dbml));
+		assertEquals(expected.getMessage(), actual.getMessage());
+	}
+	
+	@Test
+	void testDuplicateAliasInOtherPart() {
+		var dbml = generate(5) + """
+				
+				Table other as T2 {
+				  id integer
+				}""";
+		
+		var expected = assertThrows(ParsingException.class, () -> parse(dbml));
+		var actual = assertThrows(ParsingException.class, () -> parseParallel(dbml));
+		assertEquals(expected.getMessage(), actual.getMessage());
+	}
+	
+	@Test
+	void testDuplicateProjectInOtherPart() {
+		var dbml = "Project a {\n  database_type: 'PostgreSQL'\n}\n\n" + generate(5) + "\n\nProject b {\n  database_type: 'MySQL'\n}";
+		
+		var expected = assertThrows(ParsingException.class, () -> parse(dbml));
+		var actual = assertThrows(ParsingException.class, () -> parseParallel(dbml));
+		assertEquals(expected.getMessage(), actual.getMessage());
+	}
+	
+	@Test
+	void testRecordedEvents() {
+		// the elements of a part are only built from the recorded events
+		for (var method : DbmlHandler.class.getMethods()) {
+			if (!method.getName().endsWith("Document")) {
+				assertDoesNotThrow(() -> EventRecorder.class.getDeclaredMethod(method.getName(), method.getParameterTypes()), method.getName());
+			}
+		}
+	}
+	
+	@Test
+	void testSyntaxError() {
+		var dbml = generate(5).replace("Table schema0.table3 as T3 [", "Table schema0.table3 as T3 [[");
+		
+		var expected = assertThrows(ParsingException.class, () -> parse(dbml));
+		var actual = assertThrows(ParsingException.class, () -> parseParallel(dbml));
+		assertEquals(expected.getMessage(), actual.getMessage());
+		assertEquals(expected.getPosition(), actual.getPosition());
+	}
+	
+	@Test
+	void testUnclosedElement() {
+		var dbml = generate(5).replace("""
+				  }
+				}
+				
+				Table schema1.table4""", """
+				  }
+				
+				Table schema1.table4""");
+		
+		assertSameResult(dbml);
+	}
+	
+	@Test
+	void testUndefinedReference() {
+		var dbml = generate(5) + "\n\nRef: schema0.table0.id > schema0.table9.id";
+		
+		var expected = assertThrows(ParsingException.class, () -> parse(dbml));
+		var actual = assertThrows(ParsingException.class, () -> parseParallel(dbml));
+		assertEquals(expected.getMessage(), actual.getMessage());
+	}
+}
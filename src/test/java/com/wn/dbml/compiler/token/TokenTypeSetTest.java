@@ -0,0 +1,49 @@
+package com.wn.dbml.compiler.token;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.wn.dbml.compiler.token.TokenType.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenTypeSetTest {
+	
+	@Test
+	void testContains() {
+		var set = TokenTypeSet.of(LITERAL, DSTRING, EOF);
+		
+		assertTrue(set.contains(LITERAL));
+		assertTrue(set.contains(DSTRING));
+		assertTrue(set.contains(EOF));
+		assertFalse(set.contains(SSTRING));
+		assertFalse(set.contains(ILLEGAL));
+		assertFalse(set.contains(_KEYWORDS_START));
+	}
+	
+	@Test
+	void testContainsLiteral() {
+		assertTrue(TokenTypeSet.of(SSTRING, NUMBER).containsLiteral());
+		assertFalse(TokenTypeSet.of(SSTRING, DSTRING).containsLiteral());
+	}
+	
+	@Test
+	void testSingleton() {
+		assertSame(TokenTypeSet.of(LBRACE), TokenTypeSet.of(LBRACE));
+		assertEquals(TokenTypeSet.of(LBRACE), TokenTypeSet.of(LBRACE, LBRACE));
+	}
+	
+	@Test
+	void testWith() {
+		var set = TokenTypeSet.of(SSTRING, DSTRING).with(EXPR, SSTRING);
+		
+		assertEquals(List.of(SSTRING, DSTRING, EXPR), set.toList());
+		assertEquals(TokenTypeSet.of(EXPR, DSTRING, SSTRING), set);
+	}
+	
+	@Test
+	void testToString() {
+		assertEquals("LITERAL, DSTRING, LBRACE", TokenTypeSet.of(LITERAL, DSTRING, LBRACE).toString());
+		assertTrue(TokenTypeSet.of().isEmpty());
+	}
+}
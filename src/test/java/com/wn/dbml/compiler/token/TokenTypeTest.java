@@ -0,0 +1,30 @@
+package com.wn.dbml.compiler.token;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenTypeTest {
+	
+	@Test
+	void testKeywords() {
+		Arrays.stream(TokenType.values()).filter(TokenType::isKeyword).forEach(keyword -> {
+			var name = keyword.name();
+			assertEquals(keyword, TokenType.of(name));
+			assertEquals(keyword, TokenType.of(name.toLowerCase(Locale.ROOT)));
+			assertEquals(keyword, TokenType.of(name.charAt(0) + name.substring(1).toLowerCase(Locale.ROOT)));
+			assertEquals(keyword, TokenType.of(new StringBuilder(name)));
+		});
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"", "a", "id", "nate", "nore", "notes", "tablex", "xtable", "user_id", "created_at", "tableGroups", "ref_"})
+	void testLiterals(String word) {
+		assertEquals(TokenType.LITERAL, TokenType.of(word));
+	}
+}
@@ -0,0 +1,150 @@
+package com.wn.dbml.diff;
+
+import com.wn.dbml.benchmark.DbmlGenerator;
+import com.wn.dbml.compiler.lexer.LexerImpl;
+import com.wn.dbml.compiler.parser.ParserImpl;
+import com.wn.dbml.model.ColumnSetting;
+import com.wn.dbml.model.Database;
+import com.wn.dbml.model.TableSetting;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseDiffTest {
+	private static final String DBML = """
+			Enum status {
+			  active
+			  inactive
+			}
+			
+			TablePartial base {
+			  id integer [pk]
+			}
+			
+			Table users [headercolor: #fff] {
+			  ~base
+			  name varchar [not null]
+			  email varchar
+			  status status
+			  indexes {
+			    name
+			    email [unique]
+			  }
+			}
+			
+			Table other.posts {
+			  ~base
+			  user_id integer [ref: > users.id]
+			}
+			
+			Table logs {
+			  message text
+			}
+			
+			TableGroup app {
+			  users
+			  other.posts
+			}""";
+	
+	private static Database parse(String dbml) {
+		return new ParserImpl().parse(new LexerImpl(dbml));
+	}
+	
+	@Test
+	void testUnchanged() {
+		var diff = DatabaseDiff.compare(parse(DBML), parse(DBML));
+		
+		assertTrue(diff.isEmpty());
+	}
+	
+	@Test
+	void testChanges() {
+		var changed = DBML
+				.replace("  inactive\n", "  inactive\n  banned\n")
+				.replace("  id integer [pk]", "  id bigint [pk]")
+				.replace("[headercolor: #fff]", "[headercolor: #000]")
+				.replace("name varchar [not null]", "name varchar(100) [not null, unique]")
+				.replace("  status status\n", "  phone varchar\n")
+				.replace("email [unique]", "email [unique, name: 'users_email']")
+				.replace("user_id integer [ref: > users.id]", "user_id integer [ref: - users.id]")
+				.replace("Table logs {\n  message text\n}", "Table events {\n  message text\n}")
+				.replace("  other.posts\n}", "}");
+		var diff = DatabaseDiff.compare(parse(DBML), parse(changed));
+		
+		assertEquals(List.of(ChangeType.MODIFIED), diff.tablePartials().stream().map(TableChange::type).toList());
+		assertEquals(List.of(ChangeType.MODIFIED), diff.enums().stream().map(Change::type).toList());
+		
+		var tables = diff.tables();
+		assertEquals(List.of("users", "logs", "events", "posts"), tables.stream().map(t -> t.type() == ChangeType.ADDED ? t.to().getName() : t.from().getName()).toList());
+		assertEquals(List.of(ChangeType.MODIFIED, ChangeType.REMOVED, ChangeType.ADDED, ChangeType.MODIFIED), tables.stream().map(TableChange::type).toList());
+		
+		var users = tables.getFirst();
+		assertEquals(Set.of(TableSetting.HEADERCOLOR), users.settings());
+		assertFalse(users.aliasChanged());
+		assertFalse(users.noteChanged());
+		var columns = users.columns();
+		assertEquals(List.of(ChangeType.MODIFIED, ChangeType.REMOVED, ChangeType.MODIFIED, ChangeType.ADDED), columns.stream().map(ColumnChange::type).toList());
+		assertEquals("name", columns.get(0).to().getName());
+		assertTrue(columns.get(0).typeChanged());
+		assertEquals(Set.of(ColumnSetting.UNIQUE), columns.get(0).settings());
+		assertEquals("status", columns.get(1).from().getName());
+		// the column of the table partial
+		assertEquals("id", columns.get(2).to().getName());
+		assertTrue(columns.get(2).typeChanged());
+		assertEquals(Set.of(), columns.get(2).settings());
+		assertEquals("phone", columns.get(3).to().getName());
+		assertEquals(1, users.indexes().size());
+		assertEquals(ChangeType.MODIFIED, users.indexes().getFirst().type());
+		assertEquals(List.of("email"), users.indexes().getFirst().to().getColumns());
+		
+		var relationships = diff.relationships();
+		assertEquals(1, relationships.size());
+		assertEquals(ChangeType.MODIFIED, relationships.getFirst().type());
+		
+		var tableGroups = diff.tableGroups();
+		assertEquals(1, tableGroups.size());
+		assertEquals(ChangeType.MODIFIED, tableGroups.getFirst().type());
+	}
+	
+	@Test
+	void testDefaultExpression() {
+		var from = parse("Table logs {\n  created_at timestamp [default: 'now()']\n}");
+		var to = parse("Table logs {\n  created_at timestamp [default: `now()`]\n}");
+		var diff = DatabaseDiff.compare(from, to);
+		
+		var column = diff.tables().getFirst().columns().getFirst();
+		assertEquals(ChangeType.MODIFIED, column.type());
+		assertEquals(Set.of(ColumnSetting.DEFAULT), column.settings());
+	}
+	
+	@Test
+	void testAddedAndRemovedSchemas() {
+		var diff = DatabaseDiff.compare(parse(DBML), parse(DBML.replace("other.posts", "blog.posts")));
+		
+		assertEquals(List.of(ChangeType.REMOVED, ChangeType.ADDED), diff.tables().stream().map(TableChange::type).toList());
+		assertEquals("other", diff.tables().get(0).from().getSchema().getName());
+		assertEquals("blog", diff.tables().get(1).to().getSchema().getName());
+		// the relationship references other columns
+		assertEquals(List.of(ChangeType.REMOVED, ChangeType.ADDED), diff.relationships().stream().map(Change::type).toList());
+	}
+	
+	@Test
+	void testGenerated() {
+		var dbml = new DbmlGenerator(2000, 10, 2, 5, true).generate();
+		var from = parse(dbml);
+		var to = parse(dbml).freeze();
+		
+		assertTrue(DatabaseDiff.compare(from, to).isEmpty());
+		
+		var changed = parse(dbml);
+		var table = changed.getSchema("public").getTable("table1000");
+		table.addColumn("added", "integer");
+		var diff = DatabaseDiff.compare(from, changed);
+		assertEquals(1, diff.tables().size());
+		assertEquals(table, diff.tables().getFirst().to());
+		assertEquals("added", diff.tables().getFirst().columns().getFirst().to().getName());
+	}
+}
@@ -0,0 +1,295 @@
+package com.wn.dbml.model;
+
+import com.wn.dbml.compiler.DbmlParser;
+import com.wn.dbml.printer.DbmlPrinter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseTest {
+	private static final String DBML = """
+			TablePartial base {
+			  id integer [pk]
+			}
+			
+			Table users {
+			  ~base
+			  manager_id integer [ref: > users.id]
+			}
+			
+			Table posts {
+			  ~base
+			  user_id integer
+			}
+			
+			Ref author: posts.user_id > users.id
+			Ref author: posts.id - users.manager_id""";
+	
+	@Test
+	void testRelationshipsByName() {
+		var database = DbmlParser.parse(DBML);
+		
+		var first = database.getRelationship("author");
+		assertEquals("posts.user_id > users.id", first.toString());
+		database.removeRelationship(first);
+		assertEquals("posts.id - users.manager_id", database.getRelationship("author").toString());
+		assertNull(database.getRelationship("unknown"));
+	}
+	
+	@Test
+	void testRelationshipsByTable() {
+		var database = DbmlParser.parse(DBML);
+		var users = database.getSchema(Schema.DEFAULT_NAME).getTable("users");
+		var posts = database.getSchema(Schema.DEFAULT_NAME).getTable("posts");
+		
+		assertEquals(List.of("users.manager_id > users.id"), names(users.getOutgoingRelationships()));
+		assertEquals(List.of("users.manager_id > users.id", "posts.user_id > users.id", "posts.id - users.manager_id"),
+				names(users.getIncomingRelationships()));
+		assertEquals(List.of("posts.user_id > users.id", "posts.id - users.manager_id"), names(posts.getOutgoingRelationships()));
+		assertEquals(Set.of(), posts.getIncomingRelationships());
+	}
+	
+	@Test
+	void testRelationshipViews() {
+		var database = DbmlParser.parse(DBML);
+		var users = database.getSchema(Schema.DEFAULT_NAME).getTable("users");
+		var posts = database.getSchema(Schema.DEFAULT_NAME).getTable("posts");
+		var incoming = posts.getIncomingRelationships();
+		var byColumn = posts.getColumn("user_id").getRelationships();
+		
+		// the views of tables and columns without relationships reflect them, when they are added
+		assertTrue(incoming.isEmpty());
+		for (int i = 0; i < 2; i++) {
+			var relationship = database.createRelationship(null, Relation.ONE_TO_ONE,
+					List.of(users.getColumn("manager_id")), List.of(posts.getColumn("user_id")), Map.of());
+			assertEquals(Set.of(relationship), incoming);
+			assertEquals(2, byColumn.size());
+			database.removeRelationship(relationship);
+			assertTrue(incoming.isEmpty());
+			assertEquals(1, byColumn.size());
+		}
+	}
+	
+	@Test
+	void testRelationshipsByColumn() {
+		var database = DbmlParser.parse(DBML);
+		var users = database.getSchema(Schema.DEFAULT_NAME).getTable("users");
+		
+		// the column is injected by the table partial
+		assertEquals(List.of("users.manager_id > users.id", "posts.user_id > users.id"), names(users.getColumn("id").getRelationships()));
+		var relationships = users.getColumn("manager_id").getRelationships();
+		assertEquals(2, relationships.size());
+		
+		var posts = database.getSchema(Schema.DEFAULT_NAME).getTable("posts");
+		var relationship = database.createRelationship(null, Relation.ONE_TO_ONE,
+				List.of(users.getColumn("manager_id")), List.of(posts.getColumn("user_id")), Map.of());
+		assertEquals(3, relationships.size());
+		database.removeRelationship(relationship);
+		assertEquals(2, relationships.size());
+		assertThrows(UnsupportedOperationException.class, relationships::clear);
+	}
+	
+	private static List<String> names(Set<Relationship> relationships) {
+		return relationships.stream().map(Relationship::toString).toList();
+	}
+	
+	@Test
+	void testAddBefore() {
+		var database = DbmlParser.parse(DBML);
+		var schema = database.getSchema(Schema.DEFAULT_NAME);
+		var users = schema.getTable("users");
+		var posts = schema.getTable("posts");
+		
+		schema.removeTable(posts);
+		assertTrue(schema.addTable(posts, users));
+		assertEquals(List.of(posts, users), List.copyOf(schema.getTables()));
+		// the next table must be defined
+		var comments = schema.createTable("comments");
+		schema.removeTable(comments);
+		assertThrows(IllegalArgumentException.class, () -> schema.addTable(comments, comments));
+		
+		var relationships = List.copyOf(database.getRelationships());
+		database.removeRelationship(relationships.getLast());
+		assertTrue(database.addRelationship(relationships.getLast(), relationships.getFirst()));
+		assertEquals(relationships.getLast(), database.getRelationships().iterator().next());
+		assertFalse(database.addRelationship(relationships.getFirst(), null));
+		assertEquals(Set.of(relationships.getLast()), database.getRelationships(posts.getColumn("id")));
+	}
+	
+	@Test
+	void testSnapshots() {
+		var database = DbmlParser.parse(DBML);
+		var schema = database.getSchema(Schema.DEFAULT_NAME);
+		var tables = schema.getTables();
+		var users = schema.getTable("users");
+		
+		assertSame(database.getSchemas(), database.getSchemas());
+		assertSame(tables, schema.getTables());
+		assertSame(users.getLocalColumns(), users.getLocalColumns());
+		
+		schema.createTable("comments");
+		assertEquals(2, tables.size());
+		assertEquals(3, schema.getTables().size());
+		users.addColumn("email", "varchar");
+		assertEquals(List.of("manager_id", "email"), users.getLocalColumns().stream().map(Column::getName).toList());
+		assertThrows(UnsupportedOperationException.class, tables::clear);
+		
+		// the local elements do not depend on the table partials
+		var localColumns = users.getLocalColumns();
+		database.getTablePartial("base").addColumn("created_at", "timestamp");
+		assertSame(localColumns, users.getLocalColumns());
+		assertEquals(4, users.getColumns().size());
+	}
+	
+	@Test
+	void testFreeze() throws Exception {
+		var dbml = """
+				Project p {
+				  database_type: 'PostgreSQL'
+				}
+				
+				TablePartial audit [headercolor: #fff] {
+				  created_at timestamp [not null]
+				  indexes {
+				    created_at [name: 'created_idx']
+				  }
+				}
+				
+				Enum status {
+				  active [note: 'is active']
+				}
+				
+				Table users as U {
+				  ~audit
+				  id integer [pk]
+				  status status
+				  Note: 'users'
+				}
+				
+				Table posts {
+				  ~audit
+				  user_id integer [ref: > users.id]
+				}
+				
+				TableGroup g {
+				  U
+				}
+				
+				Note n {
+				  'note'
+				}""";
+		var database = DbmlParser.parse(dbml);
+		var expected = print(database);
+		
+		assertSame(database, database.freeze());
+		assertTrue(database.isFrozen());
+		assertEquals(expected, print(database));
+		
+		var schema = database.getSchema(Schema.DEFAULT_NAME);
+		var users = schema.getTable("users");
+		assertSame(schema, database.getOrCreateSchema(Schema.DEFAULT_NAME));
+		assertEquals("#fff", users.getSettings().get(TableSetting.HEADERCOLOR));
+		assertNotNull(users.getIndex("created_idx"));
+		assertSame(users, users.getColumn("created_at").getTable());
+		assertSame(users, database.getAlias("U"));
+		assertEquals(1, users.getIncomingRelationships().size());
+		assertEquals(List.of(users, schema.getTable("posts")), List.copyOf(schema.getTables()));
+		assertTrue(schema.getTables().contains(users));
+		assertFalse(schema.getTables().contains(null));
+		assertTrue(database.getRelationships().containsAll(users.getIncomingRelationships()));
+		
+		assertAll(
+				() -> assertThrows(UnsupportedOperationException.class, () -> database.getOrCreateSchema("other")),
+				() -> assertThrows(UnsupportedOperationException.class, () -> database.createTableGroup("other")),
+				() -> assertThrows(UnsupportedOperationException.class, () -> database.setProject(null)),
+				() -> assertThrows(UnsupportedOperationException.class, () -> schema.createTable("other")),
+				() -> assertThrows(UnsupportedOperationException.class, () -> users.addColumn("other", "integer")),
+				() -> assertThrows(UnsupportedOperationException.class, () -> users.setNote(null)),
+				() -> assertThrows(UnsupportedOperationException.class, () -> users.getColumn("id").addSetting(ColumnSetting.UNIQUE, null)),
+				() -> assertThrows(UnsupportedOperationException.class, () -> database.getTablePartial("audit").addColumn("other", "integer")),
+				() -> assertThrows(UnsupportedOperationException.class, () -> schema.getEnum("status").addValue("other")),
+				() -> assertThrows(UnsupportedOperationException.class, () -> database.getTableGroup("g").addTable(users)),
+				() -> assertThrows(UnsupportedOperationException.class, () -> database.getNamedNote("n").setValue("other")),
+				() -> assertThrows(UnsupportedOperationException.class, () -> database.getProject().getProperties().put("other", "")),
+				() -> assertThrows(UnsupportedOperationException.class, () -> database.getRelationships().iterator().next().addSetting(RelationshipSetting.DELETE, "cascade"))
+		);
+		
+		// concurrent readers see the same database
+		try (var executor = Executors.newFixedThreadPool(4)) {
+			var results = executor.invokeAll(Collections.nCopies(8, () -> print(database)));
+			for (var result : results) {
+				assertEquals(expected, result.get());
+			}
+		}
+	}
+	
+	@Test
+	void testContentHash() {
+		var dbml = DBML + """
+				
+				Enum status {
+				  active
+				}
+				
+				Table other.comments {
+				  id integer
+				}""";
+		var database = DbmlParser.parse(dbml);
+		var same = DbmlParser.parse(dbml);
+		var users = database.getSchema(Schema.DEFAULT_NAME).getTable("users");
+		var posts = database.getSchema(Schema.DEFAULT_NAME).getTable("posts");
+		
+		assertEquals(same.getContentHash(), database.getContentHash());
+		assertEquals(same.getSchema(Schema.DEFAULT_NAME).getTable("users").getContentHash(), users.getContentHash());
+		assertNotEquals(users.getContentHash(), posts.getContentHash());
+		// the order of named elements is not significant
+		var blocks = dbml.split("\n\n");
+		Collections.swap(Arrays.asList(blocks), 1, 2);
+		var reordered = DbmlParser.parse(String.join("\n\n", blocks));
+		assertNotEquals(print(database), print(reordered));
+		assertEquals(database.getContentHash(), reordered.getContentHash());
+		
+		// a changed column changes the hashes up to the database
+		var schemaHash = users.getSchema().getContentHash();
+		var postsHash = posts.getContentHash();
+		var otherHash = database.getSchema("other").getContentHash();
+		users.getColumn("manager_id").addSetting(ColumnSetting.NOT_NULL, null);
+		assertNotEquals(same.getContentHash(), database.getContentHash());
+		assertNotEquals(schemaHash, users.getSchema().getContentHash());
+		assertEquals(postsHash, posts.getContentHash());
+		assertEquals(otherHash, database.getSchema("other").getContentHash());
+		
+		// a changed table partial changes the tables injecting it
+		var usersHash = users.getContentHash();
+		database.getTablePartial("base").addColumn("created_at", "timestamp");
+		assertNotEquals(usersHash, users.getContentHash());
+		assertNotEquals(postsHash, posts.getContentHash());
+		
+		var enumHash = database.getSchema(Schema.DEFAULT_NAME).getEnum("status").getContentHash();
+		database.getSchema(Schema.DEFAULT_NAME).getEnum("status").getValues().iterator().next().setNote(new Note("note"));
+		assertNotEquals(enumHash, database.getSchema(Schema.DEFAULT_NAME).getEnum("status").getContentHash());
+		
+		var hash = database.getContentHash();
+		database.getRelationship("author").addSetting(RelationshipSetting.DELETE, "cascade");
+		assertNotEquals(hash, database.getContentHash());
+		hash = database.getContentHash();
+		database.getSchema("other").getTable("comments").setAlias(new Alias("C"));
+		assertNotEquals(hash, database.getContentHash());
+		
+		hash = database.getContentHash();
+		assertEquals(hash, database.freeze().getContentHash());
+	}
+	
+	private static String print(Database database) {
+		var printer = new DbmlPrinter();
+		database.accept(printer);
+		return printer.toString();
+	}
+}
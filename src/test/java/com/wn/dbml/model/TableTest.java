@@ -0,0 +1,125 @@
+package com.wn.dbml.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableTest {
+	private Database database;
+	private Table table;
+	private TablePartial base, audit;
+	
+	@BeforeEach
+	void setUp() {
+		database = new Database();
+		table = database.getOrCreateSchema(Schema.DEFAULT_NAME).createTable("users");
+		base = database.createTablePartial("base");
+		audit = database.createTablePartial("audit");
+		table.addColumn("name", "varchar");
+		base.addColumn("id", "integer");
+		audit.addColumn("created_at", "timestamp");
+		base.addTablePartial(audit);
+		table.addTablePartial(base);
+	}
+	
+	private static List<String> columnNames(Table table) {
+		return table.getColumns().stream().map(Column::getName).toList();
+	}
+	
+	@Test
+	void testResolvedViewIsReused() {
+		var columns = table.getColumns();
+		
+		assertSame(columns, table.getColumns());
+		assertSame(table.getColumn("id"), table.getColumn("id"));
+		assertEquals(List.of("name", "id", "created_at"), columnNames(table));
+		assertSame(table, table.getColumn("created_at").getTable());
+	}
+	
+	@Test
+	void testChangedTable() {
+		var columns = table.getColumns();
+		table.addColumn("email", "varchar");
+		table.addSetting(TableSetting.HEADERCOLOR, "#fff");
+		table.addIndex(List.of("email"));
+		table.setNote(new Note("users"));
+		
+		assertEquals(List.of("name", "email", "id", "created_at"), columnNames(table));
+		assertEquals(List.of("name", "id", "created_at"), columns.stream().map(Column::getName).toList());
+		assertEquals("#fff", table.getSettings().get(TableSetting.HEADERCOLOR));
+		assertEquals(1, table.getIndexes().size());
+		assertEquals("users", table.getNote().getValue());
+	}
+	
+	@Test
+	void testChangedTablePartial() {
+		table.getColumns();
+		audit.addColumn("updated_at", "timestamp");
+		audit.addSetting(TableSetting.HEADERCOLOR, "#000");
+		audit.addIndex(List.of("created_at")).addSetting(IndexSetting.NAME, "created_idx");
+		audit.setNote(new Note("audit"));
+		
+		assertEquals(List.of("name", "id", "created_at", "updated_at"), columnNames(table));
+		assertEquals("#000", table.getSettings().get(TableSetting.HEADERCOLOR));
+		assertNotNull(table.getIndex("created_idx"));
+		assertEquals("audit", table.getNote().getValue());
+	}
+	
+	@Test
+	void testChangedColumnOfTablePartial() {
+		assertNull(table.getColumn("id").getNote());
+		base.getColumn("id").setNote(new Note("key"));
+		base.getColumn("id").addSetting(ColumnSetting.PRIMARY_KEY, null);
+		
+		assertEquals("key", table.getColumn("id").getNote().getValue());
+		assertTrue(table.getColumn("id").getSettings().containsKey(ColumnSetting.PRIMARY_KEY));
+	}
+	
+	@Test
+	void testRemovedTablePartial() {
+		table.getColumns();
+		base.removeTablePartial(audit);
+		
+		assertEquals(List.of("name", "id"), columnNames(table));
+		// the removed table partial does not invalidate the table anymore
+		audit.addColumn("deleted_at", "timestamp");
+		assertFalse(table.containsColumn("deleted_at"));
+	}
+	
+	@Test
+	void testAlias() {
+		var posts = table.getSchema().createTable("posts");
+		table.setAlias(new Alias("U"));
+		posts.setAlias(new Alias("P"));
+		
+		assertSame(table, database.getAlias("U"));
+		var e = assertThrows(IllegalArgumentException.class, () -> posts.setAlias(new Alias("U")));
+		assertEquals("Alias 'U' is already defined", e.getMessage());
+		
+		table.setAlias(new Alias("V"));
+		assertFalse(database.containsAlias("U"));
+		assertSame(table, database.getAlias("V"));
+		posts.setAlias(null);
+		assertFalse(database.containsAlias("P"));
+	}
+	
+	@Test
+	void testAliasOfRemovedTable() {
+		var schema = table.getSchema();
+		table.setAlias(new Alias("U"));
+		schema.removeTable(table);
+		
+		assertFalse(database.containsAlias("U"));
+		var other = schema.createTable("other");
+		other.setAlias(new Alias("U"));
+		var e = assertThrows(IllegalArgumentException.class, () -> schema.addTable(table));
+		assertEquals("Alias 'U' is already defined", e.getMessage());
+		
+		other.setAlias(null);
+		assertTrue(schema.addTable(table));
+		assertSame(table, database.getAlias("U"));
+	}
+}
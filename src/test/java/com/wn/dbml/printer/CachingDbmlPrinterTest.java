@@ -0,0 +1,140 @@
+package com.wn.dbml.printer;
+
+import com.wn.dbml.benchmark.DbmlGenerator;
+import com.wn.dbml.compiler.lexer.LexerImpl;
+import com.wn.dbml.compiler.parser.ParserImpl;
+import com.wn.dbml.model.Alias;
+import com.wn.dbml.model.ColumnSetting;
+import com.wn.dbml.model.Database;
+import com.wn.dbml.model.Note;
+import com.wn.dbml.model.TableSetting;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingDbmlPrinterTest {
+	private static final String DBML = """
+			enum status {
+			  active
+			}
+			
+			TablePartial base {
+			  id integer
+			}
+			
+			Table users {
+			  ~base
+			  name varchar
+			}
+			
+			Table posts {
+			  id integer
+			  user_id integer
+			}
+			
+			Ref: posts.user_id > users.id
+			
+			TableGroup app {
+			  users
+			  posts
+			}""";
+	
+	private static Database parse(String dbml) {
+		return new ParserImpl().parse(new LexerImpl(dbml));
+	}
+	
+	private static String print(Database database) {
+		var printer = new DbmlPrinter();
+		database.accept(printer);
+		return printer.toString();
+	}
+	
+	@Test
+	void testUnchanged() {
+		var database = parse(DBML);
+		var printer = new CachingDbmlPrinter();
+		
+		assertEquals(DBML, printer.print(database));
+		assertEquals(new CachingDbmlPrinter.Stats(6, 0, 6), printer.getStats());
+		assertEquals(DBML, printer.print(database));
+		assertEquals(new CachingDbmlPrinter.Stats(6, 6, 6), printer.getStats());
+	}
+	
+	@Test
+	void testChanges() {
+		var database = parse(DBML);
+		var printer = new CachingDbmlPrinter();
+		printer.print(database);
+		
+		var users = database.getSchema("public").getTable("users");
+		users.getColumn("name").addSetting(ColumnSetting.NOT_NULL, null);
+		assertEquals(print(database), printer.print(database));
+		assertEquals(new CachingDbmlPrinter.Stats(6, 5, 7), printer.getStats());
+		
+		// the table does not print the columns of its table partial
+		database.getTablePartial("base").getColumn("id").setNote(new Note("the id"));
+		assertEquals(print(database), printer.print(database));
+		assertEquals(new CachingDbmlPrinter.Stats(6, 10, 8), printer.getStats());
+		
+		// the table group prints the alias
+		users.setAlias(new Alias("U"));
+		database.getSchema("public").getEnum("status").addValue("inactive");
+		assertEquals(print(database), printer.print(database));
+		assertEquals(new CachingDbmlPrinter.Stats(6, 13, 11), printer.getStats());
+		
+		var posts = database.getSchema("public").getTable("posts");
+		database.removeRelationship(posts.getOutgoingRelationships().iterator().next());
+		var expected = print(database);
+		assertEquals(expected, printer.print(database));
+		assertEquals(new CachingDbmlPrinter.Stats(5, 18, 11), printer.getStats());
+		
+		var writer = new StringWriter();
+		printer.print(database, writer);
+		assertEquals(expected, writer.toString());
+	}
+	
+	@Test
+	void testInheritedValues() {
+		var database = parse("""
+				TablePartial base [headercolor: #fff] {
+				  id integer
+				  Note: 'n'
+				}
+				
+				Table users {
+				  ~base
+				  name varchar
+				}""");
+		var printer = new CachingDbmlPrinter();
+		printer.print(database);
+		
+		// the resolved settings and note stay the same, the printed ones do not
+		var users = database.getSchema("public").getTable("users");
+		users.setNote(new Note("n"));
+		users.addSetting(TableSetting.HEADERCOLOR, "#fff");
+		assertEquals(print(database), printer.print(database));
+		assertTrue(printer.print(database).contains("Table users [headercolor: #fff] {"));
+	}
+	
+	@Test
+	void testGenerated() {
+		var database = parse(new DbmlGenerator(300, 10, 2, 5, true).generate());
+		var formatter = new DbmlFormatter.Builder().setIndentation("\t").build();
+		var printer = new CachingDbmlPrinter(formatter);
+		printer.print(database);
+		
+		database.getSchema("public").getTable("table150").addColumn("added", "integer");
+		var expected = new DbmlPrinter(formatter);
+		database.accept(expected);
+		var misses = printer.getStats().misses();
+		
+		assertEquals(expected.toString(), printer.print(database));
+		assertEquals(misses + 1, printer.getStats().misses());
+		
+		printer.clear();
+		assertEquals(0, printer.getStats().size());
+		assertEquals(expected.toString(), printer.print(database));
+	}
+}
@@ -1,11 +1,20 @@
 package com.wn.dbml.printer;
 
+import com.wn.dbml.benchmark.DbmlGenerator;
 import com.wn.dbml.compiler.lexer.LexerImpl;
 import com.wn.dbml.compiler.parser.ParserImpl;
 import com.wn.dbml.model.Database;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class DbmlPrinterTest {
 	private Database parse(String dbml) {
@@ -26,6 +35,45 @@ class DbmlPrinterTest {
 		assertEquals(dbml, printer.toString().replace("\r\n", "\n"));
 	}
 	
+	@Test
+	void testStreaming() {
+		var database = parse(new DbmlGenerator(200, 10, 2, 5, true).generate());
+		var printer = new DbmlPrinter();
+		database.accept(printer);
+		var expected = printer.toString();
+		
+		List<Integer> writes = new ArrayList<>();
+		var writer = new StringWriter() {
+			@Override
+			public StringWriter append(CharSequence csq) {
+				writes.add(csq.length());
+				return super.append(csq);
+			}
+		};
+		var streaming = new DbmlPrinter(writer);
+		database.accept(streaming);
+		streaming.flush();
+		
+		assertEquals(expected, writer.toString());
+		assertTrue(writes.size() > 1);
+		assertTrue(writes.stream().allMatch(length -> length < 2 * DbmlPrinter.BUFFER_SIZE), writes.toString());
+		
+		var bytes = new ByteArrayOutputStream();
+		var channel = new DbmlPrinter(Channels.newChannel(bytes), new DbmlFormatter.Builder().build());
+		database.accept(channel);
+		channel.flush();
+		
+		assertEquals(expected, bytes.toString(StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	void testEmpty() {
+		var printer = new DbmlPrinter();
+		new Database().accept(printer);
+		
+		assertEquals("", printer.toString());
+	}
+	
 	@Test
 	void printProject() {
 		var dbml = """
@@ -228,19 +276,18 @@ class DbmlPrinterTest {
 	
 	@Test
 	void printTablePartial() {
-		// 'now()' should be `now()`, but there's currently no way
 		var dbml = """
 				TablePartial base_template [headercolor: #ff0000] {
 				  id int [primary key, not null]
-				  created_at timestamp [default: 'now()']
-				  updated_at timestamp [default: 'now()']
+				  created_at timestamp [default: `now()`]
+				  updated_at timestamp [default: `now()`]
 				
 				  Note: 'base note'
 				}
 				
 				TablePartial soft_delete_template {
 				  delete_status boolean [not null]
-				  deleted_at timestamp [default: 'now()']
+				  deleted_at timestamp [default: `now()`]
 				}
 				
 				TablePartial email_index {
@@ -0,0 +1,99 @@
+package com.wn.dbml.printer;
+
+import com.wn.dbml.benchmark.DbmlGenerator;
+import com.wn.dbml.compiler.lexer.LexerImpl;
+import com.wn.dbml.compiler.parser.ParserImpl;
+import com.wn.dbml.model.Database;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelPrinterTest {
+	private static ForkJoinPool pool;
+	
+	@BeforeAll
+	static void setUp() {
+		pool = new ForkJoinPool(4);
+	}
+	
+	@AfterAll
+	static void tearDown() {
+		pool.shutdown();
+	}
+	
+	private static Database parse(String dbml) {
+		return new ParserImpl().parse(new LexerImpl(dbml));
+	}
+	
+	private static String print(Database database, DbmlFormatter formatter) {
+		var printer = new DbmlPrinter(formatter);
+		database.accept(printer);
+		return printer.toString();
+	}
+	
+	@Test
+	void testAllElements() {
+		var dbml = """
+				Project p {
+				  database_type: 'PostgreSQL'
+				}
+				
+				enum e {
+				  a
+				}
+				
+				TablePartial base {
+				  id integer
+				}
+				
+				Table t1 {
+				  ~base
+				  status e
+				}
+				
+				Table t2 {
+				  id integer
+				}
+				
+				Ref: t1.id - t2.id
+				
+				TableGroup tbls {
+				  t1
+				  t2
+				}
+				
+				Note n {
+				  'a note'
+				}""";
+		var database = parse(dbml);
+		var formatter = new DbmlFormatter.Builder().build();
+		
+		// a part per element
+		assertEquals(dbml, new ParallelPrinter(pool, formatter, 1).print(database));
+		assertEquals(dbml, new ParallelPrinter(pool).print(database));
+	}
+	
+	@Test
+	void testGenerated() {
+		var database = parse(new DbmlGenerator(1000, 10, 2, 5, true).generate());
+		var formatter = new DbmlFormatter.Builder().setIndentation("\t").setLinebreak("\r\n").build();
+		var expected = print(database, formatter);
+		var printer = new ParallelPrinter(pool, formatter, 7);
+		
+		assertEquals(expected, printer.print(database));
+		
+		var writer = new StringWriter();
+		printer.print(database, writer);
+		assertEquals(expected, writer.toString());
+	}
+	
+	@Test
+	void testEmpty() {
+		assertEquals("", new ParallelPrinter(pool, new DbmlFormatter.Builder().build(), 1).print(new Database()));
+	}
+}
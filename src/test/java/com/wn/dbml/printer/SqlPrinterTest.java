@@ -0,0 +1,238 @@
+package com.wn.dbml.printer;
+
+import com.wn.dbml.benchmark.DbmlGenerator;
+import com.wn.dbml.compiler.lexer.LexerImpl;
+import com.wn.dbml.compiler.parser.ParserImpl;
+import com.wn.dbml.model.Database;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlPrinterTest {
+	private static final String DBML = """
+			enum status {
+			  active
+			  "it's"
+			}
+			
+			Table posts {
+			  id integer [pk, increment]
+			  user_id integer [not null, ref: > users.id]
+			  status status [default: 'active']
+			  title varchar(255) [unique, note: 'the title']
+			  indexes {
+			    (user_id, title) [unique, name: 'posts_user_title']
+			    `lower(title)` [type: hash]
+			  }
+			  Note: 'the posts'
+			}
+			
+			Table users {
+			  id integer [pk]
+			  name varchar [default: null]
+			  score decimal [default: 1.5]
+			  active boolean [default: true]
+			  created_at timestamp [default: `now()`]
+			}
+			
+			Table other.tags {
+			  post_id integer
+			  name varchar
+			  indexes {
+			    (post_id, name) [pk]
+			  }
+			}
+			
+			Ref: other.tags.post_id > posts.id [delete: cascade, update: no action]
+			
+			Table a {
+			  id integer [pk]
+			  b_id integer
+			}
+			
+			Table b {
+			  id integer [pk]
+			  a_id integer [ref: > a.id]
+			}
+			
+			Ref a_b: a.b_id > b.id
+			
+			Ref: users.id <> a.id""";
+	
+	private static Database parse(String dbml) {
+		return new ParserImpl().parse(new LexerImpl(dbml));
+	}
+	
+	private static String print(Database database, SqlDialect dialect) {
+		var sb = new StringBuilder();
+		database.accept(new SqlPrinter(sb, dialect));
+		return sb.toString();
+	}
+	
+	@Test
+	void testPostgreSql() {
+		var sql = """
+				CREATE TYPE "status" AS ENUM (
+				  'active',
+				  'it''s'
+				);
+				
+				CREATE SCHEMA IF NOT EXISTS "other";
+				
+				CREATE TABLE "users" (
+				  "id" integer PRIMARY KEY,
+				  "name" varchar DEFAULT NULL,
+				  "score" decimal DEFAULT 1.5,
+				  "active" boolean DEFAULT TRUE,
+				  "created_at" timestamp DEFAULT now()
+				);
+				
+				CREATE TABLE "posts" (
+				  "id" integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+				  "user_id" integer NOT NULL,
+				  "status" "status" DEFAULT 'active',
+				  "title" varchar(255) UNIQUE,
+				  FOREIGN KEY ("user_id") REFERENCES "users" ("id")
+				);
+				
+				CREATE UNIQUE INDEX "posts_user_title" ON "posts" ("user_id", "title");
+				
+				CREATE INDEX ON "posts" USING HASH ((lower(title)));
+				
+				COMMENT ON TABLE "posts" IS 'the posts';
+				
+				COMMENT ON COLUMN "posts"."title" IS 'the title';
+				
+				CREATE TABLE "other"."tags" (
+				  "post_id" integer,
+				  "name" varchar,
+				  PRIMARY KEY ("post_id", "name"),
+				  FOREIGN KEY ("post_id") REFERENCES "posts" ("id") ON DELETE CASCADE ON UPDATE NO ACTION
+				);
+				
+				CREATE TABLE "a" (
+				  "id" integer PRIMARY KEY,
+				  "b_id" integer
+				);
+				
+				CREATE TABLE "b" (
+				  "id" integer PRIMARY KEY,
+				  "a_id" integer,
+				  FOREIGN KEY ("a_id") REFERENCES "a" ("id")
+				);
+				
+				CREATE TABLE "users_a" (
+				  "users_id" integer NOT NULL,
+				  "a_id" integer NOT NULL,
+				  PRIMARY KEY ("users_id", "a_id"),
+				  FOREIGN KEY ("users_id") REFERENCES "users" ("id"),
+				  FOREIGN KEY ("a_id") REFERENCES "a" ("id")
+				);
+				
+				ALTER TABLE "a" ADD CONSTRAINT "a_b" FOREIGN KEY ("b_id") REFERENCES "b" ("id");
+				""";
+		
+		assertEquals(sql, print(parse(DBML), SqlDialect.POSTGRESQL));
+	}
+	
+	@Test
+	void testMySql() {
+		var dbml = """
+				enum status {
+				  active
+				  "it's"
+				}
+				
+				Table users {
+				  id integer [pk, increment]
+				  status status [not null, default: 'a\\b']
+				  created_at timestamp [default: `now()`]
+				  indexes {
+				    status [type: btree, name: 'users_status']
+				  }
+				  Note: 'the users'
+				}
+				
+				Table other.posts {
+				  id integer [pk]
+				  user_id integer [ref: > users.id, note: 'the author']
+				}""";
+		var sql = """
+				CREATE SCHEMA IF NOT EXISTS `other`;
+				
+				CREATE TABLE `users` (
+				  `id` integer AUTO_INCREMENT PRIMARY KEY,
+				  `status` ENUM('active', 'it''s') NOT NULL DEFAULT 'a\\\\b',
+				  `created_at` timestamp DEFAULT (now())
+				) COMMENT='the users';
+				
+				ALTER TABLE `users` ADD INDEX `users_status` (`status`) USING BTREE;
+				
+				CREATE TABLE `other`.`posts` (
+				  `id` integer PRIMARY KEY,
+				  `user_id` integer COMMENT 'the author',
+				  FOREIGN KEY (`user_id`) REFERENCES `users` (`id`)
+				);
+				""";
+		
+		assertEquals(sql, print(parse(dbml), SqlDialect.MYSQL));
+	}
+	
+	@Test
+	void testElements() {
+		var database = parse(DBML);
+		var table = database.getSchema("public").getTable("b");
+		var sb = new StringBuilder();
+		var printer = new SqlPrinter(sb, SqlDialect.POSTGRESQL);
+		table.accept(printer);
+		table.getOutgoingRelationships().forEach(r -> r.accept(printer));
+		printer.flush();
+		
+		assertEquals("""
+				CREATE TABLE "b" (
+				  "id" integer PRIMARY KEY,
+				  "a_id" integer
+				);
+				
+				ALTER TABLE "b" ADD FOREIGN KEY ("a_id") REFERENCES "a" ("id");
+				""", sb.toString());
+	}
+	
+	@Test
+	void testGenerated() {
+		// 100k columns
+		var database = parse(new DbmlGenerator(1000, 100, 2, 5, true).generate());
+		List<Integer> writes = new ArrayList<>();
+		var writer = new StringWriter() {
+			@Override
+			public StringWriter append(CharSequence csq) {
+				writes.add(csq.length());
+				return super.append(csq);
+			}
+		};
+		database.accept(new SqlPrinter(writer, SqlDialect.POSTGRESQL));
+		
+		assertTrue(writes.size() > 1);
+		assertTrue(writes.stream().allMatch(length -> length < 2 * DbmlPrinter.BUFFER_SIZE), writes.toString());
+		// the tables come after the tables they reference
+		var created = new HashSet<String>();
+		var statement = Pattern.compile("CREATE TABLE (\\S+) \\(|REFERENCES (\\S+)");
+		var matcher = statement.matcher(writer.toString());
+		var references = 0;
+		while (matcher.find()) {
+			if (matcher.group(1) != null) {
+				created.add(matcher.group(1));
+			} else {
+				assertTrue(created.contains(matcher.group(2)), matcher.group(2));
+				references++;
+			}
+		}
+		assertEquals(database.getRelationships().size(), references);
+	}
+}